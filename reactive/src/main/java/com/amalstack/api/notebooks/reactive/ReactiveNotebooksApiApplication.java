@@ -0,0 +1,13 @@
+package com.amalstack.api.notebooks.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveNotebooksApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveNotebooksApiApplication.class, args);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.amalstack.api.notebooks.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Only the database of spring.r2dbc is read here. Once the API spreads its users over several shards, that database
+ * holds the users of the first shard only, so the application refuses to start instead of answering everyone else
+ * with 404.
+ */
+@Configuration
+@ConditionalOnProperty(name = "notebooks.sharding.shards[0].url")
+public class ShardingGuardConfiguration {
+
+    public ShardingGuardConfiguration() {
+        throw new IllegalStateException("The reactive read path cannot serve sharded data, it reads spring.r2dbc only. "
+                + "Serve reads from the API while notebooks.sharding.shards is set");
+    }
+}
@@ -0,0 +1,77 @@
+package com.amalstack.api.notebooks.reactive.blobs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the page content column back into the content, as PageContentConverter of the API does: contents kept in the
+ * blob store of the API are read from its directory, which has to be the same here, and marked contents stored in the
+ * row are unmarked.
+ */
+@Component
+public class PageContentReader {
+
+    private static final String MARKED_PREFIX = "blob:";
+
+    private static final String INLINE_PREFIX = "blob:inline:";
+
+    private static final Pattern REFERENCE = Pattern.compile("blob:sha256:([0-9a-f]{64}):(\\d{1,18})");
+
+    private final Path directory;
+
+    public PageContentReader(@Value("${notebooks.blobs.directory:blobs}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the content, empty for a page without one
+     */
+    public Mono<String> read(String column) {
+        if (column == null) {
+            return Mono.empty();
+        }
+        if (!column.startsWith(MARKED_PREFIX)) {
+            return Mono.just(column);
+        }
+        if (column.startsWith(INLINE_PREFIX)) {
+            return Mono.just(column.substring(INLINE_PREFIX.length()));
+        }
+        Matcher matcher = REFERENCE.matcher(column);
+        if (!matcher.matches()) {
+            // Stored before the blob store existed
+            return Mono.just(column);
+        }
+        String hash = matcher.group(1);
+        long length = Long.parseLong(matcher.group(2));
+        // Off the event loop, reading the file blocks
+        return Mono.fromCallable(() -> readBlob(hash, length))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private String readBlob(String hash, long length) {
+        Path path = directory.resolve(hash.substring(0, 2)).resolve(hash);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != length) {
+                throw new IllegalStateException("The blob " + hash + " has " + channel.size()
+                        + " bytes instead of " + length);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the blob " + hash
+                    + ", is notebooks.blobs.directory the one of the API?", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.amalstack.api.notebooks.reactive.controller;
+
+import com.amalstack.api.notebooks.reactive.dto.NotebookInfoDto;
+import com.amalstack.api.notebooks.reactive.dto.NotebookSummaryDto;
+import com.amalstack.api.notebooks.reactive.dto.SectionInfoDto;
+import com.amalstack.api.notebooks.reactive.repository.NotebookReadRepository;
+import com.amalstack.api.notebooks.reactive.repository.NotebookRow;
+import com.amalstack.api.notebooks.reactive.repository.TreeRow;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("notebooks")
+public class ReactiveNotebooksController {
+
+    private final NotebookReadRepository notebookRepository;
+
+    public ReactiveNotebooksController(NotebookReadRepository notebookRepository) {
+        this.notebookRepository = notebookRepository;
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<NotebookInfoDto> get(@PathVariable long id, @AuthenticationPrincipal User user) {
+        return findOwned(id, user)
+                .flatMap(notebook -> sections(notebook)
+                        .collectList()
+                        .map(sections -> NotebookInfoDto.fromRow(notebook, sections)));
+    }
+
+    // Streams each section with its pages as soon as its rows have been read
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SectionInfoDto> stream(@PathVariable long id, @AuthenticationPrincipal User user) {
+        return findOwned(id, user).flatMapMany(this::sections);
+    }
+
+    @GetMapping(value = "/user", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<NotebookSummaryDto> getByUser(@AuthenticationPrincipal User user) {
+        return notebookRepository.findSummariesByUsername(user.getUsername());
+    }
+
+    private Mono<NotebookRow> findOwned(long id, User user) {
+        return notebookRepository
+                .findById(id)
+                .switchIfEmpty(Mono.error(() -> ResourceErrors.notFound("Notebook")))
+                .filter(notebook -> ResourceErrors.isOwnedBy(user, notebook.username()))
+                .switchIfEmpty(Mono.error(ResourceErrors::notOwned));
+    }
+
+    private Flux<SectionInfoDto> sections(NotebookRow notebook) {
+        return notebookRepository
+                .findTree(notebook.id())
+                .bufferUntilChanged(TreeRow::sectionId)
+                .map(rows -> SectionInfoDto.fromRows(notebook.id(), rows));
+    }
+}
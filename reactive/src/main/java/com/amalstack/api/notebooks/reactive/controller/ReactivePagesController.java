@@ -0,0 +1,45 @@
+package com.amalstack.api.notebooks.reactive.controller;
+
+import com.amalstack.api.notebooks.reactive.dto.PageInfoDto;
+import com.amalstack.api.notebooks.reactive.repository.PageReadRepository;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(value = "pages", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReactivePagesController {
+
+    private final PageReadRepository pageRepository;
+
+    public ReactivePagesController(PageReadRepository pageRepository) {
+        this.pageRepository = pageRepository;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<PageInfoDto> get(@PathVariable long id, @AuthenticationPrincipal User user) {
+        return pageRepository
+                .findById(id)
+                .switchIfEmpty(Mono.error(() -> ResourceErrors.notFound("Page")))
+                .filter(page -> ResourceErrors.isOwnedBy(user, page.username()))
+                .switchIfEmpty(Mono.error(ResourceErrors::notOwned))
+                .map(PageInfoDto::fromRow);
+    }
+
+    @GetMapping("/section/{id}")
+    public Flux<PageInfoDto> getBySection(@PathVariable long id, @AuthenticationPrincipal User user) {
+        return pageRepository
+                .findSectionOwner(id)
+                .switchIfEmpty(Mono.error(() -> ResourceErrors.notFound("Section")))
+                .filter(section -> ResourceErrors.isOwnedBy(user, section.username()))
+                .switchIfEmpty(Mono.error(ResourceErrors::notOwned))
+                .flatMapMany(section -> pageRepository.findBySectionId(section.id()))
+                .map(PageInfoDto::fromRow);
+    }
+}
@@ -0,0 +1,26 @@
+package com.amalstack.api.notebooks.reactive.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.server.ResponseStatusException;
+
+final class ResourceErrors {
+
+    static final String NOT_OWNED = "Current user does not have the ownership of the resource";
+
+    private ResourceErrors() {
+
+    }
+
+    static ResponseStatusException notFound(String resourceName) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, resourceName + " not found");
+    }
+
+    static ResponseStatusException notOwned() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, NOT_OWNED);
+    }
+
+    static boolean isOwnedBy(User user, String ownerUsername) {
+        return user.getUsername().equals(ownerUsername);
+    }
+}
@@ -0,0 +1,24 @@
+package com.amalstack.api.notebooks.reactive.dto;
+
+import com.amalstack.api.notebooks.reactive.repository.NotebookRow;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public record NotebookInfoDto(
+        long id,
+        long userId,
+        String name,
+        String description,
+        LocalDateTime creationTime,
+        Collection<SectionInfoDto> sections) {
+
+    public static NotebookInfoDto fromRow(NotebookRow notebook, Collection<SectionInfoDto> sections) {
+        return new NotebookInfoDto(notebook.id(),
+                notebook.userId(),
+                notebook.name(),
+                notebook.description(),
+                notebook.creationTime(),
+                sections);
+    }
+}
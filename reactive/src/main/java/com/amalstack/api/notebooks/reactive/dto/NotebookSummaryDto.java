@@ -0,0 +1,14 @@
+package com.amalstack.api.notebooks.reactive.dto;
+
+import java.time.LocalDateTime;
+
+public record NotebookSummaryDto(
+        long id,
+        String name,
+        String description,
+        LocalDateTime creationTime,
+        int sectionCount,
+        int pageCount,
+        long userId,
+        String username) {
+}
@@ -0,0 +1,14 @@
+package com.amalstack.api.notebooks.reactive.dto;
+
+import com.amalstack.api.notebooks.reactive.repository.PageRow;
+
+public record PageInfoDto(
+        Long id,
+        String title,
+        String content,
+        long sectionId) {
+
+    public static PageInfoDto fromRow(PageRow row) {
+        return new PageInfoDto(row.id(), row.title(), row.content(), row.sectionId());
+    }
+}
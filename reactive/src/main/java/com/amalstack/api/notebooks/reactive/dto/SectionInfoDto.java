@@ -0,0 +1,23 @@
+package com.amalstack.api.notebooks.reactive.dto;
+
+import com.amalstack.api.notebooks.reactive.repository.TreeRow;
+
+import java.util.Collection;
+import java.util.List;
+
+public record SectionInfoDto(
+        long id,
+        long notebookId,
+        String name,
+        Collection<PageInfoDto> pages) {
+
+    // All rows belong to the same section; a section without pages is a single row without a page id
+    public static SectionInfoDto fromRows(long notebookId, List<TreeRow> rows) {
+        var first = rows.get(0);
+        var pages = rows.stream()
+                .filter(row -> row.pageId() != null)
+                .map(row -> new PageInfoDto(row.pageId(), row.pageTitle(), row.pageContent(), row.sectionId()))
+                .toList();
+        return new SectionInfoDto(first.sectionId(), notebookId, first.sectionName(), pages);
+    }
+}
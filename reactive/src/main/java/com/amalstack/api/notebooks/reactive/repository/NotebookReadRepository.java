@@ -0,0 +1,88 @@
+package com.amalstack.api.notebooks.reactive.repository;
+
+import com.amalstack.api.notebooks.reactive.blobs.PageContentReader;
+import com.amalstack.api.notebooks.reactive.dto.NotebookSummaryDto;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Repository
+public class NotebookReadRepository {
+
+    private final DatabaseClient client;
+
+    private final PageContentReader contentReader;
+
+    public NotebookReadRepository(DatabaseClient client, PageContentReader contentReader) {
+        this.client = client;
+        this.contentReader = contentReader;
+    }
+
+    public Mono<NotebookRow> findById(long id) {
+        return client.sql("""
+                        SELECT n.id, n.name, n.description, n.creation_time, u.id AS user_id, u.username
+                        FROM notebook n
+                        JOIN app_user u ON n.app_user_id = u.id
+                        WHERE n.id = :id AND n.deleted_at IS NULL
+                        """)
+                .bind("id", id)
+                .map((row, metadata) -> new NotebookRow(
+                        Objects.requireNonNull(row.get("id", Long.class)),
+                        row.get("name", String.class),
+                        row.get("description", String.class),
+                        row.get("creation_time", LocalDateTime.class),
+                        Objects.requireNonNull(row.get("user_id", Long.class)),
+                        row.get("username", String.class)))
+                .one();
+    }
+
+    // Ordered by section so that rows of one section arrive together and can be emitted as soon as it is complete.
+    // Pages are joined on the notebook as well, so that only its partition of the page table is read.
+    public Flux<TreeRow> findTree(long notebookId) {
+        return client.sql("""
+                        SELECT s.id AS section_id, s.name AS section_name, p.id AS page_id, p.title, p.content
+                        FROM section s
+                        LEFT JOIN page p ON p.notebook_id = s.notebook_id AND p.section_id = s.id
+                        WHERE s.notebook_id = :id
+                        ORDER BY s.position, s.id, p.position, p.id
+                        """)
+                .bind("id", notebookId)
+                .map((row, metadata) -> new TreeRow(
+                        Objects.requireNonNull(row.get("section_id", Long.class)),
+                        row.get("section_name", String.class),
+                        row.get("page_id", Long.class),
+                        row.get("title", String.class),
+                        row.get("content", String.class)))
+                .all()
+                // Keeps the order the sections are grouped by
+                .flatMapSequential(row -> contentReader
+                        .read(row.pageContent())
+                        .map(row::withPageContent)
+                        .defaultIfEmpty(row));
+    }
+
+    public Flux<NotebookSummaryDto> findSummariesByUsername(String username) {
+        return client.sql("""
+                        SELECT n.id, n.name, n.description, n.creation_time, n.section_count, n.page_count,
+                               u.id AS user_id, u.username
+                        FROM notebook n
+                        JOIN app_user u ON n.app_user_id = u.id
+                        WHERE u.username = :username AND n.deleted_at IS NULL
+                        """)
+                .bind("username", username)
+                .map((row, metadata) -> new NotebookSummaryDto(
+                        Objects.requireNonNull(row.get("id", Long.class)),
+                        row.get("name", String.class),
+                        row.get("description", String.class),
+                        row.get("creation_time", LocalDateTime.class),
+                        Objects.requireNonNull(row.get("section_count", Integer.class)),
+                        Objects.requireNonNull(row.get("page_count", Integer.class)),
+                        Objects.requireNonNull(row.get("user_id", Long.class)),
+                        row.get("username", String.class)))
+                .all();
+    }
+}
@@ -0,0 +1,12 @@
+package com.amalstack.api.notebooks.reactive.repository;
+
+import java.time.LocalDateTime;
+
+public record NotebookRow(
+        long id,
+        String name,
+        String description,
+        LocalDateTime creationTime,
+        long userId,
+        String username) {
+}
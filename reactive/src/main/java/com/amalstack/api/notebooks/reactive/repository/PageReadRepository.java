@@ -0,0 +1,89 @@
+package com.amalstack.api.notebooks.reactive.repository;
+
+import com.amalstack.api.notebooks.reactive.blobs.PageContentReader;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+@Repository
+public class PageReadRepository {
+
+    // Every query names the notebook of the rows it reads, otherwise all partitions of page and section are searched
+    private static final String SELECT_PAGES = """
+            SELECT p.id, p.title, p.content, p.section_id, u.username
+            FROM page p
+            JOIN section s ON s.notebook_id = p.notebook_id AND s.id = p.section_id
+            JOIN notebook n ON s.notebook_id = n.id
+            JOIN app_user u ON n.app_user_id = u.id
+            WHERE n.deleted_at IS NULL
+            """;
+
+    private final DatabaseClient client;
+
+    private final PageContentReader contentReader;
+
+    public PageReadRepository(DatabaseClient client, PageContentReader contentReader) {
+        this.client = client;
+        this.contentReader = contentReader;
+    }
+
+    public Mono<PageRow> findById(long id) {
+        return client.sql(SELECT_PAGES + """
+                        AND p.notebook_id = (SELECT l.notebook_id FROM page_location l WHERE l.id = :id)
+                        AND p.id = :id
+                        """)
+                .bind("id", id)
+                .map((row, metadata) -> toPageRow(row))
+                .one()
+                .flatMap(this::withContent);
+    }
+
+    public Flux<PageRow> findBySectionId(long sectionId) {
+        return client.sql(SELECT_PAGES + """
+                        AND p.notebook_id = (SELECT l.notebook_id FROM section_location l WHERE l.id = :id)
+                        AND p.section_id = :id
+                        ORDER BY p.position, p.id
+                        """)
+                .bind("id", sectionId)
+                .map((row, metadata) -> toPageRow(row))
+                .all()
+                .flatMapSequential(this::withContent);
+    }
+
+    public Mono<SectionOwnerRow> findSectionOwner(long sectionId) {
+        return client.sql("""
+                        SELECT s.id, u.username
+                        FROM section s
+                        JOIN notebook n ON s.notebook_id = n.id
+                        JOIN app_user u ON n.app_user_id = u.id
+                        WHERE s.notebook_id = (SELECT l.notebook_id FROM section_location l WHERE l.id = :id)
+                          AND s.id = :id
+                          AND n.deleted_at IS NULL
+                        """)
+                .bind("id", sectionId)
+                .map((row, metadata) -> new SectionOwnerRow(
+                        Objects.requireNonNull(row.get("id", Long.class)),
+                        row.get("username", String.class)))
+                .one();
+    }
+
+    private Mono<PageRow> withContent(PageRow page) {
+        return contentReader
+                .read(page.content())
+                .map(page::withContent)
+                .defaultIfEmpty(page);
+    }
+
+    private static PageRow toPageRow(Row row) {
+        return new PageRow(
+                Objects.requireNonNull(row.get("id", Long.class)),
+                row.get("title", String.class),
+                row.get("content", String.class),
+                Objects.requireNonNull(row.get("section_id", Long.class)),
+                row.get("username", String.class));
+    }
+}
@@ -0,0 +1,13 @@
+package com.amalstack.api.notebooks.reactive.repository;
+
+public record PageRow(
+        long id,
+        String title,
+        String content,
+        long sectionId,
+        String username) {
+
+    public PageRow withContent(String content) {
+        return new PageRow(id, title, content, sectionId, username);
+    }
+}
@@ -0,0 +1,6 @@
+package com.amalstack.api.notebooks.reactive.repository;
+
+public record SectionOwnerRow(
+        long id,
+        String username) {
+}
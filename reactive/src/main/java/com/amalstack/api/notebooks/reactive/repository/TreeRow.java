@@ -0,0 +1,13 @@
+package com.amalstack.api.notebooks.reactive.repository;
+
+public record TreeRow(
+        long sectionId,
+        String sectionName,
+        Long pageId,
+        String pageTitle,
+        String pageContent) {
+
+    public TreeRow withPageContent(String pageContent) {
+        return new TreeRow(sectionId, sectionName, pageId, pageTitle, pageContent);
+    }
+}
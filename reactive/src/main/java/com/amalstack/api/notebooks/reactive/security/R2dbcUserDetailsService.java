@@ -0,0 +1,32 @@
+package com.amalstack.api.notebooks.reactive.security;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+@Service
+public class R2dbcUserDetailsService implements ReactiveUserDetailsService {
+
+    private final DatabaseClient client;
+
+    public R2dbcUserDetailsService(DatabaseClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return client.sql("SELECT username, password FROM app_user WHERE username = :username")
+                .bind("username", username)
+                .map((row, metadata) -> User.builder()
+                        .username(row.get("username", String.class))
+                        .password(row.get("password", String.class))
+                        .authorities(Collections.emptyList())
+                        .build())
+                .one();
+    }
+}
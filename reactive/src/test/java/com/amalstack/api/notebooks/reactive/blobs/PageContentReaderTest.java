@@ -0,0 +1,78 @@
+package com.amalstack.api.notebooks.reactive.blobs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+class PageContentReaderTest {
+
+    // Above the default threshold of 64KB, so the API keeps it in the blob store
+    private static final String LARGE_CONTENT = "Page Contents Ü ".repeat(5000);
+
+    @TempDir
+    private Path directory;
+
+    private PageContentReader reader;
+
+    @BeforeEach
+    void initEach() {
+        reader = new PageContentReader(directory);
+    }
+
+    @Test
+    void read_whenColumnRefersToBlob_thenReadsContentFromBlobStore() throws Exception {
+        byte[] bytes = LARGE_CONTENT.getBytes(StandardCharsets.UTF_8);
+        String hash = writeBlob(bytes);
+
+        StepVerifier.create(reader.read("blob:sha256:" + hash + ":" + bytes.length))
+                .expectNext(LARGE_CONTENT)
+                .verifyComplete();
+    }
+
+    @Test
+    void read_whenBlobIsMissing_thenFails() {
+        String hash = "0".repeat(64);
+
+        StepVerifier.create(reader.read("blob:sha256:" + hash + ":10"))
+                .expectError(UncheckedIOException.class)
+                .verify();
+    }
+
+    @Test
+    void read_whenColumnIsMarkedInline_thenUnmarksIt() {
+        StepVerifier.create(reader.read("blob:inline:blob:sha256:looks like a reference"))
+                .expectNext("blob:sha256:looks like a reference")
+                .verifyComplete();
+    }
+
+    @Test
+    void read_whenColumnIsPlainContent_thenReturnsIt() {
+        StepVerifier.create(reader.read("Page Contents"))
+                .expectNext("Page Contents")
+                .verifyComplete();
+    }
+
+    @Test
+    void read_whenColumnIsNull_thenEmpty() {
+        StepVerifier.create(reader.read(null))
+                .verifyComplete();
+    }
+
+    // Laid out as the BlobStore of the API writes them
+    private String writeBlob(byte[] bytes) throws IOException, NoSuchAlgorithmException {
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        Path path = Files.createDirectories(directory.resolve(hash.substring(0, 2))).resolve(hash);
+        Files.write(path, bytes);
+        return hash;
+    }
+}
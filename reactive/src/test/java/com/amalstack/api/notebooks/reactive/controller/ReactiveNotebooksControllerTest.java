@@ -0,0 +1,107 @@
+package com.amalstack.api.notebooks.reactive.controller;
+
+import com.amalstack.api.notebooks.reactive.dto.SectionInfoDto;
+import com.amalstack.api.notebooks.reactive.repository.NotebookReadRepository;
+import com.amalstack.api.notebooks.reactive.repository.NotebookRow;
+import com.amalstack.api.notebooks.reactive.repository.TreeRow;
+import com.amalstack.api.notebooks.reactive.security.ReactiveSecurityConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@WebFluxTest(ReactiveNotebooksController.class)
+@Import(ReactiveSecurityConfiguration.class)
+@WithMockUser(username = ReactiveNotebooksControllerTest.OWNER)
+class ReactiveNotebooksControllerTest {
+
+    static final String OWNER = "owner@example.com";
+
+    private static final long NOTEBOOK_ID = 1;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private NotebookReadRepository notebookRepository;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(notebookRepository.findById(NOTEBOOK_ID))
+                .thenReturn(Mono.just(new NotebookRow(NOTEBOOK_ID,
+                        "Test Notebook",
+                        "Test Description",
+                        LocalDateTime.now(),
+                        1,
+                        OWNER)));
+        Mockito.when(notebookRepository.findById(-1))
+                .thenReturn(Mono.empty());
+        Mockito.when(notebookRepository.findTree(NOTEBOOK_ID))
+                .thenReturn(Flux.just(
+                        new TreeRow(1, "Section 1", 1L, "Page 1.1", "Contents"),
+                        new TreeRow(1, "Section 1", 2L, "Page 1.2", "Contents"),
+                        new TreeRow(2, "Section 2", null, null, null)));
+    }
+
+    @Test
+    void get_whenIdIsValid_thenOk() {
+        webTestClient.get()
+                .uri("/notebooks/{id}", NOTEBOOK_ID)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(NOTEBOOK_ID)
+                .jsonPath("$.sections.length()").isEqualTo(2)
+                .jsonPath("$.sections[0].pages.length()").isEqualTo(2)
+                .jsonPath("$.sections[1].pages.length()").isEqualTo(0);
+    }
+
+    @Test
+    void stream_whenIdIsValid_thenStreamsSections() {
+        var sections = webTestClient.get()
+                .uri("/notebooks/{id}", NOTEBOOK_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(SectionInfoDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(sections)
+                .extracting(SectionInfoDto::id)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void get_whenIdIsInvalid_thenNotFound() {
+        webTestClient.get()
+                .uri("/notebooks/{id}", -1)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @WithMockUser(username = "other@example.com")
+    void get_whenNotebookIsNotOwnedByCurrentUser_thenUnauthorized() {
+        webTestClient.get()
+                .uri("/notebooks/{id}", NOTEBOOK_ID)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
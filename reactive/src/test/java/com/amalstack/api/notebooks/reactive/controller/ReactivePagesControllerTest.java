@@ -0,0 +1,121 @@
+package com.amalstack.api.notebooks.reactive.controller;
+
+import com.amalstack.api.notebooks.reactive.repository.PageReadRepository;
+import com.amalstack.api.notebooks.reactive.repository.PageRow;
+import com.amalstack.api.notebooks.reactive.repository.SectionOwnerRow;
+import com.amalstack.api.notebooks.reactive.security.ReactiveSecurityConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactivePagesController.class)
+@Import(ReactiveSecurityConfiguration.class)
+@WithMockUser(username = ReactivePagesControllerTest.OWNER)
+class ReactivePagesControllerTest {
+
+    static final String OWNER = "owner@example.com";
+
+    private static final long PAGE_ID = 10;
+
+    private static final long SECTION_ID = 1;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private PageReadRepository pageRepository;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(pageRepository.findById(PAGE_ID))
+                .thenReturn(Mono.just(new PageRow(PAGE_ID, "Page 1.1", "Contents", SECTION_ID, OWNER)));
+        Mockito.when(pageRepository.findById(-1))
+                .thenReturn(Mono.empty());
+        Mockito.when(pageRepository.findSectionOwner(SECTION_ID))
+                .thenReturn(Mono.just(new SectionOwnerRow(SECTION_ID, OWNER)));
+        Mockito.when(pageRepository.findSectionOwner(-1))
+                .thenReturn(Mono.empty());
+        Mockito.when(pageRepository.findBySectionId(SECTION_ID))
+                .thenReturn(Flux.just(
+                        new PageRow(PAGE_ID, "Page 1.1", "Contents", SECTION_ID, OWNER),
+                        new PageRow(PAGE_ID + 1, "Page 1.2", null, SECTION_ID, OWNER)));
+    }
+
+    @Test
+    void get_whenIdIsValid_thenOk() {
+        webTestClient.get()
+                .uri("/pages/{id}", PAGE_ID)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(PAGE_ID)
+                .jsonPath("$.title").isEqualTo("Page 1.1")
+                .jsonPath("$.content").isEqualTo("Contents")
+                .jsonPath("$.sectionId").isEqualTo(SECTION_ID);
+    }
+
+    @Test
+    void get_whenIdIsInvalid_thenNotFound() {
+        webTestClient.get()
+                .uri("/pages/{id}", -1)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @WithMockUser(username = "other@example.com")
+    void get_whenPageIsNotOwnedByCurrentUser_thenUnauthorized() {
+        webTestClient.get()
+                .uri("/pages/{id}", PAGE_ID)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void getBySection_whenIdIsValid_thenOkInOrder() {
+        webTestClient.get()
+                .uri("/pages/section/{id}", SECTION_ID)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(PAGE_ID)
+                .jsonPath("$[1].id").isEqualTo(PAGE_ID + 1);
+    }
+
+    @Test
+    void getBySection_whenIdIsInvalid_thenNotFound() {
+        webTestClient.get()
+                .uri("/pages/section/{id}", -1)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        Mockito.verify(pageRepository, Mockito.never()).findBySectionId(Mockito.anyLong());
+    }
+
+    @Test
+    @WithMockUser(username = "other@example.com")
+    void getBySection_whenSectionIsNotOwnedByCurrentUser_thenUnauthorized() {
+        webTestClient.get()
+                .uri("/pages/section/{id}", SECTION_ID)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        Mockito.verify(pageRepository, Mockito.never()).findBySectionId(Mockito.anyLong());
+    }
+}
@@ -0,0 +1,21 @@
+#!/usr/bin/env sh
+# Extracts the jar built with mvn -Pfast-startup package and records an AppCDS archive from a training run, which
+# starts the application context against the database and exits once it has been refreshed.
+# The database settings are taken from the usual environment, e.g. SPRING_PROFILES_ACTIVE and POSTGRES_*.
+# Start the application from the extracted jar afterwards:
+#   java -XX:SharedArchiveFile=target/application/application.jsa -Dspring.aot.enabled=true \
+#       -jar target/application/notebooks-api-*.jar --spring.profiles.active=<db-profile>,fast-startup
+set -eu
+
+JAR=$(ls target/notebooks-api-*.jar)
+PROFILES=${1:-${SPRING_PROFILES_ACTIVE:+$SPRING_PROFILES_ACTIVE,}fast-startup}
+
+rm -rf target/application
+java -Djarmode=tools -jar "$JAR" extract --destination target/application
+
+echo "Training run with profiles $PROFILES"
+java -XX:ArchiveClassesAtExit=target/application/application.jsa \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -jar "target/application/$(basename "$JAR")" \
+    --spring.profiles.active="$PROFILES"
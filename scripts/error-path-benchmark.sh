@@ -0,0 +1,11 @@
+#!/usr/bin/env sh
+# Measures the cost of answering a request for a missing resource, the old way and the current one (see
+# ErrorPathBenchmark). Any further arguments are passed to JMH, for example -prof gc.
+#   scripts/error-path-benchmark.sh [jmh options]
+set -eu
+
+mvn -q -DskipTests test-compile dependency:build-classpath \
+    -Dmdep.includeScope=test -Dmdep.outputFile=target/benchmark.classpath
+
+java -cp "target/test-classes:target/classes:$(cat target/benchmark.classpath)" \
+    org.openjdk.jmh.Main ErrorPathBenchmark "$@"
@@ -0,0 +1,16 @@
+#!/usr/bin/env sh
+# Drives a running instance with concurrent authenticated requests using hey (https://github.com/rakyll/hey).
+# Run it once against the default mode and once against the virtual-threads profile to compare them:
+#   java -jar target/*.jar
+#   java -jar target/*.jar --spring.profiles.active=<db-profile>,virtual-threads
+set -eu
+
+BASE_URL=${1:-http://localhost:8080}
+CREDENTIALS=${2:?"usage: load-test.sh <base-url> <email:password> [concurrency] [duration]"}
+CONCURRENCY=${3:-500}
+DURATION=${4:-60s}
+
+AUTH="Authorization: Basic $(printf '%s' "$CREDENTIALS" | base64)"
+
+echo "GET /notebooks/user with $CONCURRENCY concurrent clients for $DURATION"
+hey -z "$DURATION" -c "$CONCURRENCY" -H "$AUTH" "$BASE_URL/notebooks/user"
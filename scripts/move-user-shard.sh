@@ -0,0 +1,16 @@
+#!/usr/bin/env sh
+# Moves a user and everything they own to another shard, while the application keeps serving requests. Takes the
+# same configuration as the application (spring.datasource and notebooks.sharding.shards), e.g. from the environment.
+#   scripts/move-user-shard.sh <username> <target-shard> [db-profile]
+set -eu
+
+USERNAME=${1:?"usage: move-user-shard.sh <username> <target-shard> [db-profile]"}
+TARGET_SHARD=${2:?"usage: move-user-shard.sh <username> <target-shard> [db-profile]"}
+DB_PROFILE=${3:-${SPRING_PROFILES_ACTIVE:-dev}}
+JAR=$(ls target/notebooks-api-*.jar)
+
+java -jar "$JAR" \
+    --spring.profiles.active="$DB_PROFILE" \
+    --spring.main.web-application-type=none \
+    --notebooks.sharding.move.username="$USERNAME" \
+    --notebooks.sharding.move.target-shard="$TARGET_SHARD"
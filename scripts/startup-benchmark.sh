@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Measures the time from launching the JVM to the first successful GET /notebooks/user, for the plain jar and for the
+# extracted jar with AOT and the AppCDS archive (run scripts/build-cds-archive.sh first). The user must already exist.
+#   scripts/startup-benchmark.sh <email:password> [runs] [db-profile]
+set -eu
+
+CREDENTIALS=${1:?"usage: startup-benchmark.sh <email:password> [runs] [db-profile]"}
+RUNS=${2:-5}
+DB_PROFILE=${3:-${SPRING_PROFILES_ACTIVE:-dev}}
+PORT=${PORT:-8080}
+
+AUTH="Authorization: Basic $(printf '%s' "$CREDENTIALS" | base64)"
+JAR=$(ls target/notebooks-api-*.jar)
+EXTRACTED_JAR="target/application/$(basename "$JAR")"
+
+# Bash 5 keeps the wall clock in microseconds, unlike date which has no portable sub-second format
+now_ms() {
+    local now=$EPOCHREALTIME
+    echo $(( ${now%[.,]*} * 1000 + 10#${now#*[.,]} / 1000 ))
+}
+
+# Prints the milliseconds until the endpoint first answers 200
+measure() {
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -H "$AUTH" "http://localhost:$PORT/notebooks/user")" = 200 ]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "The application exited before answering" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    echo $(($(now_ms) - start))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+benchmark() {
+    name=$1
+    shift
+    total=0
+    for i in $(seq "$RUNS"); do
+        elapsed=$(measure "$@")
+        echo "$name run $i: ${elapsed}ms"
+        total=$((total + elapsed))
+    done
+    echo "$name average: $((total / RUNS))ms"
+}
+
+benchmark "jar" java -jar "$JAR" --spring.profiles.active="$DB_PROFILE"
+
+if [ -f target/application/application.jsa ]; then
+    benchmark "aot+cds" java -XX:SharedArchiveFile=target/application/application.jsa -Dspring.aot.enabled=true \
+        -jar "$EXTRACTED_JAR" --spring.profiles.active="$DB_PROFILE",fast-startup
+else
+    echo "No AppCDS archive in target/application, run scripts/build-cds-archive.sh after mvn -Pfast-startup package"
+fi
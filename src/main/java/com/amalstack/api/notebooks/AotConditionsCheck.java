@@ -0,0 +1,100 @@
+package com.amalstack.api.notebooks;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Spring AOT evaluates the bean conditions when the jar is built, so the optional features are switched on or off
+ * by the properties of the build. The switches are recorded in the jar then, and a node started with the generated
+ * artifacts refuses to start if its own properties would switch a feature differently.
+ */
+class AotConditionsCheck implements BeanFactoryInitializationAotProcessor, EnvironmentPostProcessor {
+
+    static final String RESOURCE = "META-INF/notebooks/aot-conditions.properties";
+
+    // Compared by value
+    private static final List<String> VALUE_SWITCHES = List.of(
+            "spring.threads.virtual.enabled",
+            "notebooks.datasource.bounded-concurrency.enabled",
+            "notebooks.autosave.enabled",
+            "notebooks.blobs.enabled",
+            "notebooks.attachments.enabled",
+            "notebooks.load-shedding.enabled",
+            "notebooks.sql.log.enabled");
+
+    // Only whether they are set, the values differ from one environment to another
+    private static final List<String> PRESENCE_SWITCHES = List.of(
+            "notebooks.datasource.replicas[0].url",
+            "notebooks.sharding.shards[0].url",
+            "notebooks.sharding.move.username");
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Properties switches = record(beanFactory.getBean(Environment.class));
+        return (generationContext, code) -> generationContext.getGeneratedFiles()
+                .addResourceFile(RESOURCE, new ByteArrayResource(store(switches)));
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        var resource = new ClassPathResource(RESOURCE);
+        if (!AotDetector.useGeneratedArtifacts() || !resource.exists()) {
+            return;
+        }
+        var recorded = new Properties();
+        try (var input = resource.getInputStream()) {
+            recorded.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        check(recorded, environment);
+    }
+
+    static Properties record(Environment environment) {
+        var switches = new Properties();
+        VALUE_SWITCHES.forEach(name -> switches.setProperty(name, environment.getProperty(name, "")));
+        PRESENCE_SWITCHES.forEach(name -> switches.setProperty(name,
+                Boolean.toString(environment.containsProperty(name))));
+        return switches;
+    }
+
+    static void check(Properties recorded, Environment environment) {
+        Properties current = record(environment);
+        String mismatches = Stream.concat(VALUE_SWITCHES.stream(), PRESENCE_SWITCHES.stream())
+                .filter(name -> !current.getProperty(name).equals(recorded.getProperty(name, "")))
+                .map(name -> "%s (built with '%s', started with '%s')"
+                        .formatted(name, recorded.getProperty(name, ""), current.getProperty(name)))
+                .collect(Collectors.joining(", "));
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("The jar was built by Spring AOT with different feature switches, "
+                    + "rebuild it with the properties of this environment or start it without "
+                    + "-Dspring.aot.enabled=true: " + mismatches);
+        }
+    }
+
+    private static byte[] store(Properties switches) {
+        var output = new ByteArrayOutputStream();
+        try {
+            switches.store(output, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
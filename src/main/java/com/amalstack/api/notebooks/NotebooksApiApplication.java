@@ -1,14 +1,34 @@
 package com.amalstack.api.notebooks;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
 
 @SpringBootApplication
+@EnableScheduling
 public class NotebooksApiApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(NotebooksApiApplication.class, args);
     }
 
-}
+    // With spring.main.lazy-initialization, beans that are never requested are never created, so the scheduled jobs
+    // would not run. Hibernate is kept eager as well, so that the schema is validated before the first request.
+    @Bean
+    static LazyInitializationExcludeFilter eagerInitializationFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (EntityManagerFactory.class.isAssignableFrom(beanType) || hasScheduledMethods(beanType));
+    }
 
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package com.amalstack.api.notebooks.attachments;
+
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Deletes the attachment files without a row, which deleting a page or notebook leaves behind since the rows go with
+ * the cascade. Files written within the grace period are kept, their rows may not have been committed yet.
+ */
+@Component
+@ConditionalOnProperty(name = "notebooks.attachments.enabled", havingValue = "true")
+public class AttachmentGarbageCollector {
+
+    static final String FIND_IDS = "SELECT id FROM page_attachment";
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentGarbageCollector.class);
+
+    private final AttachmentStore attachmentStore;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Duration gracePeriod;
+
+    public AttachmentGarbageCollector(AttachmentStore attachmentStore,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Value("${notebooks.attachments.grace-period:1h}") Duration gracePeriod) {
+        this.attachmentStore = attachmentStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Scheduled(initialDelayString = "${notebooks.attachments.sweep-interval:1d}",
+            fixedDelayString = "${notebooks.attachments.sweep-interval:1d}")
+    public int sweep() throws IOException {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        Set<Long> ids = new HashSet<>();
+        // Ids are unique across shards, which all keep their files in the same store
+        ShardContext.forEachShard(() -> jdbcTemplate.query(FIND_IDS, (RowCallbackHandler) resultSet ->
+                ids.add(resultSet.getLong(1))));
+
+        int deleted = attachmentStore.sweep(ids::contains, cutoff);
+        if (deleted > 0) {
+            logger.info("Deleted {} attachments of deleted pages", deleted);
+        }
+        return deleted;
+    }
+}
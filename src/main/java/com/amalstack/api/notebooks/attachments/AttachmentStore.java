@@ -0,0 +1,148 @@
+package com.amalstack.api.notebooks.attachments;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the files attached to pages, each under the id of its row. Uploads are never held in memory: the servlet
+ * container writes each part to disk as it is received and the file is renamed into the store from there, and
+ * downloads are copied from the file to the connection by the kernel.
+ * <p>
+ * The multipart location should be on the same filesystem as the store, otherwise the rename becomes a copy.
+ */
+@Component
+@ConditionalOnProperty(name = "notebooks.attachments.enabled", havingValue = "true")
+public class AttachmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentStore.class);
+
+    private static final Pattern ATTACHMENT_NAME = Pattern.compile("\\d+");
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    public AttachmentStore(@Value("${notebooks.attachments.directory:attachments}") Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory).toAbsolutePath();
+    }
+
+    public void save(long id, MultipartFile file) {
+        Path path = pathOf(id);
+        try {
+            Files.createDirectories(path.getParent());
+            // Must not exist yet, the container moves its own file here when it can
+            Path temporary = path.resolveSibling(id + "-" + UUID.randomUUID() + TEMPORARY_SUFFIX);
+            try {
+                file.transferTo(temporary);
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store the attachment " + id, e);
+        }
+    }
+
+    public boolean exists(long id) {
+        return Files.isRegularFile(pathOf(id));
+    }
+
+    public Path pathOf(long id) {
+        // Spread over 256 directories by the lowest byte of the id
+        return directory.resolve("%02x".formatted(id & 0xff)).resolve(Long.toString(id));
+    }
+
+    /**
+     * Copies {@code count} bytes of the attachment starting at {@code position} to the channel, without passing them
+     * through the heap where the platform allows it.
+     */
+    public void transferTo(long id, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(id), StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred == 0) {
+                    throw new EOFException("The attachment " + id + " ended at " + position + " of " + end + " bytes");
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Deletes the file once the transaction deleting its row has committed, or right away outside a transaction. A file
+     * that cannot be deleted is left to the {@link AttachmentGarbageCollector}, the row is gone either way.
+     */
+    public void deleteAfterCommit(long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            delete(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                delete(id);
+            }
+        });
+    }
+
+    private void delete(long id) {
+        try {
+            Files.deleteIfExists(pathOf(id));
+        } catch (IOException e) {
+            // Thrown from afterCommit it would fail a request whose changes are already committed
+            logger.warn("Failed to delete the attachment {}, leaving it to the garbage collector", id, e);
+        }
+    }
+
+    /**
+     * Deletes the files whose row does not exist, e.g. because its page was deleted with the cascade, and files left
+     * behind by interrupted uploads, as long as they were written before the cutoff.
+     *
+     * @return the number of attachments deleted
+     */
+    int sweep(LongPredicate exists, Instant cutoff) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            files = paths.filter(Files::isRegularFile).toList();
+        }
+        int deleted = 0;
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            try {
+                if (Files.getLastModifiedTime(path).toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                if (ATTACHMENT_NAME.matcher(name).matches()) {
+                    if (!exists.test(Long.parseLong(name)) && Files.deleteIfExists(path)) {
+                        deleted++;
+                    }
+                } else if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted by another instance in the meantime
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,210 @@
+package com.amalstack.api.notebooks.autosave;
+
+import com.amalstack.api.notebooks.blobs.BlobStore;
+import com.amalstack.api.notebooks.blobs.PageContentConverter;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import com.amalstack.api.notebooks.sharding.ShardDirectory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the latest autosaved content of each page in memory and writes it with one batched update once the page has
+ * been idle for a while, or at the latest after the maximum delay, whichever comes first.
+ */
+@Component
+@ConditionalOnProperty(name = "notebooks.autosave.enabled", havingValue = "true")
+public class PageAutosaveBuffer {
+
+    // Records the update in the change log in the same statement, like the write paths in the controllers do. The page
+    // is updated in the one partition page_location names, and only if no full update has superseded the buffered
+    // content: a flush waiting for the row lock of such an update re-checks the version once it is committed.
+    static final String UPDATE_CONTENT = """
+            WITH updated AS (
+                UPDATE page SET content = ?
+                WHERE notebook_id = (SELECT l.notebook_id FROM page_location l WHERE l.id = ?) AND id = ?
+                AND content_version = ?
+                RETURNING id, notebook_id
+            )
+            INSERT INTO change_log_entry (id, owner_id, notebook_id, entity_type, entity_id, operation, recorded_at)
+            SELECT nextval('change_log_entry_seq'), n.app_user_id, n.id, 'PAGE', u.id, 'UPDATED', now()
+            FROM updated u
+            JOIN notebook n ON n.id = u.notebook_id
+            """;
+
+    private static final Logger logger = LoggerFactory.getLogger(PageAutosaveBuffer.class);
+
+    private final Map<Long, PendingContent> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The statement bypasses Hibernate, large contents go to the blob store here just as they would through the entity
+    private final PageContentConverter contentConverter;
+
+    // Asked when flushing rather than when buffering, so that content buffered before its user was moved to another
+    // shard is written to the new one
+    private final ObjectProvider<ShardDirectory> shardDirectory;
+
+    private final long idleMillis;
+
+    private final long maxDelayMillis;
+
+    private final int maxPendingPages;
+
+    public PageAutosaveBuffer(JdbcTemplate jdbcTemplate,
+                              ObjectProvider<BlobStore> blobStore,
+                              ObjectProvider<ShardDirectory> shardDirectory,
+                              @Value("${notebooks.autosave.idle:2s}") Duration idle,
+                              @Value("${notebooks.autosave.max-delay:10s}") Duration maxDelay,
+                              @Value("${notebooks.autosave.max-pending-pages:10000}") int maxPendingPages) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.contentConverter = new PageContentConverter(blobStore);
+        this.shardDirectory = shardDirectory;
+        this.idleMillis = idle.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.maxPendingPages = maxPendingPages;
+    }
+
+    /**
+     * Buffers the content of a page as it was loaded by the caller, which has checked that the user owns it.
+     *
+     * @param contentVersion the content version of the page as loaded
+     */
+    public void buffer(long pageId, String username, String content, long contentVersion) {
+        long now = System.currentTimeMillis();
+        pending.merge(pageId,
+                new PendingContent(username, content, contentVersion, now, now),
+                (previous, latest) -> new PendingContent(username, content, contentVersion,
+                        previous.firstSavedAt(), now));
+
+        flushIfFull();
+    }
+
+    /**
+     * Replaces the content the same user buffered for the page before, without loading the page again.
+     *
+     * @return whether there was such content, otherwise nothing is buffered
+     */
+    public boolean bufferIfPending(long pageId, String username, String content) {
+        long now = System.currentTimeMillis();
+        var buffered = pending.computeIfPresent(pageId, (id, previous) -> previous.username().equals(username)
+                ? new PendingContent(username, content, previous.contentVersion(), previous.firstSavedAt(), now)
+                : previous);
+        if (buffered == null || !buffered.username().equals(username)) {
+            return false;
+        }
+
+        flushIfFull();
+        return true;
+    }
+
+    private void flushIfFull() {
+        if (pending.size() > maxPendingPages) {
+            flushAll();
+        }
+    }
+
+    // Read-your-writes: the user who autosaved sees their latest content before it is flushed
+    public Optional<String> pendingContent(long pageId, String username) {
+        var content = pending.get(pageId);
+        if (content == null || !content.username().equals(username)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(content.content());
+    }
+
+    /**
+     * Drops the buffered content of a page that is updated in full or deleted. A flush may already have taken the
+     * content, so a page updated in full must also be marked with
+     * {@link com.amalstack.api.notebooks.model.Page#supersedeAutosavedContent()}; a deleted page has no row left to
+     * write to.
+     */
+    public void discard(long pageId) {
+        pending.remove(pageId);
+    }
+
+    @Scheduled(fixedDelayString = "${notebooks.autosave.flush-interval:1s}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        flush(content -> now - content.lastSavedAt() >= idleMillis
+                || now - content.firstSavedAt() >= maxDelayMillis);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(content -> true);
+    }
+
+    private synchronized void flush(Predicate<PendingContent> isDue) {
+        List<Map.Entry<Long, PendingContent>> due = pending.entrySet()
+                .stream()
+                .filter(entry -> isDue.test(entry.getValue()))
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+        if (due.isEmpty()) {
+            return;
+        }
+
+        var directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            flush(due);
+            return;
+        }
+        Map<Integer, List<Map.Entry<Long, PendingContent>>> dueByShard = new HashMap<>();
+        // The content of a user who is being moved stays buffered until the move is done, it would be lost if it
+        // reached the old shard after the rows have been copied from there
+        for (var entry : due) {
+            var assignment = directory.find(entry.getValue().username());
+            if (assignment.isEmpty()) {
+                // The user has been deleted, and their pages with them
+                pending.remove(entry.getKey(), entry.getValue());
+            } else if (!assignment.get().moving()) {
+                dueByShard.computeIfAbsent(assignment.get().shard(), shard -> new ArrayList<>()).add(entry);
+            }
+        }
+        dueByShard.forEach((shard, entries) -> ShardContext.runOn(shard, () -> flush(entries)));
+    }
+
+    private void flush(List<Map.Entry<Long, PendingContent>> due) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_CONTENT, due.stream()
+                    .map(entry -> new Object[]{
+                            contentConverter.convertToDatabaseColumn(entry.getValue().content()),
+                            entry.getKey(),
+                            entry.getKey(),
+                            entry.getValue().contentVersion()})
+                    .toList());
+        } catch (DataAccessException | UncheckedIOException e) {
+            // Entries stay buffered and are retried on the next flush
+            logger.error("Failed to flush {} autosaved pages", due.size(), e);
+            return;
+        }
+
+        // Keep entries that were saved again while flushing
+        due.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+    }
+
+    record PendingContent(String username,
+                          String content,
+                          long contentVersion,
+                          long firstSavedAt,
+                          long lastSavedAt) {
+    }
+}
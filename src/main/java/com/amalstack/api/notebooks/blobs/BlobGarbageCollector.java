@@ -0,0 +1,61 @@
+package com.amalstack.api.notebooks.blobs;
+
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Deletes the blobs no page refers to anymore. Blobs written or referenced again within the grace period are kept,
+ * since the rows referring to them may not have been committed yet.
+ */
+@Component
+@ConditionalOnProperty(name = "notebooks.blobs.enabled", havingValue = "true")
+public class BlobGarbageCollector {
+
+    static final String FIND_REFERENCES = "SELECT DISTINCT content FROM page WHERE content LIKE 'blob:sha256:%'";
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobGarbageCollector.class);
+
+    private final BlobStore blobStore;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Duration gracePeriod;
+
+    public BlobGarbageCollector(BlobStore blobStore,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${notebooks.blobs.grace-period:1h}") Duration gracePeriod) {
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Scheduled(initialDelayString = "${notebooks.blobs.sweep-interval:1d}",
+            fixedDelayString = "${notebooks.blobs.sweep-interval:1d}")
+    public int sweep() throws IOException {
+        // Taken first, so that a blob referenced by a row committed after the scan below is newer than it
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        Set<String> referenced = new HashSet<>();
+        // The pages of every shard share the store
+        ShardContext.forEachShard(() -> jdbcTemplate.query(FIND_REFERENCES, (RowCallbackHandler) resultSet ->
+                BlobReference.parse(resultSet.getString(1)).ifPresent(reference -> referenced.add(reference.hash()))));
+
+        int deleted = blobStore.sweep(referenced::contains, cutoff);
+        if (deleted > 0) {
+            logger.info("Deleted {} blobs that no page refers to, {} are still referenced", deleted, referenced.size());
+        }
+        return deleted;
+    }
+}
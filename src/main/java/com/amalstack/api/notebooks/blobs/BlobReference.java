@@ -0,0 +1,28 @@
+package com.amalstack.api.notebooks.blobs;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What a row keeps of content that was moved to the {@link BlobStore}: the SHA-256 hash of its UTF-8 bytes, which names
+ * the blob, and their number.
+ */
+record BlobReference(String hash, long length) {
+
+    static final String PREFIX = "blob:sha256:";
+
+    private static final Pattern PATTERN = Pattern.compile(Pattern.quote(PREFIX) + "([0-9a-f]{64}):(\\d{1,18})");
+
+    static Optional<BlobReference> parse(String value) {
+        Matcher matcher = PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(new BlobReference(matcher.group(1), Long.parseLong(matcher.group(2))));
+    }
+
+    String format() {
+        return PREFIX + hash + ":" + length;
+    }
+}
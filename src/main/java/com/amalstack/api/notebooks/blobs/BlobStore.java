@@ -0,0 +1,173 @@
+package com.amalstack.api.notebooks.blobs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps page contents above a size threshold as files named by the SHA-256 hash of their bytes, so that the same
+ * content, e.g. of a copied page, is stored once however many pages refer to it. A blob only ever appears under its
+ * name complete, by an atomic rename of the file it was written to, and is read through a memory mapping.
+ * <p>
+ * Every instance of the application has to be given the same directory, e.g. on a shared volume.
+ */
+@Component
+@ConditionalOnProperty(name = "notebooks.blobs.enabled", havingValue = "true")
+public class BlobStore {
+
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final String DELETING_SUFFIX = ".deleting";
+
+    private final Path directory;
+
+    private final long threshold;
+
+    public BlobStore(@Value("${notebooks.blobs.directory:blobs}") Path directory,
+                     @Value("${notebooks.blobs.threshold:64KB}") DataSize threshold) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.threshold = threshold.toBytes();
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return the hash the content is stored under
+     */
+    public String put(byte[] content) {
+        String hash = HexFormat.of().formatHex(sha256(content));
+        Path path = pathOf(hash);
+        try {
+            if (touch(path)) {
+                return hash;
+            }
+            Files.createDirectories(path.getParent());
+            Path temporary = Files.createTempFile(path.getParent(), hash, TEMPORARY_SUFFIX);
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(content);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(true);
+                }
+                // Writers of the same content race harmlessly, the last rename replaces an identical file
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store the blob " + hash, e);
+        }
+    }
+
+    public String read(String hash, long length) {
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            if (channel.size() != length) {
+                throw new IllegalStateException("The blob " + hash + " has " + channel.size()
+                        + " bytes instead of " + length);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the blob " + hash, e);
+        }
+    }
+
+    /**
+     * Deletes the blobs that are not referenced and were last written or referenced before the cutoff, together with
+     * files left behind by interrupted writes.
+     *
+     * @return the number of blobs deleted
+     */
+    int sweep(Predicate<String> isReferenced, Instant cutoff) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            files = paths.filter(Files::isRegularFile).toList();
+        }
+        int deleted = 0;
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            try {
+                if (BLOB_NAME.matcher(name).matches()) {
+                    if (!isReferenced.test(name) && !isNewerThan(path, cutoff) && delete(path, cutoff)) {
+                        deleted++;
+                    }
+                } else if ((name.endsWith(TEMPORARY_SUFFIX) || name.endsWith(DELETING_SUFFIX))
+                        && !isNewerThan(path, cutoff)) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (NoSuchFileException e) {
+                // Renamed or deleted by a writer or another instance in the meantime
+            }
+        }
+        return deleted;
+    }
+
+    // The blob is renamed away before it is checked once more: put() either referenced it again before, which moved
+    // its time past the cutoff, or no longer finds it and writes it anew
+    private boolean delete(Path path, Instant cutoff) throws IOException {
+        Path deleting = path.resolveSibling(path.getFileName() + DELETING_SUFFIX);
+        try {
+            Files.move(path, deleting, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (isNewerThan(deleting, cutoff)) {
+            Files.move(deleting, path, StandardCopyOption.ATOMIC_MOVE);
+            return false;
+        }
+        Files.delete(deleting);
+        return true;
+    }
+
+    // Referencing a blob again renews its time, which keeps it from being swept before the new reference is committed
+    private static boolean touch(Path path) throws IOException {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static boolean isNewerThan(Path path, Instant cutoff) throws IOException {
+        return Files.getLastModifiedTime(path).toInstant().isAfter(cutoff);
+    }
+
+    // Spread over 256 directories by the first two digits of the hash
+    private Path pathOf(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.amalstack.api.notebooks.blobs;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Moves page contents larger than the threshold of the {@link BlobStore} out of the row, which then only holds a
+ * {@link BlobReference}. Without a blob store every content stays in the row.
+ * <p>
+ * Contents stored in the row that begin like a reference are marked, so that no content can pass for a reference to
+ * a blob of another page.
+ */
+@Converter
+public class PageContentConverter implements AttributeConverter<String, String> {
+
+    private static final String MARKED_PREFIX = "blob:";
+
+    private static final String INLINE_PREFIX = "blob:inline:";
+
+    private final ObjectProvider<BlobStore> blobStore;
+
+    public PageContentConverter(ObjectProvider<BlobStore> blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String content) {
+        if (content == null) {
+            return null;
+        }
+        var store = blobStore.getIfAvailable();
+        // No character takes more than 3 bytes per UTF-16 unit, shorter contents are not encoded to be measured
+        if (store != null && content.length() > store.getThreshold() / 3) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > store.getThreshold()) {
+                return new BlobReference(store.put(bytes), bytes.length).format();
+            }
+        }
+        return content.startsWith(MARKED_PREFIX) ? INLINE_PREFIX + content : content;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String column) {
+        if (column == null || !column.startsWith(MARKED_PREFIX)) {
+            return column;
+        }
+        if (column.startsWith(INLINE_PREFIX)) {
+            return column.substring(INLINE_PREFIX.length());
+        }
+        // Anything else was stored before the blob store existed
+        return BlobReference.parse(column)
+                .map(reference -> {
+                    var store = blobStore.getIfAvailable();
+                    if (store == null) {
+                        throw new IllegalStateException("The content of a page is in the blob store, "
+                                + "which is not enabled (notebooks.blobs.enabled)");
+                    }
+                    return store.read(reference.hash(), reference.length());
+                })
+                .orElse(column);
+    }
+}
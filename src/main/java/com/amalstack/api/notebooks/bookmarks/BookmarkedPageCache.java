@@ -0,0 +1,53 @@
+package com.amalstack.api.notebooks.bookmarks;
+
+import com.amalstack.api.notebooks.repository.PageBookmarkRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Holds the ids of the pages each user has bookmarked, so that pages can be flagged as bookmarked without querying
+ * the bookmarks again. Entries expire after a while, which bounds how long changes made through another instance of
+ * the application go unnoticed.
+ */
+@Component
+public class BookmarkedPageCache {
+
+    private final PageBookmarkRepository bookmarkRepository;
+
+    private final Cache<String, Set<Long>> pageIdsByUsername;
+
+    public BookmarkedPageCache(PageBookmarkRepository bookmarkRepository,
+                               @Value("${notebooks.bookmarks.cache-size:10000}") long maximumSize,
+                               @Value("${notebooks.bookmarks.cache-ttl:10m}") Duration timeToLive) {
+        this.bookmarkRepository = bookmarkRepository;
+        this.pageIdsByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    public Set<Long> pageIds(String username) {
+        return pageIdsByUsername.get(username,
+                key -> Set.copyOf(bookmarkRepository.findPageIdsByUsername(key)));
+    }
+
+    public void invalidate(String username) {
+        pageIdsByUsername.invalidate(username);
+        // A request reading in the meantime would cache the set from before the commit, so evict once more after it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    pageIdsByUsername.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.amalstack.api.notebooks.changelog;
+
+import com.amalstack.api.notebooks.repository.ChangeLogEntryRepository;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Component
+public class ChangeLogCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogCompactionJob.class);
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration retention;
+
+    public ChangeLogCompactionJob(ChangeLogEntryRepository changeLogEntryRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${notebooks.sync.retention:30d}") Duration retention) {
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${notebooks.sync.compaction-interval:1h}")
+    public int compact() {
+        Instant cutoff = Instant.now().minus(retention);
+        int deleted = ShardContext.sumOverShards(() -> transactionTemplate.execute(status ->
+                changeLogEntryRepository.deleteRecordedBefore(cutoff)));
+        if (deleted > 0) {
+            logger.info("Pruned {} change log entries older than {}", deleted, retention);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,34 @@
+package com.amalstack.api.notebooks.changelog;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent;
+import com.amalstack.api.notebooks.model.ChangeLogEntry;
+import com.amalstack.api.notebooks.repository.ChangeLogEntryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+/**
+ * Appends every change to the change log in the transaction that made it, right before it commits. Recording as late
+ * as possible keeps the gap between taking a sequence number and becoming visible small.
+ */
+@Component
+public class ChangeLogRecorder {
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+
+    public ChangeLogRecorder(ChangeLogEntryRepository changeLogEntryRepository) {
+        this.changeLogEntryRepository = changeLogEntryRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(NotebookChangeEvent event) {
+        changeLogEntryRepository.save(new ChangeLogEntry(event.ownerId(),
+                event.notebookId(),
+                event.entityType(),
+                event.entityId(),
+                event.operation(),
+                Instant.now()));
+    }
+}
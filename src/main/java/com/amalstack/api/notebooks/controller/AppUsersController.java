@@ -2,47 +2,107 @@ package com.amalstack.api.notebooks.controller;
 
 import com.amalstack.api.notebooks.dto.AppUserInfoDto;
 import com.amalstack.api.notebooks.dto.AppUserRegistrationDto;
+import com.amalstack.api.notebooks.dto.UsernameAvailabilityDto;
 import com.amalstack.api.notebooks.exception.AppUserNotFoundException;
 import com.amalstack.api.notebooks.exception.UsernameAlreadyExistsException;
 import com.amalstack.api.notebooks.model.AppUser;
 import com.amalstack.api.notebooks.repository.AppUserRepository;
+import com.amalstack.api.notebooks.security.PasswordHasher;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import com.amalstack.api.notebooks.sharding.ShardDirectory;
+import com.amalstack.api.notebooks.users.UsernameBloomFilter;
 import jakarta.validation.Valid;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @RestController
 @RequestMapping(value = "users", produces = MediaType.APPLICATION_JSON_VALUE)
 public class AppUsersController {
 
     private final AppUserRepository repository;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
+    private final ObjectProvider<UsernameBloomFilter> usernames;
+    private final ObjectProvider<ShardDirectory> shardDirectory;
+    private final Executor taskExecutor;
 
-    public AppUsersController(AppUserRepository repository, PasswordEncoder encoder) {
+    public AppUsersController(AppUserRepository repository,
+                              PasswordHasher hasher,
+                              ObjectProvider<UsernameBloomFilter> usernames,
+                              ObjectProvider<ShardDirectory> shardDirectory,
+                              @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
         this.repository = repository;
-        this.encoder = encoder;
+        this.hasher = hasher;
+        this.usernames = usernames;
+        this.shardDirectory = shardDirectory;
+        this.taskExecutor = taskExecutor;
     }
 
+    // The request thread is released while the password is hashed. The insert is handed to the application task
+    // executor, so that the hashing threads never wait for the database.
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public AppUserInfoDto register(@RequestBody @Valid AppUserRegistrationDto registration) {
+    public CompletableFuture<AppUserInfoDto> register(@RequestBody @Valid AppUserRegistrationDto registration) {
+        return hasher
+                .encode(registration.password())
+                .thenApplyAsync(encodedPassword -> AppUserInfoDto.fromAppUser(insert(registration.toUser(encodedPassword))),
+                        taskExecutor);
+    }
 
-        String username = registration.email();
+    // With shards, the directory decides between concurrent sign-ups and places the user on their shard
+    private AppUser insert(AppUser user) {
+        var directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            return save(user);
+        }
+        int shard = directory.assign(user.getUsername());
+        try {
+            return ShardContext.callOn(shard, () -> save(user));
+        } catch (RuntimeException e) {
+            directory.unassign(user.getUsername());
+            throw e;
+        }
+    }
 
-        if (repository.findByUsername(username).isPresent()) {
-            throw new UsernameAlreadyExistsException(username);
+    // The unique constraint on the username decides between concurrent sign-ups, without a lookup beforehand
+    private AppUser save(AppUser user) {
+        try {
+            AppUser savedUser = repository.saveAndFlush(user);
+            usernames.ifAvailable(filter -> filter.add(savedUser.getUsername()));
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && AppUser.USERNAME_CONSTRAINT.equals(violation.getConstraintName())) {
+                throw new UsernameAlreadyExistsException(user.getUsername(), e);
+            }
+            throw e;
         }
+    }
 
-        AppUser user = repository.save(registration.toUser(encoder));
 
-        return AppUserInfoDto.fromAppUser(user);
+    @GetMapping("/available")
+    @Transactional(readOnly = true)
+    public UsernameAvailabilityDto available(@RequestParam String email) {
+        // A miss in the filter means the username is definitely free, only a probable hit needs the database
+        var filter = usernames.getIfAvailable();
+        var directory = shardDirectory.getIfAvailable();
+        boolean available = (filter != null && !filter.mightExist(email))
+                || (directory == null ? repository.findByUsername(email).isEmpty() : directory.find(email).isEmpty());
+        return new UsernameAvailabilityDto(email, available);
     }
 
-
     @GetMapping
+    @Transactional(readOnly = true)
     public AppUserInfoDto current(@AuthenticationPrincipal User user) {
         return repository
                 .findByUsername(user.getUsername())
@@ -0,0 +1,69 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.bookmarks.BookmarkedPageCache;
+import com.amalstack.api.notebooks.dto.BookmarkDto;
+import com.amalstack.api.notebooks.exception.PageNotFoundByIdException;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.repository.PageBookmarkRepository;
+import com.amalstack.api.notebooks.repository.PageRepository;
+import com.amalstack.api.notebooks.validation.OwnershipGuard;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+
+@RestController
+@RequestMapping(value = "bookmarks", produces = MediaType.APPLICATION_JSON_VALUE)
+public class BookmarksController {
+    private final PageBookmarkRepository bookmarkRepository;
+    private final PageRepository pageRepository;
+    private final ObjectProvider<BookmarkedPageCache> bookmarkedPages;
+
+    public BookmarksController(PageBookmarkRepository bookmarkRepository,
+                               PageRepository pageRepository,
+                               ObjectProvider<BookmarkedPageCache> bookmarkedPages) {
+        this.bookmarkRepository = bookmarkRepository;
+        this.pageRepository = pageRepository;
+        this.bookmarkedPages = bookmarkedPages;
+    }
+
+    @GetMapping
+    @Transactional(readOnly = true)
+    public Collection<BookmarkDto> getByUser(@AuthenticationPrincipal User user) {
+        return bookmarkRepository.findByUsername(user.getUsername());
+    }
+
+    @PutMapping("/{pageId}")
+    @Transactional
+    public BookmarkDto add(@PathVariable long pageId, @AuthenticationPrincipal User user) {
+        Page page = findOwnedPage(pageId, user);
+
+        bookmarkRepository.addIfAbsent(page.getSection().getNotebook().getOwner().getId(), pageId);
+        bookmarkedPages.ifAvailable(cache -> cache.invalidate(user.getUsername()));
+
+        return BookmarkDto.fromPage(page);
+    }
+
+    @DeleteMapping("/{pageId}")
+    @Transactional
+    public void remove(@PathVariable long pageId, @AuthenticationPrincipal User user) {
+        Page page = findOwnedPage(pageId, user);
+
+        bookmarkRepository.deleteByUserIdAndPageId(page.getSection().getNotebook().getOwner().getId(), pageId);
+        bookmarkedPages.ifAvailable(cache -> cache.invalidate(user.getUsername()));
+    }
+
+    // Only the owner of a page can bookmark it, so the owner is also the user the bookmark belongs to
+    private Page findOwnedPage(long pageId, User user) {
+        Page page = pageRepository
+                .findById(pageId)
+                .orElseThrow(() -> new PageNotFoundByIdException(pageId));
+
+        OwnershipGuard.throwIfPageNotOwned(user, page);
+        return page;
+    }
+}
@@ -0,0 +1,42 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.exception.EntityNotFoundByIdException;
+import com.amalstack.api.notebooks.exception.ResourceNotOwnedException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers the missing and not owned resources that ordinary traffic runs into with an {@link
+ * com.amalstack.api.notebooks.dto.ErrorInfo} body, written from a template per exception type instead of going
+ * through the error page and the object mapper.
+ */
+@ControllerAdvice
+public class DomainExceptionHandler {
+
+    private final Map<Class<?>, ErrorResponseTemplate> templates = new ConcurrentHashMap<>();
+
+    @ExceptionHandler({EntityNotFoundByIdException.class, ResourceNotOwnedException.class})
+    public ResponseEntity<byte[]> handle(RuntimeException ex) {
+        var template = templates.computeIfAbsent(ex.getClass(), DomainExceptionHandler::createTemplate);
+        return ResponseEntity
+                .status(template.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(template.render(LocalDateTime.now(), Objects.requireNonNullElse(ex.getMessage(), "")));
+    }
+
+    // The status each exception is declared with stays the one it is answered with
+    private static ErrorResponseTemplate createTemplate(Class<?> exceptionType) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(exceptionType, ResponseStatus.class);
+        return new ErrorResponseTemplate(responseStatus == null ? HttpStatus.NOT_FOUND : responseStatus.code());
+    }
+}
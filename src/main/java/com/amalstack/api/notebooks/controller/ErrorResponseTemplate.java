@@ -0,0 +1,50 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The JSON of an {@link com.amalstack.api.notebooks.dto.ErrorInfo} without errors, with everything but the timestamp
+ * and the message encoded up front.
+ */
+final class ErrorResponseTemplate {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    private static final byte[] MESSAGE_FIELD = "\",\"message\":\"".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] END = "\",\"errors\":null}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpStatus status;
+
+    private final byte[] start;
+
+    ErrorResponseTemplate(HttpStatus status) {
+        this.status = status;
+        this.start = ("{\"status\":" + status.value()
+                + ",\"error\":\"" + new String(ENCODER.quoteAsString(status.toString()))
+                + "\",\"timestamp\":\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    HttpStatus getStatus() {
+        return status;
+    }
+
+    byte[] render(LocalDateTime timestamp, String message) {
+        byte[] encodedMessage = ENCODER.quoteAsUTF8(message);
+        var out = new ByteArrayOutputStream(start.length + 32 + MESSAGE_FIELD.length + encodedMessage.length
+                + END.length);
+        out.writeBytes(start);
+        // The format Jackson writes local date-times in, the same as the timestamps of the other error responses
+        out.writeBytes(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp).getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(MESSAGE_FIELD);
+        out.writeBytes(encodedMessage);
+        out.writeBytes(END);
+        return out.toByteArray();
+    }
+}
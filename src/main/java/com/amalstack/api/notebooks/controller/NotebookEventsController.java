@@ -0,0 +1,40 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.events.NotebookEventBroker;
+import com.amalstack.api.notebooks.exception.NotebookNotFoundByIdException;
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.repository.NotebookRepository;
+import com.amalstack.api.notebooks.validation.OwnershipGuard;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping(value = "notebooks", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+public class NotebookEventsController {
+    private final NotebookRepository notebookRepository;
+    private final NotebookEventBroker eventBroker;
+
+    public NotebookEventsController(NotebookRepository notebookRepository, NotebookEventBroker eventBroker) {
+        this.notebookRepository = notebookRepository;
+        this.eventBroker = eventBroker;
+    }
+
+    // Ends the transaction before the stream opens, the connection is not kept for the lifetime of the subscription
+    @Transactional(readOnly = true)
+    @GetMapping("/{id}/events")
+    public SseEmitter events(@PathVariable long id,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                             @AuthenticationPrincipal User user) {
+        Notebook notebook = notebookRepository
+                .findById(id)
+                .orElseThrow(() -> new NotebookNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
+
+        return eventBroker.subscribe(id, lastEventId);
+    }
+}
@@ -1,6 +1,10 @@
 package com.amalstack.api.notebooks.controller;
 
+import com.amalstack.api.notebooks.autosave.PageAutosaveBuffer;
+import com.amalstack.api.notebooks.bookmarks.BookmarkedPageCache;
 import com.amalstack.api.notebooks.dto.*;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
 import com.amalstack.api.notebooks.exception.AppUserNotFoundException;
 import com.amalstack.api.notebooks.exception.NotebookNotFoundByIdException;
 import com.amalstack.api.notebooks.model.Notebook;
@@ -9,17 +13,29 @@ import com.amalstack.api.notebooks.repository.AppUserRepository;
 import com.amalstack.api.notebooks.repository.NotebookRepository;
 import com.amalstack.api.notebooks.repository.PageRepository;
 import com.amalstack.api.notebooks.repository.SectionRepository;
+import com.amalstack.api.notebooks.tree.NotebookTreeWriter;
 import com.amalstack.api.notebooks.validation.OwnershipGuard;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "notebooks", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -28,19 +44,35 @@ public class NotebooksController {
     private final AppUserRepository userRepository;
     private final SectionRepository sectionRepository;
     private final PageRepository pageRepository;
+    private final ObjectProvider<PageAutosaveBuffer> autosaveBuffer;
+    private final ObjectProvider<BookmarkedPageCache> bookmarkedPages;
+    private final ObjectProvider<NotebookTreeWriter> treeWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration purgeRetention;
 
     public NotebooksController(NotebookRepository notebookRepository,
                                AppUserRepository userRepository,
                                SectionRepository sectionRepository,
-                               PageRepository pageRepository) {
+                               PageRepository pageRepository,
+                               ObjectProvider<PageAutosaveBuffer> autosaveBuffer,
+                               ObjectProvider<BookmarkedPageCache> bookmarkedPages,
+                               ObjectProvider<NotebookTreeWriter> treeWriter,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${notebooks.purge.retention:7d}") Duration purgeRetention) {
         this.notebookRepository = notebookRepository;
         this.userRepository = userRepository;
         this.sectionRepository = sectionRepository;
         this.pageRepository = pageRepository;
+        this.autosaveBuffer = autosaveBuffer;
+        this.bookmarkedPages = bookmarkedPages;
+        this.treeWriter = treeWriter;
+        this.eventPublisher = eventPublisher;
+        this.purgeRetention = purgeRetention;
     }
 
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public NotebookInfoDto get(@PathVariable long id, @AuthenticationPrincipal User user) {
         var notebook = notebookRepository
                 .findById(id)
@@ -49,32 +81,57 @@ public class NotebooksController {
         OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
 
         Collection<Section> sections = sectionRepository.findByNotebookId(id);
+        // Load the pages of all sections at once instead of one query per section
+        var buffer = autosaveBuffer.getIfAvailable();
+        var bookmarks = bookmarkedPages.getIfAvailable();
+        Set<Long> bookmarkedPageIds = bookmarks == null ? Set.of() : bookmarks.pageIds(user.getUsername());
+        Map<Long, List<PageInfoDto>> pagesBySection = pageRepository.findByNotebookId(id)
+                .stream()
+                .map(PageInfoDto::fromPage)
+                .map(page -> buffer == null ? page : buffer
+                        .pendingContent(page.id(), user.getUsername())
+                        .map(page::withContent)
+                        .orElse(page))
+                .map(page -> page.withBookmarked(bookmarkedPageIds.contains(page.id())))
+                .collect(Collectors.groupingBy(PageInfoDto::sectionId));
         List<SectionInfoDto> sectionInfo = new ArrayList<>();
-        sections.forEach(section -> {
-            Collection<PageInfoDto> pages = pageRepository.findBySectionId(section.getId())
-                    .stream()
-                    .map(PageInfoDto::fromPage)
-                    .toList();
-            sectionInfo.add(SectionInfoDto.fromSection(section, pages));
-        });
+        sections.forEach(section -> sectionInfo.add(SectionInfoDto.fromSection(section,
+                pagesBySection.getOrDefault(section.getId(), List.of()))));
 
         return NotebookInfoDto.fromNotebook(notebook, sectionInfo);
     }
 
+    // The same JSON as get, written while the sections and pages are read, for notebooks too large to load at once
+    @GetMapping("/{id}/tree")
+    @Transactional(readOnly = true)
+    public ResponseEntity<StreamingResponseBody> getTree(@PathVariable long id, @AuthenticationPrincipal User user) {
+        var notebook = notebookRepository
+                .findById(id)
+                .orElseThrow(() -> new NotebookNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
+
+        var header = NotebookInfoDto.fromNotebook(notebook, List.of());
+        var writer = treeWriter.getObject();
+        var username = user.getUsername();
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writer.write(header, username, out));
+    }
+
     @GetMapping("/user")
+    @Transactional(readOnly = true)
     public Collection<NotebookSummaryDto> getByUser(@AuthenticationPrincipal User user) {
         return notebookRepository
                 .findByOwnerUsername(user.getUsername())
                 .stream()
-                .map(notebook -> {
-                    int sections = notebookRepository.countSections(notebook.getId()).orElseThrow();
-                    int pages = notebookRepository.countSectionPages(notebook.getId()).orElseThrow();
-                    return NotebookSummaryDto.fromNotebook(notebook, sections, pages);
-                })
+                .map(NotebookSummaryDto::fromNotebook)
                 .toList();
     }
 
     @PostMapping
+    @Transactional
     @ResponseStatus(HttpStatus.CREATED)
     public NotebookSummaryDto create(@Valid @RequestBody NotebookDto notebookDto, @AuthenticationPrincipal User user) {
         var username = user.getUsername();
@@ -85,17 +142,19 @@ public class NotebooksController {
                 ));
 
         Notebook savedNotebook = notebookRepository.save(notebookDto.toNotebook(appUser));
+        eventPublisher.publishEvent(NotebookChangeEvent.ofNotebook(savedNotebook, Operation.CREATED));
 
         return NotebookSummaryDto.fromNotebook(savedNotebook);
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public NotebookSummaryDto update(@PathVariable long id,
                                      @Valid @RequestBody NotebookDto notebookDto,
                                      @AuthenticationPrincipal User user) {
         // Get or create notebook
-        Notebook notebook = notebookRepository
-                .findById(id)
+        var existingNotebook = notebookRepository.findById(id);
+        Notebook notebook = existingNotebook
                 .map(nb -> {
                     OwnershipGuard.throwIfNotebookNotOwned(user, nb);
                     nb.setName(notebookDto.name());
@@ -103,6 +162,10 @@ public class NotebooksController {
                     return nb;
                 })
                 .orElseGet(() -> {
+                    // Saving over a deleted notebook would bring back its contents along with it
+                    if (notebookRepository.existsById(id)) {
+                        throw new NotebookNotFoundByIdException(id);
+                    }
                     var nb = notebookDto.toNotebook(userRepository
                             .findByUsername(user.getUsername())
                             .orElseThrow(AppUserNotFoundException::new));
@@ -110,17 +173,60 @@ public class NotebooksController {
                     return nb;
                 });
         var savedNotebook = notebookRepository.save(notebook);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofNotebook(savedNotebook,
+                existingNotebook.isEmpty() ? Operation.CREATED : Operation.UPDATED));
 
         return NotebookSummaryDto.fromNotebook(savedNotebook);
     }
 
+    @PostMapping("/{id}/copy")
+    @Transactional
+    @ResponseStatus(HttpStatus.CREATED)
+    public NotebookSummaryDto copy(@PathVariable long id, @AuthenticationPrincipal User user) {
+        var notebook = notebookRepository
+                .findById(id)
+                .orElseThrow(() -> new NotebookNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
+
+        Notebook copy = notebookRepository.save(new Notebook(notebook.getName(),
+                notebook.getDescription(),
+                LocalDateTime.now(),
+                notebook.getOwner()));
+        // The sections and pages are copied inside the database instead of being loaded here
+        int pageCount = notebookRepository.copySections(id, copy.getId());
+        copy.setSectionCount(sectionRepository.countByNotebookId(copy.getId()));
+        copy.setPageCount(pageCount);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofNotebook(copy, Operation.CREATED));
+
+        return NotebookSummaryDto.fromNotebook(copy);
+    }
+
     @DeleteMapping("/{id}")
+    @Transactional
     public void delete(@PathVariable Long id, @AuthenticationPrincipal User user) {
         var notebook = notebookRepository
                 .findById(id)
                 .orElseThrow(() -> new NotebookNotFoundByIdException(id));
         OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
-        notebookRepository.deleteById(id);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofNotebook(notebook, Operation.DELETED));
+        // The sections and pages are removed in batches by the purge job once the retention window has passed
+        notebook.setDeletedAt(LocalDateTime.now());
+    }
+
+    @PostMapping("/{id}/restore")
+    @Transactional
+    public NotebookSummaryDto restore(@PathVariable long id, @AuthenticationPrincipal User user) {
+        var notebook = notebookRepository
+                .findDeletedById(id, LocalDateTime.now().minus(purgeRetention))
+                .orElseThrow(() -> new NotebookNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
+
+        notebook.setDeletedAt(null);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofNotebook(notebook, Operation.CREATED));
+
+        return NotebookSummaryDto.fromNotebook(notebook);
     }
 
 }
@@ -0,0 +1,210 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.attachments.AttachmentStore;
+import com.amalstack.api.notebooks.dto.PageAttachmentDto;
+import com.amalstack.api.notebooks.exception.AttachmentNotFoundByIdException;
+import com.amalstack.api.notebooks.exception.PageNotFoundByIdException;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.PageAttachment;
+import com.amalstack.api.notebooks.repository.PageAttachmentRepository;
+import com.amalstack.api.notebooks.repository.PageRepository;
+import com.amalstack.api.notebooks.validation.OwnershipGuard;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.*;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+@RestController
+@RequestMapping("pages/{pageId}/attachments")
+@ConditionalOnProperty(name = "notebooks.attachments.enabled", havingValue = "true")
+public class PageAttachmentsController {
+    // Set by Tomcat when its connector can send files itself, see the sendfile attributes of the NIO connector
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+
+    private final PageAttachmentRepository attachmentRepository;
+    private final PageRepository pageRepository;
+    private final AttachmentStore attachmentStore;
+
+    public PageAttachmentsController(PageAttachmentRepository attachmentRepository,
+                                     PageRepository pageRepository,
+                                     AttachmentStore attachmentStore) {
+        this.attachmentRepository = attachmentRepository;
+        this.pageRepository = pageRepository;
+        this.attachmentStore = attachmentStore;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public Collection<PageAttachmentDto> getByPage(@PathVariable long pageId, @AuthenticationPrincipal User user) {
+        findOwnedPage(pageId, user);
+
+        return attachmentRepository
+                .findByPageIdOrderById(pageId)
+                .stream()
+                .map(PageAttachmentDto::fromAttachment)
+                .toList();
+    }
+
+    // The part has been written to disk by the container before this runs and is moved into the store from there.
+    // A file whose row is rolled back afterwards is removed by the AttachmentGarbageCollector.
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional
+    @ResponseStatus(HttpStatus.CREATED)
+    public PageAttachmentDto upload(@PathVariable long pageId,
+                                    @RequestParam("file") MultipartFile file,
+                                    @AuthenticationPrincipal User user) {
+        findOwnedPage(pageId, user);
+
+        var attachment = attachmentRepository.save(
+                new PageAttachment(pageId, fileNameOf(file), contentTypeOf(file).toString(), file.getSize()));
+        attachmentStore.save(attachment.getId(), file);
+
+        return PageAttachmentDto.fromAttachment(attachment);
+    }
+
+    @GetMapping("/{id}")
+    @Transactional(readOnly = true)
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable long pageId,
+                                                          @PathVariable long id,
+                                                          @RequestHeader HttpHeaders requestHeaders,
+                                                          HttpServletRequest request,
+                                                          @AuthenticationPrincipal User user) {
+        findOwnedPage(pageId, user);
+        PageAttachment attachment = attachmentRepository
+                .findByIdAndPageId(id, pageId)
+                .orElseThrow(() -> new AttachmentNotFoundByIdException(id));
+        if (!attachmentStore.exists(id)) {
+            throw new AttachmentNotFoundByIdException(id);
+        }
+
+        long length = attachment.getSize();
+        // Files are never replaced, so the id identifies the contents
+        String etag = "\"" + id + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+        headers.setContentType(MediaType.parseMediaType(attachment.getContentType()));
+        headers.setContentDisposition(contentDispositionOf(attachment));
+        headers.set("X-Content-Type-Options", "nosniff");
+
+        HttpStatus status = HttpStatus.OK;
+        long start = 0;
+        long count = length;
+        HttpRange range = requestedRange(requestHeaders, etag);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            if (start >= length) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            }
+            count = range.getRangeEnd(length) - start + 1;
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + start + "-" + (start + count - 1) + "/" + length);
+        }
+        headers.setContentLength(count);
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) {
+            return new ResponseEntity<>(headers, status);
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file once the response is complete, straight from the page cache to the socket
+            request.setAttribute(SENDFILE_FILENAME, attachmentStore.pathOf(id).toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return new ResponseEntity<>(headers, status);
+        }
+        long position = start;
+        long remaining = count;
+        // Written after the transaction has ended, without holding a connection for the length of the download
+        StreamingResponseBody body = outputStream ->
+                attachmentStore.transferTo(id, position, remaining, Channels.newChannel(outputStream));
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    @DeleteMapping("/{id}")
+    @Transactional
+    public void delete(@PathVariable long pageId, @PathVariable long id, @AuthenticationPrincipal User user) {
+        findOwnedPage(pageId, user);
+        PageAttachment attachment = attachmentRepository
+                .findByIdAndPageId(id, pageId)
+                .orElseThrow(() -> new AttachmentNotFoundByIdException(id));
+
+        attachmentRepository.delete(attachment);
+        attachmentStore.deleteAfterCommit(id);
+    }
+
+    private Page findOwnedPage(long pageId, User user) {
+        Page page = pageRepository
+                .findById(pageId)
+                .orElseThrow(() -> new PageNotFoundByIdException(pageId));
+
+        OwnershipGuard.throwIfPageNotOwned(user, page);
+        return page;
+    }
+
+    // Only a single range is served partially, anything else is answered with the whole file as the RFC allows. So is
+    // a range conditional on another version than the one requested.
+    private static HttpRange requestedRange(HttpHeaders requestHeaders, String etag) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    private static String fileNameOf(MultipartFile file) {
+        // Some browsers send the path the file was picked from, with the separators of the client's platform
+        String originalFilename = file.getOriginalFilename();
+        String fileName = originalFilename == null
+                ? null
+                : StringUtils.getFilename(originalFilename.replace('\\', '/'));
+        if (!StringUtils.hasText(fileName)) {
+            return "attachment";
+        }
+        return fileName.length() > MAX_FILE_NAME_LENGTH ? fileName.substring(0, MAX_FILE_NAME_LENGTH) : fileName;
+    }
+
+    private static MediaType contentTypeOf(MultipartFile file) {
+        try {
+            return file.getContentType() == null
+                    ? MediaType.APPLICATION_OCTET_STREAM
+                    : MediaType.parseMediaType(file.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    // Media the browser plays or shows are displayed in place, anything that could run scripts is downloaded
+    private static ContentDisposition contentDispositionOf(PageAttachment attachment) {
+        MediaType contentType = MediaType.parseMediaType(attachment.getContentType());
+        String type = contentType.getType();
+        boolean inline = (type.equals("image") || type.equals("video") || type.equals("audio"))
+                && !contentType.getSubtype().contains("svg");
+        return (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(attachment.getFileName(), StandardCharsets.UTF_8)
+                .build();
+    }
+}
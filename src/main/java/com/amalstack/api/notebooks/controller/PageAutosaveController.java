@@ -0,0 +1,46 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.autosave.PageAutosaveBuffer;
+import com.amalstack.api.notebooks.dto.PageContentDto;
+import com.amalstack.api.notebooks.exception.PageNotFoundByIdException;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.repository.PageRepository;
+import com.amalstack.api.notebooks.validation.OwnershipGuard;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(value = "pages", produces = MediaType.APPLICATION_JSON_VALUE)
+@ConditionalOnProperty(name = "notebooks.autosave.enabled", havingValue = "true")
+public class PageAutosaveController {
+    private final PageRepository pageRepository;
+    private final PageAutosaveBuffer autosaveBuffer;
+
+    public PageAutosaveController(PageRepository pageRepository, PageAutosaveBuffer autosaveBuffer) {
+        this.pageRepository = pageRepository;
+        this.autosaveBuffer = autosaveBuffer;
+    }
+
+    @PutMapping("/{id}/autosave")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void autosave(@PathVariable long id,
+                         @RequestBody PageContentDto contentDto,
+                         @AuthenticationPrincipal User user) {
+        // Ownership was already verified when this user buffered the page
+        if (autosaveBuffer.bufferIfPending(id, user.getUsername(), contentDto.content())) {
+            return;
+        }
+
+        Page page = pageRepository
+                .findById(id)
+                .orElseThrow(() -> new PageNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfPageNotOwned(user, page);
+
+        autosaveBuffer.buffer(id, user.getUsername(), contentDto.content(), page.getContentVersion());
+    }
+}
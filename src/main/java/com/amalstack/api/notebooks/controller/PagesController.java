@@ -1,19 +1,28 @@
 package com.amalstack.api.notebooks.controller;
 
+import com.amalstack.api.notebooks.autosave.PageAutosaveBuffer;
 import com.amalstack.api.notebooks.dto.PageDto;
 import com.amalstack.api.notebooks.dto.PageInfoDto;
+import com.amalstack.api.notebooks.dto.PositionDto;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import com.amalstack.api.notebooks.exception.InvalidPositionException;
 import com.amalstack.api.notebooks.exception.PageNotFoundByIdException;
 import com.amalstack.api.notebooks.exception.SectionNotFoundByIdException;
 import com.amalstack.api.notebooks.model.Page;
 import com.amalstack.api.notebooks.model.Section;
+import com.amalstack.api.notebooks.ordering.FractionalIndex;
 import com.amalstack.api.notebooks.repository.PageRepository;
 import com.amalstack.api.notebooks.repository.SectionRepository;
 import com.amalstack.api.notebooks.validation.OwnershipGuard;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
@@ -23,24 +32,33 @@ import java.util.Collection;
 public class PagesController {
     private final PageRepository pageRepository;
     private final SectionRepository sectionRepository;
+    private final ObjectProvider<PageAutosaveBuffer> autosaveBuffer;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PagesController(PageRepository pageRepository, SectionRepository sectionRepository) {
+    public PagesController(PageRepository pageRepository,
+                           SectionRepository sectionRepository,
+                           ObjectProvider<PageAutosaveBuffer> autosaveBuffer,
+                           ApplicationEventPublisher eventPublisher) {
         this.pageRepository = pageRepository;
         this.sectionRepository = sectionRepository;
+        this.autosaveBuffer = autosaveBuffer;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public PageInfoDto get(@PathVariable Long id, @AuthenticationPrincipal User user) {
         return pageRepository
                 .findById(id)
                 .map(page -> {
                     OwnershipGuard.throwIfPageNotOwned(user, page);
-                    return PageInfoDto.fromPage(page);
+                    return withAutosavedContent(PageInfoDto.fromPage(page), user);
                 })
                 .orElseThrow(() -> new PageNotFoundByIdException(id));
     }
 
     @GetMapping("/section/{id}")
+    @Transactional(readOnly = true)
     public Collection<PageInfoDto> getBySection(@PathVariable long id, @AuthenticationPrincipal User user) {
         Section section = sectionRepository
                 .findById(id)
@@ -49,13 +67,14 @@ public class PagesController {
         OwnershipGuard.throwIfSectionNotOwned(user, section);
 
         return pageRepository
-                .findBySectionId(id)
+                .findByNotebookIdAndSectionId(section.getNotebook().getId(), id)
                 .stream()
-                .map(PageInfoDto::fromPage)
+                .map(page -> withAutosavedContent(PageInfoDto.fromPage(page), user))
                 .toList();
     }
 
     @PostMapping
+    @Transactional
     @ResponseStatus(HttpStatus.CREATED)
     public PageInfoDto create(@RequestBody @Valid PageDto pageDto, @AuthenticationPrincipal User user) {
         var sectionId = pageDto.sectionId();
@@ -66,11 +85,16 @@ public class PagesController {
 
         OwnershipGuard.throwIfSectionNotOwned(user, section);
 
-        var page = pageDto.toPage(section);
-        return PageInfoDto.fromPage(pageRepository.save(page));
+        var newPage = pageDto.toPage(section);
+        newPage.setPosition(nextPosition(section));
+        var page = pageRepository.save(newPage);
+        pageRepository.onPageAdded(page);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofPage(page, Operation.CREATED));
+        return PageInfoDto.fromPage(page);
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public PageInfoDto update(@PathVariable long id,
                               @RequestBody @Valid PageDto pageDto,
                               @AuthenticationPrincipal User user) {
@@ -81,28 +105,76 @@ public class PagesController {
 
         OwnershipGuard.throwIfSectionNotOwned(user, section);
 
-        Page page = pageRepository
-                .findById(id)
+        // A full update supersedes any autosaved content that has not been flushed yet
+        autosaveBuffer.ifAvailable(buffer -> buffer.discard(id));
+
+        var existingPage = pageRepository.findById(id);
+        boolean movedAcrossNotebooks = existingPage
+                .map(p -> p.getSection().getNotebook().getId() != section.getNotebook().getId())
+                .orElse(false);
+        Page page = existingPage
                 .map(p -> {
                     OwnershipGuard.throwIfPageNotOwned(user, p);
-                    p.setContent(pageDto.content());
-                    p.setTitle(pageDto.title());
                     // update section if different
                     if (!p.getSection().getId().equals(section.getId())) {
+                        if (movedAcrossNotebooks) {
+                            eventPublisher.publishEvent(NotebookChangeEvent.ofPage(p, Operation.DELETED));
+                        }
+                        pageRepository.onPageRemoved(p);
+                        p.setPosition(nextPosition(section));
                         p.setSection(section);
+                        pageRepository.onPageAdded(p);
                     }
+                    p.setContent(pageDto.content());
+                    p.setTitle(pageDto.title());
+                    p.supersedeAutosavedContent();
                     return p;
                 })
                 .orElseGet(() -> {
                     var p = pageDto.toPage(section);
                     p.setId(id);
+                    p.setPosition(nextPosition(section));
                     return p;
                 });
 
-        return PageInfoDto.fromPage(pageRepository.save(page));
+        var savedPage = pageRepository.save(page);
+        if (existingPage.isEmpty()) {
+            pageRepository.onPageAdded(savedPage);
+        }
+        eventPublisher.publishEvent(NotebookChangeEvent.ofPage(savedPage,
+                existingPage.isEmpty() || movedAcrossNotebooks ? Operation.CREATED : Operation.UPDATED));
+
+        return PageInfoDto.fromPage(savedPage);
+    }
+
+    @PutMapping("/{id}/position")
+    @Transactional
+    public PageInfoDto move(@PathVariable long id,
+                            @RequestBody PositionDto positionDto,
+                            @AuthenticationPrincipal User user) {
+        Page page = pageRepository
+                .findById(id)
+                .orElseThrow(() -> new PageNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfPageNotOwned(user, page);
+
+        // Only the moved page gets a new key, its siblings keep theirs
+        sectionRepository.lockForPositioning(page.getSection().getNotebook().getId(), page.getSection().getId());
+        String after = siblingPosition(positionDto.afterId(), page);
+        String before = siblingPosition(positionDto.beforeId(), page);
+        try {
+            page.setPosition(FractionalIndex.between(after, before));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPositionException("The page " + positionDto.afterId()
+                    + " does not precede the page " + positionDto.beforeId(), e);
+        }
+        eventPublisher.publishEvent(NotebookChangeEvent.ofPage(page, Operation.UPDATED));
+
+        return withAutosavedContent(PageInfoDto.fromPage(page), user);
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public void delete(@PathVariable long id, @AuthenticationPrincipal User user) {
         Page page = pageRepository
                 .findById(id)
@@ -110,6 +182,41 @@ public class PagesController {
 
         OwnershipGuard.throwIfPageNotOwned(user, page);
 
-        pageRepository.deleteById(id);
+        autosaveBuffer.ifAvailable(buffer -> buffer.discard(id));
+        eventPublisher.publishEvent(NotebookChangeEvent.ofPage(page, Operation.DELETED));
+        pageRepository.onPageRemoved(page);
+        pageRepository.delete(page);
+    }
+
+    // Two appends reading the same last key would otherwise both be given the key after it
+    private String nextPosition(Section section) {
+        sectionRepository.lockForPositioning(section.getNotebook().getId(), section.getId());
+        return FractionalIndex.between(pageRepository
+                .findLastPosition(section.getNotebook().getId(), section.getId())
+                .orElse(null), null);
+    }
+
+    private String siblingPosition(Long siblingId, Page page) {
+        if (siblingId == null) {
+            return null;
+        }
+        return pageRepository
+                .findById(siblingId)
+                .filter(sibling -> sibling.getSection().getId().equals(page.getSection().getId()))
+                .filter(sibling -> !sibling.getId().equals(page.getId()))
+                .map(Page::getPosition)
+                .orElseThrow(() -> new InvalidPositionException("The page " + siblingId
+                        + " is not a sibling of the page " + page.getId()));
+    }
+
+    private PageInfoDto withAutosavedContent(PageInfoDto page, User user) {
+        var buffer = autosaveBuffer.getIfAvailable();
+        if (buffer == null) {
+            return page;
+        }
+        return buffer
+                .pendingContent(page.id(), user.getUsername())
+                .map(page::withContent)
+                .orElse(page);
     }
 }
@@ -1,19 +1,26 @@
 package com.amalstack.api.notebooks.controller;
 
+import com.amalstack.api.notebooks.dto.PositionDto;
 import com.amalstack.api.notebooks.dto.SectionDto;
 import com.amalstack.api.notebooks.dto.SectionSummaryDto;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import com.amalstack.api.notebooks.exception.InvalidPositionException;
 import com.amalstack.api.notebooks.exception.NotebookNotFoundByIdException;
 import com.amalstack.api.notebooks.exception.SectionNotFoundByIdException;
 import com.amalstack.api.notebooks.model.Notebook;
 import com.amalstack.api.notebooks.model.Section;
+import com.amalstack.api.notebooks.ordering.FractionalIndex;
 import com.amalstack.api.notebooks.repository.NotebookRepository;
 import com.amalstack.api.notebooks.repository.SectionRepository;
 import com.amalstack.api.notebooks.validation.OwnershipGuard;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
@@ -23,13 +30,18 @@ import java.util.Collection;
 public class SectionsController {
     private final SectionRepository sectionRepository;
     private final NotebookRepository notebookRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SectionsController(SectionRepository sectionRepository, NotebookRepository notebookRepository) {
+    public SectionsController(SectionRepository sectionRepository,
+                              NotebookRepository notebookRepository,
+                              ApplicationEventPublisher eventPublisher) {
         this.sectionRepository = sectionRepository;
         this.notebookRepository = notebookRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public SectionSummaryDto get(@PathVariable long id, @AuthenticationPrincipal User user) {
         return sectionRepository
                 .findById(id)
@@ -41,6 +53,7 @@ public class SectionsController {
     }
 
     @GetMapping("/notebook/{id}")
+    @Transactional(readOnly = true)
     public Collection<SectionSummaryDto> getByNotebookId(@PathVariable long id, @AuthenticationPrincipal User user) {
         Notebook notebook = notebookRepository
                 .findById(id)
@@ -56,6 +69,7 @@ public class SectionsController {
     }
 
     @PostMapping
+    @Transactional
     @ResponseStatus(HttpStatus.CREATED)
     public SectionSummaryDto create(@RequestBody @Valid SectionDto sectionDto, @AuthenticationPrincipal User user) {
         var notebookId = sectionDto.notebookId();
@@ -65,12 +79,17 @@ public class SectionsController {
 
         OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
 
-        Section section = sectionDto.toSection(notebook);
+        Section newSection = sectionDto.toSection(notebook);
+        newSection.setPosition(nextPosition(notebookId));
+        Section section = sectionRepository.save(newSection);
+        sectionRepository.onSectionAdded(section);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofSection(section, Operation.CREATED));
 
-        return SectionSummaryDto.fromSection(sectionRepository.save(section));
+        return SectionSummaryDto.fromSection(section);
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public SectionSummaryDto update(@PathVariable long id,
                                     @RequestBody @Valid SectionDto sectionDto,
                                     @AuthenticationPrincipal User user) {
@@ -82,26 +101,99 @@ public class SectionsController {
 
         OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
 
-        Section section = sectionRepository
-                .findById(id)
+        var existingSection = sectionRepository.findById(id);
+        boolean moved = existingSection
+                .map(sec -> sec.getNotebook().getId() != notebook.getId())
+                .orElse(false);
+        Section section = existingSection
                 .map(sec -> {
                     OwnershipGuard.throwIfSectionNotOwned(user, sec);
-                    sec.setName(sectionDto.name());
-                    if (sec.getNotebook().getId() != notebook.getId()) {
+                    if (moved) {
+                        eventPublisher.publishEvent(NotebookChangeEvent.ofSection(sec, Operation.DELETED));
+                        sectionRepository.onSectionRemoved(sec);
                         sec.setNotebook(notebook);
+                        sec.setPosition(nextPosition(notebookId));
+                        sectionRepository.onSectionAdded(sec);
                     }
+                    sec.setName(sectionDto.name());
                     return sec;
                 })
                 .orElseGet(() -> {
                     var sec = sectionDto.toSection(notebook);
                     sec.setId(id);
+                    sec.setPosition(nextPosition(notebookId));
                     return sec;
                 });
 
-        return SectionSummaryDto.fromSection(sectionRepository.save(section));
+        var savedSection = sectionRepository.save(section);
+        if (existingSection.isEmpty()) {
+            sectionRepository.onSectionAdded(savedSection);
+        }
+        // A section moved in from another notebook is new to the subscribers of its new notebook
+        eventPublisher.publishEvent(NotebookChangeEvent.ofSection(savedSection,
+                existingSection.isEmpty() || moved ? Operation.CREATED : Operation.UPDATED));
+
+        return SectionSummaryDto.fromSection(savedSection);
+    }
+
+    @PutMapping("/{id}/position")
+    @Transactional
+    public SectionSummaryDto move(@PathVariable long id,
+                                  @RequestBody PositionDto positionDto,
+                                  @AuthenticationPrincipal User user) {
+        Section section = sectionRepository
+                .findById(id)
+                .orElseThrow(() -> new SectionNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfSectionNotOwned(user, section);
+
+        // Only the moved section gets a new key, its siblings keep theirs
+        notebookRepository.lockForPositioning(section.getNotebook().getId());
+        String after = siblingPosition(positionDto.afterId(), section);
+        String before = siblingPosition(positionDto.beforeId(), section);
+        try {
+            section.setPosition(FractionalIndex.between(after, before));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPositionException("The section " + positionDto.afterId()
+                    + " does not precede the section " + positionDto.beforeId(), e);
+        }
+        eventPublisher.publishEvent(NotebookChangeEvent.ofSection(section, Operation.UPDATED));
+
+        return SectionSummaryDto.fromSection(section);
+    }
+
+    @PostMapping("/{id}/copy")
+    @Transactional
+    @ResponseStatus(HttpStatus.CREATED)
+    public SectionSummaryDto copy(@PathVariable long id,
+                                  @RequestParam(required = false) Long notebookId,
+                                  @AuthenticationPrincipal User user) {
+        Section section = sectionRepository
+                .findById(id)
+                .orElseThrow(() -> new SectionNotFoundByIdException(id));
+
+        OwnershipGuard.throwIfSectionNotOwned(user, section);
+
+        // Copies into the section's own notebook unless another one is given
+        Notebook notebook = notebookId == null ? section.getNotebook() : notebookRepository
+                .findById(notebookId)
+                .orElseThrow(() -> new NotebookNotFoundByIdException(notebookId));
+
+        OwnershipGuard.throwIfNotebookNotOwned(user, notebook);
+
+        var newSection = new Section(section.getName(), notebook);
+        newSection.setPosition(nextPosition(notebook.getId()));
+        Section copy = sectionRepository.save(newSection);
+        // The pages are copied inside the database instead of being loaded here
+        copy.setPageCount(sectionRepository.copyPages(section, copy));
+        sectionRepository.onSectionAdded(copy);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofSection(copy, Operation.CREATED));
+
+        return SectionSummaryDto.fromSection(copy);
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public void delete(@PathVariable long id, @AuthenticationPrincipal User user) {
         Section section = sectionRepository
                 .findById(id)
@@ -109,6 +201,27 @@ public class SectionsController {
 
         OwnershipGuard.throwIfSectionNotOwned(user, section);
 
-        sectionRepository.deleteById(id);
+        eventPublisher.publishEvent(NotebookChangeEvent.ofSection(section, Operation.DELETED));
+        sectionRepository.onSectionRemoved(section);
+        sectionRepository.delete(section);
+    }
+
+    // Two appends reading the same last key would otherwise both be given the key after it
+    private String nextPosition(long notebookId) {
+        notebookRepository.lockForPositioning(notebookId);
+        return FractionalIndex.between(sectionRepository.findLastPosition(notebookId).orElse(null), null);
+    }
+
+    private String siblingPosition(Long siblingId, Section section) {
+        if (siblingId == null) {
+            return null;
+        }
+        return sectionRepository
+                .findById(siblingId)
+                .filter(sibling -> sibling.getNotebook().getId() == section.getNotebook().getId())
+                .filter(sibling -> !sibling.getId().equals(section.getId()))
+                .map(Section::getPosition)
+                .orElseThrow(() -> new InvalidPositionException("The section " + siblingId
+                        + " is not a sibling of the section " + section.getId()));
     }
 }
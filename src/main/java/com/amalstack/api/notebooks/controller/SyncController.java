@@ -0,0 +1,75 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.dto.ChangeDto;
+import com.amalstack.api.notebooks.dto.SyncDto;
+import com.amalstack.api.notebooks.exception.AppUserNotFoundException;
+import com.amalstack.api.notebooks.exception.SyncCursorExpiredException;
+import com.amalstack.api.notebooks.repository.AppUserRepository;
+import com.amalstack.api.notebooks.repository.ChangeLogEntryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "sync", produces = MediaType.APPLICATION_JSON_VALUE)
+public class SyncController {
+    static final int MAX_LIMIT = 1000;
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final AppUserRepository userRepository;
+    private final Duration settleTime;
+
+    public SyncController(ChangeLogEntryRepository changeLogEntryRepository,
+                          AppUserRepository userRepository,
+                          @Value("${notebooks.sync.settle-time:1s}") Duration settleTime) {
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.userRepository = userRepository;
+        this.settleTime = settleTime;
+    }
+
+    // Without a cursor only the current position is returned, to be used as the cursor after a full fetch
+    @GetMapping
+    @Transactional(readOnly = true)
+    public SyncDto sync(@RequestParam(required = false) Long since,
+                        @RequestParam(defaultValue = "100") int limit,
+                        @AuthenticationPrincipal User user) {
+        if (since == null) {
+            return new SyncDto(List.of(), changeLogEntryRepository.findLatestId().orElse(0L), false);
+        }
+
+        long oldestId = changeLogEntryRepository.findOldestId().orElse(since + 1);
+        if (since < oldestId - 1) {
+            throw new SyncCursorExpiredException(since);
+        }
+
+        var owner = userRepository
+                .findByUsername(user.getUsername())
+                .orElseThrow(AppUserNotFoundException::new);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // Entries younger than the settle time may still be overtaken by a transaction that took an
+        // earlier sequence number but has not committed yet
+        var entries = changeLogEntryRepository.findLatestChanges(owner.getId(),
+                since,
+                Instant.now().minus(settleTime),
+                PageRequest.ofSize(pageSize + 1));
+
+        boolean hasMore = entries.size() > pageSize;
+        var changes = entries
+                .stream()
+                .limit(pageSize)
+                .map(ChangeDto::fromEntry)
+                .toList();
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).sequence();
+
+        return new SyncDto(changes, next, hasMore);
+    }
+}
@@ -0,0 +1,59 @@
+package com.amalstack.api.notebooks.counters;
+
+import com.amalstack.api.notebooks.repository.NotebookRepository;
+import com.amalstack.api.notebooks.repository.SectionRepository;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Recounts the section and page counters of notebooks and sections whose stored counts no longer match their
+ * contents, e.g. after rows were changed outside the application.
+ */
+@Component
+public class CounterReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterReconciliationJob.class);
+
+    private final NotebookRepository notebookRepository;
+
+    private final SectionRepository sectionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CounterReconciliationJob(NotebookRepository notebookRepository,
+                                    SectionRepository sectionRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.notebookRepository = notebookRepository;
+        this.sectionRepository = sectionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // A transaction per shard, each has to start on the shard it reconciles
+    @Scheduled(initialDelayString = "${notebooks.counters.reconcile-interval:1h}",
+            fixedDelayString = "${notebooks.counters.reconcile-interval:1h}")
+    public int reconcile() {
+        return ShardContext.sumOverShards(() -> transactionTemplate.execute(status -> reconcileShard()));
+    }
+
+    private int reconcileShard() {
+        List<Long> sectionIds = sectionRepository.findIdsWithPageCountDrift();
+        if (!sectionIds.isEmpty()) {
+            logger.warn("Repairing the page count of {} sections: {}", sectionIds.size(), sectionIds);
+            sectionRepository.recountPages(sectionIds);
+        }
+
+        List<Long> notebookIds = notebookRepository.findIdsWithCounterDrift();
+        if (!notebookIds.isEmpty()) {
+            logger.warn("Repairing the section and page counts of {} notebooks: {}", notebookIds.size(), notebookIds);
+            notebookRepository.recountSectionsAndPages(notebookIds);
+        }
+        return sectionIds.size() + notebookIds.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.amalstack.api.notebooks.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+@Configuration
+@ConditionalOnProperty(name = "notebooks.datasource.bounded-concurrency.enabled", havingValue = "true")
+public class BoundedConcurrencyConfiguration {
+
+    @Bean
+    public static BoundedConcurrencyPostProcessor boundedConcurrencyDataSourcePostProcessor() {
+        return new BoundedConcurrencyPostProcessor();
+    }
+
+    // Sized to the Hikari pool so that callers wait in the semaphore rather than in Hikari's connection timeout.
+    // Ordered, so that it runs before post-processors that wrap the data source and would hide the pool, such as the
+    // SQL logging.
+    static final class BoundedConcurrencyPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new BoundedConcurrencyDataSource(hikari,
+                        hikari.getMaximumPoolSize(),
+                        hikari.getConnectionTimeout());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
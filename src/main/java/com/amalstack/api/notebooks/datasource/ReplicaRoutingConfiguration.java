@@ -0,0 +1,81 @@
+package com.amalstack.api.notebooks.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "notebooks.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfiguration {
+
+    private final ReplicaRoutingProperties properties;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+    private final ObjectProvider<ReadYourWritesFilter> readYourWritesFilter;
+
+    public ReplicaRoutingConfiguration(ReplicaRoutingProperties properties,
+                                       ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                       ObjectProvider<ReadYourWritesFilter> readYourWritesFilter) {
+        this.properties = properties;
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.readYourWritesFilter = readYourWritesFilter;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary) {
+        List<DataSource> replicas = properties.replicas()
+                .stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(replica.url())
+                        .username(replica.username())
+                        .password(replica.password())
+                        .build())
+                .toList();
+
+        return new ReplicaRoutingDataSource(primary,
+                replicas,
+                properties.replicaLagQuery(),
+                properties.replicaMaxLag(),
+                properties.replicaRetryAfter());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+
+    @Scheduled(fixedDelayString = "${notebooks.datasource.replica-check-interval:5s}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.ifAvailable(ReplicaRoutingDataSource::checkReplicas);
+        readYourWritesFilter.ifAvailable(ReadYourWritesFilter::evictExpired);
+    }
+}
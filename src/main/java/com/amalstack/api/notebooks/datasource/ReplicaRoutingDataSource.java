@@ -0,0 +1,145 @@
+package com.amalstack.api.notebooks.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to one of the replicas in round-robin order and everything else to the primary.
+ * Replicas that fail to hand out a connection or lag behind by more than the maximum lag are skipped until they
+ * recover. Wrap in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so that the
+ * transaction's read-only flag is known by the time a connection is requested.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<String> replicaKeys = new ArrayList<>();
+
+    private final Map<String, Long> unavailableUntil = new ConcurrentHashMap<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final String lagQuery;
+
+    private final Duration maxLag;
+
+    private final Duration retryAfter;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<DataSource> replicas,
+                                    String lagQuery,
+                                    Duration maxLag,
+                                    Duration retryAfter) {
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.retryAfter = retryAfter;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReplicaRoutingContext.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+
+        long now = System.currentTimeMillis();
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (unavailableUntil.getOrDefault(key, 0L) <= now) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (!PRIMARY.equals(key)) {
+            try {
+                return getResolvedDataSources().get(key).getConnection();
+            } catch (SQLException e) {
+                markUnavailable(key.toString(), e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (!PRIMARY.equals(key)) {
+            try {
+                return getResolvedDataSources().get(key).getConnection(username, password);
+            } catch (SQLException e) {
+                markUnavailable(key.toString(), e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    // Measures the replication lag of every replica and takes lagging or unreachable replicas out of rotation
+    public void checkReplicas() {
+        for (String key : replicaKeys) {
+            try (var connection = getResolvedDataSources().get(key).getConnection();
+                 var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery(lagQuery)) {
+                double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                if (lagSeconds * 1000 > maxLag.toMillis()) {
+                    logger.warn("Replica {} lags {}s behind the primary, routing reads to the primary", key, lagSeconds);
+                    unavailableUntil.put(key, Long.MAX_VALUE);
+                } else {
+                    unavailableUntil.remove(key);
+                }
+            } catch (SQLException e) {
+                markUnavailable(key, e);
+            }
+        }
+    }
+
+    // The primary is managed on its own, only the replica pools belong to this data source
+    @Override
+    public void close() throws Exception {
+        for (String key : replicaKeys) {
+            if (getResolvedDataSources().get(key) instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markUnavailable(String key, SQLException cause) {
+        logger.warn("Replica {} is unavailable, routing reads to the primary for {}", key, retryAfter, cause);
+        unavailableUntil.put(key, System.currentTimeMillis() + retryAfter.toMillis());
+    }
+}
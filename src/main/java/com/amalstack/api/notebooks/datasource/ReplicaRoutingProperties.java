@@ -0,0 +1,20 @@
+package com.amalstack.api.notebooks.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("notebooks.datasource")
+public record ReplicaRoutingProperties(
+        List<Replica> replicas,
+        @DefaultValue("5s") Duration readYourWritesWindow,
+        @DefaultValue("10s") Duration replicaMaxLag,
+        @DefaultValue("30s") Duration replicaRetryAfter,
+        @DefaultValue("SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)")
+        String replicaLagQuery) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -4,7 +4,6 @@ import com.amalstack.api.notebooks.model.AppUser;
 import com.amalstack.api.notebooks.validation.constraints.Matches;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.io.Serializable;
 
@@ -22,7 +21,7 @@ public record AppUserRegistrationDto(
         @NotBlank
         String confirmPassword) implements Serializable {
 
-    public AppUser toUser(PasswordEncoder encoder) {
-        return new AppUser(email, name, encoder.encode(password));
+    public AppUser toUser(String encodedPassword) {
+        return new AppUser(email, name, encodedPassword);
     }
 }
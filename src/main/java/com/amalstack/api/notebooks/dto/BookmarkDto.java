@@ -0,0 +1,24 @@
+package com.amalstack.api.notebooks.dto;
+
+import com.amalstack.api.notebooks.model.Page;
+
+import java.io.Serializable;
+
+public record BookmarkDto(
+        long pageId,
+        String pageTitle,
+        long sectionId,
+        String sectionName,
+        long notebookId,
+        String notebookName) implements Serializable {
+    public static BookmarkDto fromPage(Page page) {
+        var section = page.getSection();
+        var notebook = section.getNotebook();
+        return new BookmarkDto(page.getId(),
+                page.getTitle(),
+                section.getId(),
+                section.getName(),
+                notebook.getId(),
+                notebook.getName());
+    }
+}
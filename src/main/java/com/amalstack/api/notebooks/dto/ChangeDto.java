@@ -0,0 +1,23 @@
+package com.amalstack.api.notebooks.dto;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.EntityType;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import com.amalstack.api.notebooks.model.ChangeLogEntry;
+
+import java.io.Serializable;
+
+public record ChangeDto(
+        long sequence,
+        EntityType entityType,
+        long entityId,
+        long notebookId,
+        Operation operation) implements Serializable {
+
+    public static ChangeDto fromEntry(ChangeLogEntry entry) {
+        return new ChangeDto(entry.getId(),
+                entry.getEntityType(),
+                entry.getEntityId(),
+                entry.getNotebookId(),
+                entry.getOperation());
+    }
+}
@@ -28,7 +28,7 @@ public record NotebookSummaryDto(
     }
 
     public static NotebookSummaryDto fromNotebook(Notebook notebook) {
-        return fromNotebook(notebook, 0, 0);
+        return fromNotebook(notebook, notebook.getSectionCount(), notebook.getPageCount());
     }
 }
 
@@ -0,0 +1,12 @@
+package com.amalstack.api.notebooks.dto;
+
+/**
+ * A section of a notebook joined with one of its pages. The page columns are null for sections without pages.
+ */
+public record NotebookTreeRow(
+        long sectionId,
+        String sectionName,
+        Long pageId,
+        String pageTitle,
+        String pageContent) {
+}
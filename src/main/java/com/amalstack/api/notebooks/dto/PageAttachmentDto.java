@@ -0,0 +1,23 @@
+package com.amalstack.api.notebooks.dto;
+
+import com.amalstack.api.notebooks.model.PageAttachment;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+public record PageAttachmentDto(
+        long id,
+        long pageId,
+        String fileName,
+        String contentType,
+        long size,
+        LocalDateTime createdAt) implements Serializable {
+    public static PageAttachmentDto fromAttachment(PageAttachment attachment) {
+        return new PageAttachmentDto(attachment.getId(),
+                attachment.getPageId(),
+                attachment.getFileName(),
+                attachment.getContentType(),
+                attachment.getSize(),
+                attachment.getCreatedAt());
+    }
+}
@@ -0,0 +1,6 @@
+package com.amalstack.api.notebooks.dto;
+
+import java.io.Serializable;
+
+public record PageContentDto(String content) implements Serializable {
+}
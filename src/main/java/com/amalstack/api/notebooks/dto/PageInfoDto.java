@@ -8,9 +8,22 @@ public record PageInfoDto(
         Long id,
         String title,
         String content,
-        long sectionId
+        long sectionId,
+        boolean bookmarked
 ) implements Serializable {
+    public PageInfoDto(Long id, String title, String content, long sectionId) {
+        this(id, title, content, sectionId, false);
+    }
+
     public static PageInfoDto fromPage(Page page) {
         return new PageInfoDto(page.getId(), page.getTitle(), page.getContent(), page.getSection().getId());
     }
+
+    public PageInfoDto withContent(String content) {
+        return new PageInfoDto(id, title, content, sectionId, bookmarked);
+    }
+
+    public PageInfoDto withBookmarked(boolean bookmarked) {
+        return new PageInfoDto(id, title, content, sectionId, bookmarked);
+    }
 }
@@ -0,0 +1,12 @@
+package com.amalstack.api.notebooks.dto;
+
+import java.io.Serializable;
+
+/**
+ * The neighbours to place an item between: {@code afterId} is the sibling it follows and {@code beforeId} the
+ * sibling it precedes. A missing {@code afterId} moves it to the start, a missing {@code beforeId} to the end.
+ */
+public record PositionDto(
+        Long afterId,
+        Long beforeId) implements Serializable {
+}
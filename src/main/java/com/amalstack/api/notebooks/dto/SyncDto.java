@@ -0,0 +1,10 @@
+package com.amalstack.api.notebooks.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record SyncDto(
+        List<ChangeDto> changes,
+        long next,
+        boolean hasMore) implements Serializable {
+}
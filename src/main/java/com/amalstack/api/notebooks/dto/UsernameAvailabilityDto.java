@@ -0,0 +1,8 @@
+package com.amalstack.api.notebooks.dto;
+
+import java.io.Serializable;
+
+public record UsernameAvailabilityDto(
+        String email,
+        boolean available) implements Serializable {
+}
@@ -0,0 +1,52 @@
+package com.amalstack.api.notebooks.events;
+
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public record NotebookChangeEvent(
+        @JsonIgnore long ownerId,
+        long notebookId,
+        EntityType entityType,
+        long entityId,
+        Operation operation) {
+
+    public enum EntityType {
+        NOTEBOOK, SECTION, PAGE
+    }
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static NotebookChangeEvent ofNotebook(Notebook notebook, Operation operation) {
+        return new NotebookChangeEvent(notebook.getOwner().getId(),
+                notebook.getId(),
+                EntityType.NOTEBOOK,
+                notebook.getId(),
+                operation);
+    }
+
+    public static NotebookChangeEvent ofSection(Section section, Operation operation) {
+        var notebook = section.getNotebook();
+        return new NotebookChangeEvent(notebook.getOwner().getId(),
+                notebook.getId(),
+                EntityType.SECTION,
+                section.getId(),
+                operation);
+    }
+
+    public static NotebookChangeEvent ofPage(Page page, Operation operation) {
+        var notebook = page.getSection().getNotebook();
+        return new NotebookChangeEvent(notebook.getOwner().getId(),
+                notebook.getId(),
+                EntityType.PAGE,
+                page.getId(),
+                operation);
+    }
+
+    public String name() {
+        return entityType.name().toLowerCase() + "." + operation.name().toLowerCase();
+    }
+}
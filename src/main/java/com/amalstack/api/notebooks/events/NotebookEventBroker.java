@@ -0,0 +1,206 @@
+package com.amalstack.api.notebooks.events;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans out committed notebook changes to the SSE subscribers of each notebook. Idle subscribers cost no thread:
+ * every subscriber has a small bounded queue that is drained on a shared pool only while it has events, and a
+ * subscriber whose queue overflows is disconnected instead of buffering without limit. Recent events are kept in a
+ * ring buffer so that reconnecting clients can resume from their Last-Event-ID.
+ */
+@Component
+public class NotebookEventBroker {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final Logger logger = LoggerFactory.getLogger(NotebookEventBroker.class);
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final Deque<Envelope> history = new ArrayDeque<>();
+
+    private final Executor deliveryExecutor;
+
+    private final int bufferSize;
+
+    private final int historySize;
+
+    private final long timeoutMillis;
+
+    private long lastEventId;
+
+    @Autowired
+    public NotebookEventBroker(@Value("${notebooks.events.delivery-threads:4}") int deliveryThreads,
+                               @Value("${notebooks.events.buffer-size:64}") int bufferSize,
+                               @Value("${notebooks.events.history-size:1024}") int historySize,
+                               @Value("${notebooks.events.timeout:30m}") Duration timeout) {
+        this(Executors.newFixedThreadPool(deliveryThreads, new CustomizableThreadFactory("notebook-events-")),
+                bufferSize,
+                historySize,
+                timeout,
+                // Ids of an earlier run stay below the ones of this run, and clients resuming from them are reset
+                TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+    }
+
+    NotebookEventBroker(Executor deliveryExecutor,
+                        int bufferSize,
+                        int historySize,
+                        Duration timeout,
+                        long lastEventId) {
+        this.deliveryExecutor = deliveryExecutor;
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.timeoutMillis = timeout.toMillis();
+        this.lastEventId = lastEventId;
+    }
+
+    public SseEmitter subscribe(long notebookId, Long lastSeenEventId) {
+        var subscriber = new Subscriber(notebookId, new SseEmitter(timeoutMillis));
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+        // Registering and replaying under the same lock as publishing keeps the stream free of gaps and duplicates
+        synchronized (history) {
+            subscribers.computeIfAbsent(notebookId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            if (lastSeenEventId != null) {
+                replay(subscriber, lastSeenEventId);
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener
+    public void publish(NotebookChangeEvent event) {
+        synchronized (history) {
+            var envelope = new Envelope(++lastEventId, event);
+            history.addLast(envelope);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            subscribers.getOrDefault(event.notebookId(), Set.of())
+                    .forEach(subscriber -> subscriber.offer(envelope.toSseEvent()));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${notebooks.events.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(notebookSubscribers -> notebookSubscribers
+                .forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    public int subscriberCount(long notebookId) {
+        return subscribers.getOrDefault(notebookId, Set.of()).size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(notebookSubscribers -> notebookSubscribers.forEach(Subscriber::close));
+        if (deliveryExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void replay(Subscriber subscriber, long lastSeenEventId) {
+        if (lastSeenEventId == lastEventId) {
+            return;
+        }
+        // The client missed events that are no longer in the history, or was given its id by another instance, and
+        // has to reload the notebook
+        if (lastSeenEventId > lastEventId || history.isEmpty() || history.getFirst().id() > lastSeenEventId + 1) {
+            subscriber.offer(SseEmitter.event().id(Long.toString(lastEventId)).name(RESET_EVENT).data(""));
+            return;
+        }
+        history.stream()
+                .filter(envelope -> envelope.id() > lastSeenEventId)
+                .filter(envelope -> envelope.event().notebookId() == subscriber.notebookId)
+                .forEach(envelope -> subscriber.offer(envelope.toSseEvent()));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.notebookId, (id, notebookSubscribers) -> {
+            notebookSubscribers.remove(subscriber);
+            return notebookSubscribers.isEmpty() ? null : notebookSubscribers;
+        });
+    }
+
+    private record Envelope(long id, NotebookChangeEvent event) {
+        SseEmitter.SseEventBuilder toSseEvent() {
+            return SseEmitter.event()
+                    .id(Long.toString(id))
+                    .name(event.name())
+                    .data(event, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscriber {
+        private final long notebookId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(long notebookId, SseEmitter emitter) {
+            this.notebookId = notebookId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                logger.debug("Disconnecting a slow subscriber of notebook {}", notebookId);
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                var event = queue.poll();
+                if (event == null) {
+                    draining.set(false);
+                    // An event offered after the poll but before the flag was reset would otherwise be stranded
+                    if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                queue.clear();
+                unsubscribe(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.amalstack.api.notebooks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Attachment not found")
+public class AttachmentNotFoundByIdException extends EntityNotFoundByIdException {
+    public AttachmentNotFoundByIdException(long id) {
+        this(id, null);
+    }
+
+    public AttachmentNotFoundByIdException(long id, Throwable cause) {
+        super(id, "attachment", cause);
+    }
+}
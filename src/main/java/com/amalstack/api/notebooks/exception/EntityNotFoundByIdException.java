@@ -1,15 +1,17 @@
 package com.amalstack.api.notebooks.exception;
 
-import java.text.MessageFormat;
-
+/**
+ * Thrown when no entity has the requested id. Requests for missing ids are common enough (stale clients, scanners)
+ * that no stack trace is captured and the message is only built when it is asked for.
+ */
 public class EntityNotFoundByIdException extends EntityNotFoundException {
 
-    static final String ERR_MSG_FORMAT = "The {0} with id {1} was not found";
-
     static final String DEFAULT_ENTITY_NAME = "entity";
 
     private final long id;
 
+    private final String entityName;
+
     public EntityNotFoundByIdException(long id) {
         this(id, DEFAULT_ENTITY_NAME, null);
     }
@@ -23,11 +25,21 @@ public class EntityNotFoundByIdException extends EntityNotFoundException {
     }
 
     public EntityNotFoundByIdException(long id, String entityName, Throwable cause) {
-        super(MessageFormat.format(ERR_MSG_FORMAT, entityName, id), cause);
+        super(null, cause, false);
         this.id = id;
+        this.entityName = entityName;
+    }
+
+    @Override
+    public String getMessage() {
+        return "The " + entityName + " with id " + id + " was not found";
     }
 
     public long getId() {
         return id;
     }
+
+    public String getEntityName() {
+        return entityName;
+    }
 }
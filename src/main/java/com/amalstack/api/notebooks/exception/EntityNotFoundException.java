@@ -18,4 +18,8 @@ public class EntityNotFoundException extends RuntimeException {
     public EntityNotFoundException(Throwable cause) {
         super(cause);
     }
+
+    protected EntityNotFoundException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, false, writableStackTrace);
+    }
 }
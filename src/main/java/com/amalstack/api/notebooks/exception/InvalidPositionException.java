@@ -0,0 +1,16 @@
+package com.amalstack.api.notebooks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid position")
+public class InvalidPositionException extends RuntimeException {
+
+    public InvalidPositionException(String message) {
+        super(message);
+    }
+
+    public InvalidPositionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.amalstack.api.notebooks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many registrations, try again later")
+public class PasswordHashingUnavailableException extends RuntimeException {
+    static final String ERR_MSG = "The password hashing queue is full";
+
+    public PasswordHashingUnavailableException(Throwable cause) {
+        super(ERR_MSG, cause);
+    }
+}
@@ -3,20 +3,22 @@ package com.amalstack.api.notebooks.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Thrown when the current user asks for a resource of another user. The stack trace is not captured, the ownership
+ * checks that throw it are the only place it comes from.
+ */
 @ResponseStatus(value = HttpStatus.UNAUTHORIZED, reason = "Current user does not have the ownership of the resource")
 public class ResourceNotOwnedException extends RuntimeException {
 
     public ResourceNotOwnedException() {
-        super("Current user does not have the privileges to access the requested resource");
+        this("Current user does not have the privileges to access the requested resource");
     }
 
     public ResourceNotOwnedException(String message) {
-        super(message);
+        this(message, null);
     }
 
     public ResourceNotOwnedException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
-
-
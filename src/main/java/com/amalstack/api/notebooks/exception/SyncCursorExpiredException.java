@@ -0,0 +1,15 @@
+package com.amalstack.api.notebooks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.text.MessageFormat;
+
+@ResponseStatus(value = HttpStatus.GONE, reason = "Sync cursor has expired")
+public class SyncCursorExpiredException extends RuntimeException {
+    static final String ERR_MSG_FORMAT = "Changes after {0} are no longer retained, a full sync is required";
+
+    public SyncCursorExpiredException(long since) {
+        super(MessageFormat.format(ERR_MSG_FORMAT, Long.toString(since)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.amalstack.api.notebooks.limiting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that adapts to the latency of the requests it admits, in the manner of AIMD: while latency stays
+ * near its long-term average and the connection pool has no waiters, the limit grows by one per request; when either
+ * degrades it is cut by {@link #BACKOFF_RATIO}, at most once per round trip.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    // How far the recent average latency may rise above the long-term one before the limit is cut
+    static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double SHORT_SMOOTHING = 0.1;
+
+    private static final double LONG_SMOOTHING = 0.001;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    // Guarded by this
+    private double shortLatencyNanos;
+    private double longLatencyNanos;
+    private long lastBackoffNanos = Long.MIN_VALUE;
+
+    AdaptiveConcurrencyLimit(int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("The limits must be positive and the minimum at most the maximum");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // For requests whose latency says nothing about the load, such as asynchronous ones
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long startNanos, long endNanos, boolean poolSaturated) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        onSample(startNanos, endNanos, poolSaturated, inFlightBefore);
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long startNanos, long endNanos, boolean poolSaturated, int inFlightBefore) {
+        long latencyNanos = endNanos - startNanos;
+        if (longLatencyNanos == 0) {
+            shortLatencyNanos = latencyNanos;
+            longLatencyNanos = latencyNanos;
+        } else {
+            shortLatencyNanos += (latencyNanos - shortLatencyNanos) * SHORT_SMOOTHING;
+            longLatencyNanos += (latencyNanos - longLatencyNanos) * LONG_SMOOTHING;
+        }
+
+        if (poolSaturated || shortLatencyNanos > longLatencyNanos * LATENCY_TOLERANCE) {
+            // Requests admitted before the last cut already saw the congestion that caused it
+            if (startNanos > lastBackoffNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                lastBackoffNanos = endNanos;
+            }
+        } else if (inFlightBefore * 2 >= limit) {
+            // Only grow while the limit is actually being used, otherwise it drifts up without evidence
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
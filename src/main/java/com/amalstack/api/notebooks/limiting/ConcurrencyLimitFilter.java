@@ -0,0 +1,180 @@
+package com.amalstack.api.notebooks.limiting;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load before it reaches the controllers, so that a slow database makes excess requests fail fast with a 503
+ * instead of every request queueing for a connection. Expensive endpoints are limited separately from the rest, so
+ * that a burst of them cannot starve the cheap reads.
+ * <p>
+ * Runs ahead of Spring Security, so rejected requests do not pay for checking their password either.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "notebooks.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final PathPatternRequestMatcher.Builder PATHS = PathPatternRequestMatcher.withDefaults();
+
+    public static final RequestMatcher EXPENSIVE_REQUESTS = new OrRequestMatcher(
+            PATHS.matcher(HttpMethod.GET, "/notebooks/{id:\\d+}"),
+            PATHS.matcher(HttpMethod.GET, "/notebooks/*/tree"),
+            PATHS.matcher(HttpMethod.POST, "/notebooks/*/copy"),
+            PATHS.matcher(HttpMethod.POST, "/sections/*/copy"),
+            PATHS.matcher(HttpMethod.GET, "/sync")
+    );
+
+    // Event streams stay open for as long as the client listens, they would hold a permit indefinitely. Attachment
+    // downloads last as long as the client takes to read the file, without holding a database connection meanwhile.
+    public static final RequestMatcher UNLIMITED_REQUESTS = new OrRequestMatcher(
+            PATHS.matcher(HttpMethod.GET, "/notebooks/*/events"),
+            PATHS.matcher(HttpMethod.GET, "/pages/*/attachments/*")
+    );
+
+    private final ObjectProvider<DataSource> dataSources;
+
+    private volatile List<HikariDataSource> pools;
+
+    private final AdaptiveConcurrencyLimit standardLimit;
+
+    private final AdaptiveConcurrencyLimit expensiveLimit;
+
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ObjectProvider<DataSource> dataSources,
+                                  @Value("${notebooks.load-shedding.min-limit:4}") int minLimit,
+                                  @Value("${notebooks.load-shedding.standard-limit:200}") int standardLimit,
+                                  @Value("${notebooks.load-shedding.expensive-limit:20}") int expensiveLimit,
+                                  @Value("${notebooks.load-shedding.retry-after:1s}") Duration retryAfter) {
+        this.dataSources = dataSources;
+        this.standardLimit = new AdaptiveConcurrencyLimit(minLimit, standardLimit);
+        this.expensiveLimit = new AdaptiveConcurrencyLimit(Math.min(minLimit, expensiveLimit), expensiveLimit);
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (UNLIMITED_REQUESTS.matches(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        var limit = EXPENSIVE_REQUESTS.matches(request) ? expensiveLimit : standardLimit;
+        if (!limit.tryAcquire()) {
+            // No error dispatch, which would have to get through security and render an error body first
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Streamed and deferred responses keep their permit until they complete, but their latency depends on
+            // the client as much as on the database, so it is not sampled
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(limit));
+            } else {
+                limit.release(start, System.nanoTime(), poolSaturated());
+            }
+        }
+    }
+
+    private boolean poolSaturated() {
+        return pools().stream()
+                .map(HikariDataSource::getHikariPoolMXBean)
+                .anyMatch(pool -> pool != null && pool.getThreadsAwaitingConnection() > 0);
+    }
+
+    // The pools may be wrapped by other data sources, for the bounded concurrency or the SQL logging
+    private List<HikariDataSource> pools() {
+        var current = pools;
+        if (current == null) {
+            current = dataSources.orderedStream()
+                    .map(dataSource -> DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                            HikariDataSource.class))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            pools = current;
+        }
+        return current;
+    }
+
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingAsyncListener(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        // Listeners are dropped when the request goes async again, so register for the next round
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+    }
+
+    int getStandardLimit() {
+        return standardLimit.getLimit();
+    }
+
+    int getExpensiveLimit() {
+        return expensiveLimit.getLimit();
+    }
+}
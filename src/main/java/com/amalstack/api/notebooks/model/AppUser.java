@@ -1,13 +1,17 @@
 package com.amalstack.api.notebooks.model;
 
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = AppUser.USERNAME_CONSTRAINT, columnNames = "username"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "app-user")
 public class AppUser {
+    public static final String USERNAME_CONSTRAINT = "app_user_username_key";
+
     @Id
     @GeneratedValue
     @Column(name = "id", nullable = false)
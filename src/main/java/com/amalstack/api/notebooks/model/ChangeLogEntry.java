@@ -0,0 +1,82 @@
+package com.amalstack.api.notebooks.model;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.EntityType;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+public class ChangeLogEntry {
+    // Allocated one at a time so that the sequence reflects the order in which changes were recorded
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_entry_seq")
+    @SequenceGenerator(name = "change_log_entry_seq", sequenceName = "change_log_entry_seq", allocationSize = 1)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private long ownerId;
+
+    @Column(nullable = false)
+    private long notebookId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    public ChangeLogEntry() {
+    }
+
+    public ChangeLogEntry(long ownerId,
+                          long notebookId,
+                          EntityType entityType,
+                          long entityId,
+                          Operation operation,
+                          Instant recordedAt) {
+        this.ownerId = ownerId;
+        this.notebookId = notebookId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.recordedAt = recordedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getOwnerId() {
+        return ownerId;
+    }
+
+    public long getNotebookId() {
+        return notebookId;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+}
@@ -1,6 +1,8 @@
 package com.amalstack.api.notebooks.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -8,6 +10,8 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "notebook")
 public class Notebook {
     @Id
     @GeneratedValue
@@ -27,6 +31,15 @@ public class Notebook {
     @JoinColumn(name = "app_user_id")
     private AppUser owner;
 
+    @Column(nullable = false)
+    private int sectionCount;
+
+    @Column(nullable = false)
+    private int pageCount;
+
+    // Set when the notebook is deleted, its rows are purged once the retention window has passed
+    private LocalDateTime deletedAt;
+
     public Notebook() {
     }
 
@@ -81,6 +94,34 @@ public class Notebook {
         return creationTime;
     }
 
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    public void setSectionCount(int sectionCount) {
+        this.sectionCount = sectionCount;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
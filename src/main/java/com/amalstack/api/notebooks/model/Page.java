@@ -1,8 +1,11 @@
 package com.amalstack.api.notebooks.model;
 
+import com.amalstack.api.notebooks.blobs.PageContentConverter;
+import com.amalstack.api.notebooks.ordering.FractionalIndex;
 import jakarta.persistence.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.PartitionKey;
 
 @Entity
 public class Page {
@@ -13,6 +16,7 @@ public class Page {
 
     private String title;
 
+    @Convert(converter = PageContentConverter.class)
     private String content;
 
     @ManyToOne
@@ -20,6 +24,17 @@ public class Page {
     @JoinColumn(name = "section_id")
     private Section section;
 
+    // The page table is partitioned by notebook, updates and deletes name the partition the page was loaded from
+    @PartitionKey
+    @Column(name = "notebook_id", nullable = false)
+    private Long notebookId;
+
+    @Column(nullable = false)
+    private String position = FractionalIndex.between(null, null);
+
+    @Column(name = "content_version", nullable = false)
+    private long contentVersion;
+
     public Page() {
 
     }
@@ -67,6 +82,36 @@ public class Page {
 
     public void setSection(Section section) {
         this.section = section;
+        assignNotebookId();
+    }
+
+    public Long getNotebookId() {
+        return notebookId;
+    }
+
+    // The notebook of a new section only has its id once it has been persisted as well
+    @PrePersist
+    void assignNotebookId() {
+        if (section != null && section.getNotebook() != null) {
+            notebookId = section.getNotebook().getId();
+        }
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
+    // Autosaved content buffered before this write is no longer written, see PageAutosaveBuffer
+    public void supersedeAutosavedContent() {
+        contentVersion++;
     }
 
 }
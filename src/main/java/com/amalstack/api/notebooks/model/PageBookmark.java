@@ -5,21 +5,32 @@ import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "page_bookmark_user_id_page_id_key",
+        columnNames = {"user_id", "page_id"}))
 public class PageBookmark {
     @Id
     @GeneratedValue
     @Column(name = "id", nullable = false)
     private Long id;
 
-    @OneToOne
-    @JoinColumn(name = "page_id")
+    @ManyToOne
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "page_id", nullable = false)
     private Page page;
 
     @ManyToOne
     @OnDelete(action = OnDeleteAction.CASCADE)
-    @JoinColumn(name = "user_id")
+    @JoinColumn(name = "user_id", nullable = false)
     private AppUser user;
 
+    public PageBookmark() {
+    }
+
+    public PageBookmark(AppUser user, Page page) {
+        this.user = user;
+        this.page = page;
+    }
+
     public AppUser getUser() {
         return user;
     }
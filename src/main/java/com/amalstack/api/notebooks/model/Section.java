@@ -1,10 +1,16 @@
 package com.amalstack.api.notebooks.model;
 
+import com.amalstack.api.notebooks.ordering.FractionalIndex;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.PartitionKey;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "section")
 public class Section {
     @Id
     @GeneratedValue
@@ -19,6 +25,17 @@ public class Section {
     @JoinColumn(name = "notebook_id")
     private Notebook notebook;
 
+    // The section table is partitioned by notebook, updates and deletes name the partition the section was loaded from
+    @PartitionKey
+    @Column(name = "notebook_id", insertable = false, updatable = false)
+    private Long notebookId;
+
+    @Column(nullable = false)
+    private int pageCount;
+
+    @Column(nullable = false)
+    private String position = FractionalIndex.between(null, null);
+
     public Section() {
     }
 
@@ -41,6 +58,16 @@ public class Section {
 
     public void setNotebook(Notebook notebook) {
         this.notebook = notebook;
+        assignNotebookId();
+    }
+
+    public Long getNotebookId() {
+        return notebookId;
+    }
+
+    @PrePersist
+    void assignNotebookId() {
+        notebookId = notebook == null ? null : notebook.getId();
     }
 
     public Long getId() {
@@ -59,6 +86,22 @@ public class Section {
         this.name = name;
     }
 
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
     @Override
     public String toString() {
         return "Section{" +
@@ -0,0 +1,34 @@
+package com.amalstack.api.notebooks.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "notebooks.sql.log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLoggingConfiguration {
+
+    // Wraps the data source the application uses, on top of any pool or routing data source behind it
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSourcePostProcessor(
+            @Value("${notebooks.sql.log.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${notebooks.sql.log.sample-rate:0.01}") double sampleRate,
+            @Value("${notebooks.sql.log.redact-parameters:true}") boolean redactParameters) {
+        var queryLogger = new SqlQueryLogger(slowThreshold, sampleRate, redactParameters);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new SqlLoggingDataSource(dataSource, queryLogger);
+                }
+                return bean;
+            }
+        };
+    }
+}
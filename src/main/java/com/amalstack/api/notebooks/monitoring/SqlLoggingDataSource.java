@@ -0,0 +1,113 @@
+package com.amalstack.api.notebooks.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Times the statements executed through the connections of the target data source and hands them, with their bound
+ * parameters, to a {@link SqlQueryLogger}.
+ */
+public class SqlLoggingDataSource extends DelegatingDataSource {
+
+    private final SqlQueryLogger queryLogger;
+
+    public SqlLoggingDataSource(DataSource targetDataSource, SqlQueryLogger queryLogger) {
+        super(targetDataSource);
+        this.queryLogger = queryLogger;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        return logging(super.getConnection());
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        return logging(super.getConnection(username, password));
+    }
+
+    private Connection logging(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        // prepareStatement and prepareCall take the SQL up front, createStatement on execution
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return Proxy.newProxyInstance(
+                                Connection.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()},
+                                new StatementHandler(statement, sql));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        private final String sql;
+
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    parameters.clear();
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+            }
+            return SqlLoggingDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                return SqlLoggingDataSource.invoke(statement, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                String executed = sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : "(batch)";
+                queryLogger.record(executed, parameters, elapsed);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.amalstack.api.notebooks.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs executed SQL statements as structured events: every statement slower than the threshold, and a random sample
+ * of the others. String and binary parameters are redacted, since they carry the contents of notebooks and password
+ * hashes. Each event names the controller method that issued it, or the thread for statements outside requests.
+ * <p>
+ * The events go to an asynchronous appender that drops them when its queue is full (see logback-spring.xml).
+ */
+public class SqlQueryLogger {
+
+    static final String REDACTED = "<redacted>";
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlQueryLogger.class);
+
+    private final long slowThresholdNanos;
+
+    private final double sampleRate;
+
+    private final boolean redactParameters;
+
+    public SqlQueryLogger(Duration slowThreshold, double sampleRate, boolean redactParameters) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.redactParameters = redactParameters;
+    }
+
+    public void record(String sql, Map<Integer, Object> parameters, long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (slow ? !logger.isWarnEnabled() : !logger.isInfoEnabled() || !sampled()) {
+            return;
+        }
+        (slow ? logger.atWarn() : logger.atInfo())
+                .addKeyValue("sql", sql)
+                .addKeyValue("parameters", format(parameters))
+                .addKeyValue("durationMs", elapsedNanos / 1_000_000.0)
+                .addKeyValue("origin", origin())
+                .log(slow ? "Slow SQL statement" : "Sampled SQL statement");
+    }
+
+    private boolean sampled() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private List<String> format(Map<Integer, Object> parameters) {
+        return parameters.values()
+                .stream()
+                .map(this::formatValue)
+                .toList();
+    }
+
+    // Keys and numbers help to reproduce a slow statement, free text is left out
+    private String formatValue(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean
+                || value instanceof Temporal || value instanceof Date) {
+            return String.valueOf(value);
+        }
+        return redactParameters ? REDACTED : String.valueOf(value);
+    }
+
+    private static String origin() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST) instanceof HandlerMethod handler) {
+            return handler.getBeanType().getSimpleName() + "#" + handler.getMethod().getName();
+        }
+        return Thread.currentThread().getName();
+    }
+}
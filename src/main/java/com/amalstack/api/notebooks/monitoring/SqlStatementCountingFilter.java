@@ -0,0 +1,98 @@
+package com.amalstack.api.notebooks.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Objects;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_NAME = "X-SQL-Statement-Count";
+
+    static final String METRIC_NAME = "http.server.requests.sql.statements";
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementCountingFilter.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final int statementBudget;
+
+    public SqlStatementCountingFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                      @Value("${notebooks.sql.statement-budget:10}") int statementBudget) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        var countingResponse = new StatementCountHeaderResponse(response);
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            countingResponse.writeHeader();
+            record(request, SqlStatementCounter.stop());
+        }
+    }
+
+    private void record(HttpServletRequest request, int count) {
+        var uri = Objects.requireNonNullElse(
+                request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), "UNKNOWN").toString();
+
+        var registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(count);
+        }
+
+        if (count > statementBudget) {
+            logger.warn("{} {} executed {} SQL statements, exceeding the budget of {}",
+                    request.getMethod(), request.getRequestURI(), count, statementBudget);
+        }
+    }
+
+    // Sets the header right before the response is committed, so it also reaches clients of streamed bodies
+    private static final class StatementCountHeaderResponse extends OnCommittedResponseWrapper {
+        private boolean headerWritten;
+
+        StatementCountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (!headerWritten && !isCommitted()) {
+                setHeader(HEADER_NAME, Integer.toString(SqlStatementCounter.current()));
+            }
+            headerWritten = true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.amalstack.api.notebooks.ordering;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates ordering keys that sort lexicographically, so that an item can be placed between any two neighbours by
+ * giving it a key between theirs without touching other rows. Keys are base-36 fractions made of {@code 0-9a-z}, a
+ * range in which the usual database collations agree with plain character order, and never end with {@code 0} so
+ * that there is always room for another key before them.
+ */
+public final class FractionalIndex {
+
+    static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    private static final int BASE = DIGITS.length();
+
+    private FractionalIndex() {
+    }
+
+    /**
+     * Returns a key that sorts after {@code before} and before {@code after}; {@code null} stands for the start
+     * and the end of the list respectively.
+     */
+    public static String between(String before, String after) {
+        String lower = before == null ? "" : before;
+        if (after != null && lower.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("The key " + before + " does not sort before " + after);
+        }
+        validate(lower);
+        if (after != null) {
+            validate(after);
+        }
+        return midpoint(lower, after);
+    }
+
+    /**
+     * Returns {@code count} ascending keys of equal length spread evenly over the key space, used to rebalance a
+     * list whose keys have grown long.
+     */
+    public static List<String> evenlySpaced(int count) {
+        int length = 1;
+        long range = BASE;
+        while (range <= count) {
+            length++;
+            range *= BASE;
+        }
+
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            long value = i * range / (count + 1);
+            var key = new StringBuilder(length);
+            for (int digit = 0; digit < length; digit++) {
+                key.insert(0, DIGITS.charAt((int) (value % BASE)));
+                value /= BASE;
+            }
+            keys.add(stripTrailingZeros(key.toString()));
+        }
+        return keys;
+    }
+
+    private static String midpoint(String lower, String upper) {
+        if (upper != null) {
+            // Keep the common prefix, treating the lower key as padded with zeros
+            int prefix = 0;
+            while (prefix < upper.length() && digitAt(lower, prefix) == upper.charAt(prefix)) {
+                prefix++;
+            }
+            if (prefix > 0) {
+                return upper.substring(0, prefix) + midpoint(
+                        lower.length() > prefix ? lower.substring(prefix) : "",
+                        upper.substring(prefix));
+            }
+        }
+
+        int lowerDigit = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        int upperDigit = upper == null ? BASE : DIGITS.indexOf(upper.charAt(0));
+        if (upperDigit - lowerDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowerDigit + upperDigit + 1) / 2));
+        }
+        // The first digits are adjacent: a longer upper key can be cut short, otherwise continue after the lower digit
+        if (upper != null && upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(lowerDigit) + midpoint(lower.length() > 1 ? lower.substring(1) : "", null);
+    }
+
+    private static char digitAt(String key, int index) {
+        return index < key.length() ? key.charAt(index) : DIGITS.charAt(0);
+    }
+
+    private static String stripTrailingZeros(String key) {
+        int end = key.length();
+        while (end > 0 && key.charAt(end - 1) == DIGITS.charAt(0)) {
+            end--;
+        }
+        return key.substring(0, end);
+    }
+
+    private static void validate(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                throw new IllegalArgumentException("The key " + key + " contains an invalid character");
+            }
+        }
+        if (!key.isEmpty() && key.charAt(key.length() - 1) == DIGITS.charAt(0)) {
+            throw new IllegalArgumentException("The key " + key + " ends with " + DIGITS.charAt(0));
+        }
+    }
+}
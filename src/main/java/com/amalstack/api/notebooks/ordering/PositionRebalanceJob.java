@@ -0,0 +1,86 @@
+package com.amalstack.api.notebooks.ordering;
+
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import com.amalstack.api.notebooks.repository.NotebookRepository;
+import com.amalstack.api.notebooks.repository.PageRepository;
+import com.amalstack.api.notebooks.repository.SectionRepository;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Repeated inserts at the same spot make ordering keys longer. Once a key of a list grows beyond the configured
+ * length, the whole list is given short, evenly spaced keys again in its current order.
+ */
+@Component
+public class PositionRebalanceJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionRebalanceJob.class);
+
+    private final NotebookRepository notebookRepository;
+
+    private final SectionRepository sectionRepository;
+
+    private final PageRepository pageRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxKeyLength;
+
+    public PositionRebalanceJob(NotebookRepository notebookRepository,
+                                SectionRepository sectionRepository,
+                                PageRepository pageRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${notebooks.ordering.max-key-length:24}") int maxKeyLength) {
+        this.notebookRepository = notebookRepository;
+        this.sectionRepository = sectionRepository;
+        this.pageRepository = pageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    @Scheduled(fixedDelayString = "${notebooks.ordering.rebalance-interval:1h}")
+    public int rebalance() {
+        return ShardContext.sumOverShards(() -> transactionTemplate.execute(status -> rebalanceShard()));
+    }
+
+    private int rebalanceShard() {
+        List<Long> notebookIds = sectionRepository.findNotebookIdsWithPositionsLongerThan(maxKeyLength);
+        // The lists are locked like for an append, so that no key is given out while the list is being rewritten
+        notebookIds.forEach(notebookId -> {
+            notebookRepository.lockForPositioning(notebookId);
+            assignKeys(new ArrayList<>(sectionRepository.findByNotebookId(notebookId)), Section::setPosition);
+        });
+
+        List<Section> sections = pageRepository.findSectionsWithPositionsLongerThan(maxKeyLength);
+        sections.forEach(section -> {
+            sectionRepository.lockForPositioning(section.getNotebookId(), section.getId());
+            assignKeys(new ArrayList<>(pageRepository
+                    .findByNotebookIdAndSectionId(section.getNotebookId(), section.getId())), Page::setPosition);
+        });
+
+        int rebalanced = notebookIds.size() + sections.size();
+        if (rebalanced > 0) {
+            logger.info("Rebalanced the ordering keys of {} notebooks and {} sections",
+                    notebookIds.size(), sections.size());
+        }
+        return rebalanced;
+    }
+
+    private static <T> void assignKeys(List<T> orderedItems, BiConsumer<T, String> setPosition) {
+        List<String> keys = FractionalIndex.evenlySpaced(orderedItems.size());
+        for (int i = 0; i < orderedItems.size(); i++) {
+            setPosition.accept(orderedItems.get(i), keys.get(i));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.amalstack.api.notebooks.purge;
+
+import com.amalstack.api.notebooks.repository.NotebookRepository;
+import com.amalstack.api.notebooks.repository.PageRepository;
+import com.amalstack.api.notebooks.repository.SectionRepository;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Removes notebooks that were deleted longer ago than the retention window. The pages of each notebook are deleted in
+ * small batches, each in its own transaction with a pause in between, so that purging a large notebook never holds
+ * its locks for long or writes its whole contents to the WAL at once. At most a configured number of notebooks is
+ * purged per shard and run, the rest are left to the next runs.
+ */
+@Component
+public class NotebookPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotebookPurgeJob.class);
+
+    private final NotebookRepository notebookRepository;
+
+    private final SectionRepository sectionRepository;
+
+    private final PageRepository pageRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration retention;
+
+    private final int batchSize;
+
+    private final int notebooksPerRun;
+
+    private final Duration pause;
+
+    public NotebookPurgeJob(NotebookRepository notebookRepository,
+                            SectionRepository sectionRepository,
+                            PageRepository pageRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${notebooks.purge.retention:7d}") Duration retention,
+                            @Value("${notebooks.purge.batch-size:500}") int batchSize,
+                            @Value("${notebooks.purge.notebooks-per-run:100}") int notebooksPerRun,
+                            @Value("${notebooks.purge.pause:200ms}") Duration pause) {
+        this.notebookRepository = notebookRepository;
+        this.sectionRepository = sectionRepository;
+        this.pageRepository = pageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.notebooksPerRun = notebooksPerRun;
+        this.pause = pause;
+    }
+
+    @Scheduled(fixedDelayString = "${notebooks.purge.interval:1m}")
+    public int purge() {
+        return ShardContext.sumOverShards(this::purgeShard);
+    }
+
+    private int purgeShard() {
+        List<Long> notebookIds = transactionTemplate.execute(status -> notebookRepository
+                .findIdsDeletedBefore(LocalDateTime.now().minus(retention), PageRequest.ofSize(notebooksPerRun)));
+        int purged = 0;
+        for (long notebookId : notebookIds) {
+            if (!purge(notebookId)) {
+                break;
+            }
+            purged++;
+        }
+        if (purged > 0) {
+            logger.info("Purged {} notebooks deleted more than {} ago", purged, retention);
+        }
+        return purged;
+    }
+
+    private boolean purge(long notebookId) {
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> pageIds = pageRepository.findIdsByNotebookId(notebookId, PageRequest.ofSize(batchSize));
+                return pageIds.isEmpty() ? 0 : pageRepository.deleteByNotebookIdAndIdIn(notebookId, pageIds);
+            });
+            if (!pauseBetweenBatches()) {
+                return false;
+            }
+        } while (deleted == batchSize);
+
+        // Only the sections and the notebook row are left, which the last transaction removes together
+        transactionTemplate.executeWithoutResult(status -> {
+            sectionRepository.deleteByNotebookId(notebookId);
+            notebookRepository.deleteAllByIdInBatch(List.of(notebookId));
+        });
+        return true;
+    }
+
+    private boolean pauseBetweenBatches() {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            // Shutting down, the remaining batches are picked up on the next run
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,10 +1,29 @@
 package com.amalstack.api.notebooks.repository;
 
 import com.amalstack.api.notebooks.model.AppUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "app-user-by-username")
+    })
     Optional<AppUser> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Query("SELECT u.username FROM AppUser u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllUsernames();
+
+    // registered_at is filled in by the database and not mapped
+    @Query(value = "SELECT username FROM app_user WHERE registered_at > :since", nativeQuery = true)
+    List<String> findUsernamesRegisteredSince(Instant since);
+}
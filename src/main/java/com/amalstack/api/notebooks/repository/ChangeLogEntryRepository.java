@@ -0,0 +1,35 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface ChangeLogEntryRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    // Only the latest entry of each entity is returned, earlier changes to it are superseded
+    @Query("""
+            SELECT e FROM ChangeLogEntry e
+            WHERE e.ownerId = ?1 AND e.id > ?2 AND e.recordedAt <= ?3
+            AND e.id = (SELECT MAX(l.id) FROM ChangeLogEntry l
+                        WHERE l.ownerId = ?1 AND l.entityType = e.entityType AND l.entityId = e.entityId
+                        AND l.recordedAt <= ?3)
+            ORDER BY e.id
+            """)
+    List<ChangeLogEntry> findLatestChanges(long ownerId, long since, Instant recordedBefore, Pageable pageable);
+
+    @Query("SELECT MIN(e.id) FROM ChangeLogEntry e")
+    Optional<Long> findOldestId();
+
+    @Query("SELECT MAX(e.id) FROM ChangeLogEntry e")
+    Optional<Long> findLatestId();
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.recordedAt < ?1")
+    int deleteRecordedBefore(Instant instant);
+}
@@ -0,0 +1,19 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Section;
+
+/**
+ * Copies the contents of notebooks and sections with set-based statements that run entirely in the database, so the
+ * pages are never loaded into the persistence context. The target notebook or section must already be persisted.
+ */
+public interface NotebookCopier {
+    /**
+     * @return the number of pages copied
+     */
+    int copySections(long sourceNotebookId, long targetNotebookId);
+
+    /**
+     * @return the number of pages copied
+     */
+    int copyPages(Section source, Section target);
+}
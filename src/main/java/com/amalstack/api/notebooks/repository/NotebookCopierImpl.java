@@ -0,0 +1,64 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+class NotebookCopierImpl implements NotebookCopier {
+
+    // Each new section id is drawn once in the materialized CTE and used both for the section and to remap its pages.
+    // Taking values straight from the sequences is safe alongside Hibernate's pooled optimizer, which treats every
+    // value it draws as the top of its own block.
+    static final String COPY_SECTIONS = """
+            WITH copied AS (
+                SELECT s.id AS source_id, nextval('section_seq') AS id, s.name, s.position, s.page_count
+                FROM section s
+                WHERE s.notebook_id = :source
+            ), inserted AS (
+                INSERT INTO section (id, name, position, page_count, notebook_id)
+                SELECT c.id, c.name, c.position, c.page_count, :target
+                FROM copied c
+            )
+            INSERT INTO page (id, title, content, position, notebook_id, section_id)
+            SELECT nextval('page_seq'), p.title, p.content, p.position, :target, c.id
+            FROM page p
+            JOIN copied c ON c.source_id = p.section_id
+            WHERE p.notebook_id = :source
+            """;
+
+    static final String COPY_PAGES = """
+            INSERT INTO page (id, title, content, position, notebook_id, section_id)
+            SELECT nextval('page_seq'), p.title, p.content, p.position, :targetNotebook, :target
+            FROM page p
+            WHERE p.notebook_id = :sourceNotebook AND p.section_id = :source
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int copySections(long sourceNotebookId, long targetNotebookId) {
+        return copy(COPY_SECTIONS, sourceNotebookId, targetNotebookId).executeUpdate();
+    }
+
+    @Override
+    public int copyPages(Section source, Section target) {
+        return copy(COPY_PAGES, source.getId(), target.getId())
+                .setParameter("sourceNotebook", source.getNotebook().getId())
+                .setParameter("targetNotebook", target.getNotebook().getId())
+                .executeUpdate();
+    }
+
+    private NativeQuery<?> copy(String sql, long source, long target) {
+        // Native statements only auto-flush their synchronized spaces, which would leave out a new target row
+        entityManager.flush();
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Section.class)
+                .addSynchronizedEntityClass(Page.class)
+                .setParameter("source", source)
+                .setParameter("target", target);
+    }
+}
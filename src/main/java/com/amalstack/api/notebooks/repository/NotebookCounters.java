@@ -0,0 +1,19 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+
+/**
+ * Keeps the section and page counters of notebooks and sections in step with their contents. Each method locks the
+ * affected rows and re-reads the counters before adjusting them, so it must be called inside the writing transaction
+ * and, for removals and moves, before the entity is changed.
+ */
+public interface NotebookCounters {
+    void onSectionAdded(Section section);
+
+    void onSectionRemoved(Section section);
+
+    void onPageAdded(Page page);
+
+    void onPageRemoved(Page page);
+}
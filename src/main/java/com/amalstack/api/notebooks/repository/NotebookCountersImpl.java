@@ -0,0 +1,55 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+class NotebookCountersImpl implements NotebookCounters {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void onSectionAdded(Section section) {
+        Notebook notebook = lock(section.getNotebook());
+        notebook.setSectionCount(notebook.getSectionCount() + 1);
+        notebook.setPageCount(notebook.getPageCount() + section.getPageCount());
+    }
+
+    @Override
+    public void onSectionRemoved(Section section) {
+        lock(section);
+        Notebook notebook = lock(section.getNotebook());
+        notebook.setSectionCount(notebook.getSectionCount() - 1);
+        notebook.setPageCount(notebook.getPageCount() - section.getPageCount());
+    }
+
+    @Override
+    public void onPageAdded(Page page) {
+        adjustPageCount(page.getSection(), 1);
+    }
+
+    @Override
+    public void onPageRemoved(Page page) {
+        adjustPageCount(page.getSection(), -1);
+    }
+
+    // Sections are always locked before their notebook to keep the lock order consistent
+    private void adjustPageCount(Section section, int delta) {
+        lock(section);
+        Notebook notebook = lock(section.getNotebook());
+        section.setPageCount(section.getPageCount() + delta);
+        notebook.setPageCount(notebook.getPageCount() + delta);
+    }
+
+    // Refreshing an entity that is already locked would discard the adjustments made to it in this transaction
+    private <T> T lock(T entity) {
+        if (entityManager.getLockMode(entity) != LockModeType.PESSIMISTIC_WRITE) {
+            entityManager.refresh(entity, LockModeType.PESSIMISTIC_WRITE);
+        }
+        return entity;
+    }
+}
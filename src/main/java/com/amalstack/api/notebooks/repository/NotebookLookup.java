@@ -0,0 +1,12 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Notebook;
+
+import java.util.Optional;
+
+/**
+ * Looks up notebooks by id, hiding deleted notebooks that are awaiting purge.
+ */
+public interface NotebookLookup {
+    Optional<Notebook> findById(Long id);
+}
@@ -0,0 +1,22 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Notebook;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class NotebookLookupImpl implements NotebookLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Loads through the second-level cache like the default findById and filters afterwards
+    @Override
+    public Optional<Notebook> findById(Long id) {
+        return Optional.ofNullable(entityManager.find(Notebook.class, id))
+                .filter(notebook -> !notebook.isDeleted());
+    }
+}
@@ -1,17 +1,38 @@
 package com.amalstack.api.notebooks.repository;
 
 import com.amalstack.api.notebooks.model.Notebook;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface NotebookRepository extends JpaRepository<Notebook, Long> {
+public interface NotebookRepository extends JpaRepository<Notebook, Long>, NotebookLookup, NotebookCopier {
+    // Declared again so that calls resolve to the one in NotebookLookup, which hides deleted notebooks, instead of being
+    // ambiguous with CrudRepository.findById
+    @Override
+    Optional<Notebook> findById(Long id);
+
+    @Query("SELECT n FROM Notebook n WHERE n.owner.id = ?1 AND n.deletedAt IS NULL")
     Collection<Notebook> findByOwnerId(Long id);
 
+    @Query("SELECT n FROM Notebook n WHERE n.owner.username = ?1 AND n.deletedAt IS NULL")
     Collection<Notebook> findByOwnerUsername(String username);
 
+    // Held until the end of the transaction, so that writers computing keys for the sections of a notebook take turns
+    @Query(value = "SELECT id FROM notebook WHERE id = ?1 FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockForPositioning(long id);
+
+    @Query("SELECT n FROM Notebook n WHERE n.id = ?1 AND n.deletedAt >= ?2")
+    Optional<Notebook> findDeletedById(long id, LocalDateTime deletedSince);
+
+    @Query("SELECT n.id FROM Notebook n WHERE n.deletedAt < ?1 ORDER BY n.deletedAt")
+    List<Long> findIdsDeletedBefore(LocalDateTime deletedBefore, Pageable pageable);
+
     @Query(value = """
             SELECT COUNT(s.id) FROM Section s
             JOIN Notebook n ON s.notebook_id = n.id
@@ -21,9 +42,23 @@ public interface NotebookRepository extends JpaRepository<Notebook, Long> {
 
     @Query(value = """
             SELECT COUNT(p.id) FROM Page p
-            JOIN Section s ON p.section_id = s.id
-            JOIN Notebook n ON s.notebook_id = n.id
-            WHERE n.id = ?1
+            WHERE p.notebook_id = ?1
             """, nativeQuery = true)
     Optional<Integer> countSectionPages(Long id);
+
+    @Query("""
+            SELECT n.id FROM Notebook n
+            WHERE n.sectionCount <> (SELECT COUNT(s) FROM Section s WHERE s.notebook = n)
+            OR n.pageCount <> (SELECT COUNT(p) FROM Page p WHERE p.notebookId = n.id)
+            """)
+    List<Long> findIdsWithCounterDrift();
+
+    @Modifying
+    @Query("""
+            UPDATE Notebook n
+            SET n.sectionCount = (SELECT CAST(COUNT(s) AS Integer) FROM Section s WHERE s.notebook = n),
+            n.pageCount = (SELECT CAST(COUNT(p) AS Integer) FROM Page p WHERE p.notebookId = n.id)
+            WHERE n.id IN ?1
+            """)
+    int recountSectionsAndPages(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.PageAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PageAttachmentRepository extends JpaRepository<PageAttachment, Long> {
+    List<PageAttachment> findByPageIdOrderById(long pageId);
+
+    Optional<PageAttachment> findByIdAndPageId(long id, long pageId);
+}
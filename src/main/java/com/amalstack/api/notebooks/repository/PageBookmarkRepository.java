@@ -0,0 +1,39 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.dto.BookmarkDto;
+import com.amalstack.api.notebooks.model.PageBookmark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Set;
+
+public interface PageBookmarkRepository extends JpaRepository<PageBookmark, Long> {
+    @Query("""
+            SELECT new com.amalstack.api.notebooks.dto.BookmarkDto(p.id, p.title, s.id, s.name, n.id, n.name)
+            FROM PageBookmark b
+            JOIN b.page p
+            JOIN p.section s
+            JOIN s.notebook n
+            WHERE b.user.username = ?1 AND n.deletedAt IS NULL
+            ORDER BY b.id DESC
+            """)
+    List<BookmarkDto> findByUsername(String username);
+
+    @Query("SELECT b.page.id FROM PageBookmark b WHERE b.user.username = ?1")
+    Set<Long> findPageIdsByUsername(String username);
+
+    // Adding a bookmark twice is a no-op, also when two requests race
+    @Modifying
+    @Query(value = """
+            INSERT INTO page_bookmark (id, user_id, page_id)
+            VALUES (nextval('page_bookmark_seq'), ?1, ?2)
+            ON CONFLICT (user_id, page_id) DO NOTHING
+            """, nativeQuery = true)
+    int addIfAbsent(long userId, long pageId);
+
+    @Modifying
+    @Query("DELETE FROM PageBookmark b WHERE b.user.id = ?1 AND b.page.id = ?2")
+    int deleteByUserIdAndPageId(long userId, long pageId);
+}
@@ -0,0 +1,12 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Page;
+
+import java.util.Optional;
+
+/**
+ * Looks up pages by id, hiding the pages of deleted notebooks that are awaiting purge.
+ */
+public interface PageLookup {
+    Optional<Page> findById(Long id);
+}
@@ -0,0 +1,34 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Page;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class PageLookupImpl implements PageLookup {
+
+    // By id alone every partition of the page table would be searched, page_location tells the one holding the page
+    static final String FIND_BY_ID = """
+            SELECT p.* FROM page p
+            WHERE p.notebook_id = (SELECT l.notebook_id FROM page_location l WHERE l.id = :id)
+            AND p.id = :id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Page> findById(Long id) {
+        List<Page> pages = entityManager.createNativeQuery(FIND_BY_ID, Page.class)
+                .setParameter("id", id)
+                .getResultList();
+        return pages.stream()
+                .findFirst()
+                .filter(page -> !page.getSection().getNotebook().isDeleted());
+    }
+}
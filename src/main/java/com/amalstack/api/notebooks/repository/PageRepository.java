@@ -1,14 +1,43 @@
 package com.amalstack.api.notebooks.repository;
 
 import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface PageRepository extends JpaRepository<Page, Long> {
-    Collection<Page> findBySectionId(Long id);
+public interface PageRepository extends JpaRepository<Page, Long>, PageLookup, NotebookCounters {
+    // Implemented by PageLookup, see NotebookRepository.findById
+    @Override
+    Optional<Page> findById(Long id);
 
-    int countBySectionId(Long id);
+    // Every query names the notebook, the partition key of the page table
+    @Query("SELECT p FROM Page p WHERE p.notebookId = ?1 AND p.section.id = ?2 ORDER BY p.position, p.id")
+    Collection<Page> findByNotebookIdAndSectionId(long notebookId, Long sectionId);
 
-    int countBySectionNotebookId(Long id);
-}
\ No newline at end of file
+    @Query("SELECT p FROM Page p WHERE p.notebookId = ?1 ORDER BY p.position, p.id")
+    Collection<Page> findByNotebookId(Long notebookId);
+
+    @Query("SELECT MAX(p.position) FROM Page p WHERE p.notebookId = ?1 AND p.section.id = ?2")
+    Optional<String> findLastPosition(long notebookId, long sectionId);
+
+    // Scans every partition, which only the rebalancing job does
+    @Query("SELECT DISTINCT p.section FROM Page p WHERE LENGTH(p.position) > ?1")
+    List<Section> findSectionsWithPositionsLongerThan(int length);
+
+    @Query("SELECT p.id FROM Page p WHERE p.notebookId = ?1")
+    List<Long> findIdsByNotebookId(long notebookId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Page p WHERE p.notebookId = ?1 AND p.id IN ?2")
+    int deleteByNotebookIdAndIdIn(long notebookId, Collection<Long> ids);
+
+    int countByNotebookIdAndSectionId(long notebookId, Long sectionId);
+
+    int countByNotebookId(Long notebookId);
+}
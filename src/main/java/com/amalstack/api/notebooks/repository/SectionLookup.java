@@ -0,0 +1,12 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Section;
+
+import java.util.Optional;
+
+/**
+ * Looks up sections by id, hiding the sections of deleted notebooks that are awaiting purge.
+ */
+public interface SectionLookup {
+    Optional<Section> findById(Long id);
+}
@@ -0,0 +1,40 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Section;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class SectionLookupImpl implements SectionLookup {
+
+    static final String FIND_BY_ID = """
+            SELECT s.* FROM section s
+            WHERE s.notebook_id = (SELECT l.notebook_id FROM section_location l WHERE l.id = :id)
+            AND s.id = :id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The owning notebook is usually in the second-level cache too, so the check rarely costs a query
+    @Override
+    public Optional<Section> findById(Long id) {
+        return find(id).filter(section -> !section.getNotebook().isDeleted());
+    }
+
+    // Only a section missing from the second-level cache is read, through section_location to prune the partitions
+    @SuppressWarnings("unchecked")
+    private Optional<Section> find(Long id) {
+        if (entityManager.getEntityManagerFactory().getCache().contains(Section.class, id)) {
+            return Optional.ofNullable(entityManager.find(Section.class, id));
+        }
+        List<Section> sections = entityManager.createNativeQuery(FIND_BY_ID, Section.class)
+                .setParameter("id", id)
+                .getResultList();
+        return sections.stream().findFirst();
+    }
+}
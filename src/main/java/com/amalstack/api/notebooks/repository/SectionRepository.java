@@ -1,12 +1,71 @@
 package com.amalstack.api.notebooks.repository;
 
+import com.amalstack.api.notebooks.dto.NotebookTreeRow;
 import com.amalstack.api.notebooks.model.Section;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface SectionRepository extends JpaRepository<Section, Long> {
+public interface SectionRepository extends JpaRepository<Section, Long>, SectionLookup, NotebookCounters, NotebookCopier {
+    // Implemented by SectionLookup, see NotebookRepository.findById
+    @Override
+    Optional<Section> findById(Long id);
+
+    @Query("SELECT s FROM Section s WHERE s.notebook.id = ?1 ORDER BY s.position, s.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "sections-by-notebook")
+    })
     Collection<Section> findByNotebookId(long id);
 
+    // Read through a forward-only cursor, so that the tree of a notebook never has to fit in memory at once
+    @Query("""
+            SELECT new com.amalstack.api.notebooks.dto.NotebookTreeRow(s.id, s.name, p.id, p.title, p.content)
+            FROM Section s
+            LEFT JOIN Page p ON p.notebookId = ?1 AND p.section = s
+            WHERE s.notebook.id = ?1
+            ORDER BY s.position, s.id, p.position, p.id
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<NotebookTreeRow> streamTree(long notebookId);
+
+    @Query("SELECT MAX(s.position) FROM Section s WHERE s.notebook.id = ?1")
+    Optional<String> findLastPosition(long notebookId);
+
+    // Held until the end of the transaction, so that writers computing keys for the pages of a section take turns
+    @Query(value = "SELECT id FROM section WHERE notebook_id = ?1 AND id = ?2 FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockForPositioning(long notebookId, long id);
+
+    @Query("SELECT DISTINCT s.notebook.id FROM Section s WHERE LENGTH(s.position) > ?1")
+    List<Long> findNotebookIdsWithPositionsLongerThan(int length);
+
     int countByNotebookId(long id);
-}
\ No newline at end of file
+
+    // A bulk delete lets Hibernate invalidate the cached sections, which the database cascade would bypass
+    @Modifying
+    @Query("DELETE FROM Section s WHERE s.notebook.id = ?1")
+    int deleteByNotebookId(long id);
+
+    @Query("""
+            SELECT s.id FROM Section s
+            WHERE s.pageCount <> (SELECT COUNT(p) FROM Page p WHERE p.notebookId = s.notebookId AND p.section = s)
+            """)
+    List<Long> findIdsWithPageCountDrift();
+
+    @Modifying
+    @Query("""
+            UPDATE Section s
+            SET s.pageCount = (SELECT CAST(COUNT(p) AS Integer) FROM Page p
+                WHERE p.notebookId = s.notebookId AND p.section = s)
+            WHERE s.id IN ?1
+            """)
+    int recountPages(Collection<Long> ids);
+}
@@ -2,6 +2,9 @@ package com.amalstack.api.notebooks.security;
 
 import com.amalstack.api.notebooks.model.AppUser;
 import com.amalstack.api.notebooks.repository.AppUserRepository;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import com.amalstack.api.notebooks.sharding.ShardDirectory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,21 +12,24 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.Optional;
 
 @Service
 public class AppUserDetailsService implements UserDetailsService {
 
     private final AppUserRepository userRepository;
 
-    public AppUserDetailsService(AppUserRepository userRepository) {
+    private final ObjectProvider<ShardDirectory> shardDirectory;
+
+    public AppUserDetailsService(AppUserRepository userRepository, ObjectProvider<ShardDirectory> shardDirectory) {
         this.userRepository = userRepository;
+        this.shardDirectory = shardDirectory;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        AppUser user = userRepository
-                .findByUsername(username)
+        AppUser user = findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("The username " + username + " was not found"));
 
         return User.builder()
@@ -32,4 +38,15 @@ public class AppUserDetailsService implements UserDetailsService {
                 .authorities(Collections.emptyList())
                 .build();
     }
+
+    // Runs before the request's shard is resolved, which needs the authenticated user
+    private Optional<AppUser> findByUsername(String username) {
+        var directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            return userRepository.findByUsername(username);
+        }
+        return directory.find(username)
+                .flatMap(assignment -> ShardContext.callOn(assignment.shard(),
+                        () -> userRepository.findByUsername(username)));
+    }
 }
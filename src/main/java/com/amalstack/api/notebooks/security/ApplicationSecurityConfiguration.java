@@ -18,7 +18,8 @@ import org.springframework.security.web.util.matcher.RequestMatcher;
 public class ApplicationSecurityConfiguration {
 
     public static final RequestMatcher PUBLIC_URLS = new OrRequestMatcher(
-            new AntPathRequestMatcher("/users/**", "POST")
+            new AntPathRequestMatcher("/users/**", "POST"),
+            new AntPathRequestMatcher("/users/available", "GET")
     );
 
 
@@ -0,0 +1,48 @@
+package com.amalstack.api.notebooks.security;
+
+import com.amalstack.api.notebooks.exception.PasswordHashingUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+
+/**
+ * Hashes passwords on a small dedicated pool with a bounded queue. Hashing is deliberately slow, so running it on the
+ * request threads would let a burst of sign-ups occupy all of them; beyond the queue capacity sign-ups are rejected
+ * instead.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          @Value("${notebooks.security.hashing-threads:0}") int threads,
+                          @Value("${notebooks.security.hashing-queue-capacity:64}") int queueCapacity) {
+        this.encoder = encoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hasher-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new PasswordHashingUnavailableException(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,84 @@
+package com.amalstack.api.notebooks.sharding;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread works on. Without one, statements go to the first shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    // Set by the routing data source, a single shard when the data is not sharded
+    private static volatile int shardCount = 1;
+
+    private ShardContext() {
+
+    }
+
+    public static void set(int shard) {
+        CURRENT_SHARD.set(shard);
+    }
+
+    public static Integer current() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+
+    public static int getShardCount() {
+        return shardCount;
+    }
+
+    static void setShardCount(int count) {
+        shardCount = count;
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> task) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    public static void runOn(int shard, Runnable task) {
+        callOn(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // For jobs that work through all rows rather than those of one user
+    public static void forEachShard(Runnable task) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            runOn(shard, task);
+        }
+    }
+
+    public static int sumOverShards(IntSupplier task) {
+        int sum = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            sum += callOn(shard, task::getAsInt);
+        }
+        return sum;
+    }
+
+    // Carries the shard of the submitting thread over to the thread running the task
+    public static Runnable propagate(Runnable task) {
+        Integer shard = CURRENT_SHARD.get();
+        if (shard == null) {
+            return task;
+        }
+        return () -> runOn(shard, task);
+    }
+}
@@ -0,0 +1,107 @@
+package com.amalstack.api.notebooks.sharding;
+
+import com.amalstack.api.notebooks.exception.UsernameAlreadyExistsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Records the shard each user's rows live on, in the user_shard table of the first shard. New users are placed by a
+ * hash of their username and keep their shard until they are moved, so adding shards does not move anyone.
+ * <p>
+ * Lookups are cached for the configured time to live, which is also how long other instances may keep routing a
+ * user to the shard they were on before a move.
+ */
+public class ShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int shardCount;
+
+    private final Duration cacheTtl;
+
+    private final Cache<String, Assignment> assignments;
+
+    public ShardDirectory(DataSource directoryDataSource, int shardCount, Duration cacheTtl, long cacheSize) {
+        this.jdbcTemplate = new JdbcTemplate(directoryDataSource);
+        this.shardCount = shardCount;
+        this.cacheTtl = cacheTtl;
+        this.assignments = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    // Unknown usernames are not cached, they may sign up through another instance at any time
+    public Optional<Assignment> find(String username) {
+        return Optional.ofNullable(assignments.get(username, key -> jdbcTemplate
+                .query("SELECT shard, moving FROM user_shard WHERE username = ?",
+                        (rs, rowNum) -> new Assignment(rs.getInt("shard"), rs.getBoolean("moving")),
+                        key)
+                .stream()
+                .findFirst()
+                .orElse(null)));
+    }
+
+    // The primary key on the username keeps usernames unique across all shards
+    public int assign(String username) {
+        int shard = Math.floorMod(mix(username.hashCode()), shardCount);
+        try {
+            jdbcTemplate.update("INSERT INTO user_shard (username, shard, moving) VALUES (?, ?, FALSE)",
+                    username, shard);
+        } catch (DuplicateKeyException e) {
+            throw new UsernameAlreadyExistsException(username, e);
+        }
+        assignments.invalidate(username);
+        return shard;
+    }
+
+    public void unassign(String username) {
+        jdbcTemplate.update("DELETE FROM user_shard WHERE username = ?", username);
+        assignments.invalidate(username);
+    }
+
+    public void setMoving(String username, boolean moving) {
+        jdbcTemplate.update("UPDATE user_shard SET moving = ? WHERE username = ?", moving, username);
+        assignments.invalidate(username);
+    }
+
+    public void reassign(String username, int shard) {
+        jdbcTemplate.update("UPDATE user_shard SET shard = ?, moving = FALSE WHERE username = ?", shard, username);
+        assignments.invalidate(username);
+    }
+
+    public Stream<String> streamUsernames() {
+        return jdbcTemplate.queryForStream("SELECT username FROM user_shard", (rs, rowNum) -> rs.getString(1));
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    // String hashes of similar usernames differ in few bits, spread them before taking the remainder
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The shard of a user, and whether the user is being moved to another one, during which their writes are
+     * refused.
+     */
+    public record Assignment(int shard, boolean moving) {
+    }
+}
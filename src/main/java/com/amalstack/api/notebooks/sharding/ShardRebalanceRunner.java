@@ -0,0 +1,37 @@
+package com.amalstack.api.notebooks.sharding;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Moves one user to another shard and exits, see scripts/move-user-shard.sh. The instances serving requests can keep
+ * running meanwhile.
+ */
+public class ShardRebalanceRunner implements ApplicationRunner {
+
+    private final ShardRebalancer rebalancer;
+
+    private final ConfigurableApplicationContext context;
+
+    private final String username;
+
+    private final int targetShard;
+
+    public ShardRebalanceRunner(ShardRebalancer rebalancer,
+                                ConfigurableApplicationContext context,
+                                String username,
+                                int targetShard) {
+        this.rebalancer = rebalancer;
+        this.context = context;
+        this.username = username;
+        this.targetShard = targetShard;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        rebalancer.move(username, targetShard);
+        SpringApplication.exit(context, () -> 0);
+    }
+}
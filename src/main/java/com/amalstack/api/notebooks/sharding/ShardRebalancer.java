@@ -0,0 +1,225 @@
+package com.amalstack.api.notebooks.sharding;
+
+import com.amalstack.api.notebooks.exception.AppUserNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Moves a user and everything they own to another shard while the application keeps running. The user's writes are
+ * refused for the duration of the move, their reads keep going to the old shard until the new one has all the rows.
+ * Rows keep their ids, which are unique across shards.
+ * <p>
+ * The directory cache time to live is waited out twice: before copying, so that every instance refuses the user's
+ * writes, and before deleting the old rows, so that no instance still reads them. Before copying, the drain time is
+ * also waited out, so that requests that were already writing have finished. Scheduled jobs keep going, so the old
+ * rows are only deleted if they still match the copy.
+ */
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    // In the order the foreign keys require
+    private static final List<TableCopy> COPIES = List.of(
+            new TableCopy("app_user", "SELECT * FROM app_user WHERE id = ?"),
+            new TableCopy("notebook", "SELECT * FROM notebook WHERE app_user_id = ?"),
+            new TableCopy("section", """
+                    SELECT s.* FROM section s
+                    JOIN notebook n ON n.id = s.notebook_id
+                    WHERE n.app_user_id = ?"""),
+            new TableCopy("page", """
+                    SELECT p.* FROM page p
+                    JOIN notebook n ON n.id = p.notebook_id
+                    WHERE n.app_user_id = ?"""),
+            // Only the rows, the files are in the store shared by every shard and keep their ids
+            new TableCopy("page_attachment", """
+                    SELECT a.* FROM page_attachment a
+                    JOIN page p ON p.id = a.page_id
+                    JOIN notebook n ON n.id = p.notebook_id
+                    WHERE n.app_user_id = ?"""),
+            new TableCopy("page_bookmark", "SELECT * FROM page_bookmark WHERE user_id = ?"),
+            new TableCopy("change_log_entry", "SELECT * FROM change_log_entry WHERE owner_id = ?"));
+
+    private final ShardDirectory directory;
+
+    private final ShardRoutingDataSource shards;
+
+    private final Duration drainTime;
+
+    public ShardRebalancer(ShardDirectory directory, ShardRoutingDataSource shards, Duration drainTime) {
+        this.directory = directory;
+        this.shards = shards;
+        this.drainTime = drainTime;
+    }
+
+    public void move(String username, int targetShard) throws InterruptedException {
+        if (targetShard < 0 || targetShard >= shards.getShardCount()) {
+            throw new IllegalArgumentException("There is no shard " + targetShard);
+        }
+        int sourceShard = directory.find(username)
+                .orElseThrow(AppUserNotFoundException::new)
+                .shard();
+        if (sourceShard == targetShard) {
+            return;
+        }
+        DataSource source = shards.getShard(sourceShard);
+        DataSource target = shards.getShard(targetShard);
+        Long userId = new JdbcTemplate(source)
+                .queryForList("SELECT id FROM app_user WHERE username = ?", Long.class, username)
+                .stream()
+                .findFirst()
+                .orElseThrow(AppUserNotFoundException::new);
+
+        logger.info("Moving user {} from shard {} to shard {}", userId, sourceShard, targetShard);
+        directory.setMoving(username, true);
+        Map<String, Integer> copied;
+        try {
+            awaitDirectoryCaches();
+            Thread.sleep(drainTime.toMillis());
+            copied = copy(source, target, userId);
+            verify(new JdbcTemplate(source), userId, copied);
+            logger.info("Copied {} rows of user {} to shard {}",
+                    copied.values().stream().mapToInt(Integer::intValue).sum(), userId, targetShard);
+        } catch (InterruptedException | RuntimeException e) {
+            directory.setMoving(username, false);
+            throw e;
+        }
+        directory.reassign(username, targetShard);
+
+        awaitDirectoryCaches();
+        new TransactionTemplate(new DataSourceTransactionManager(source)).executeWithoutResult(status -> {
+            var sourceJdbc = new JdbcTemplate(source);
+            verify(sourceJdbc, userId, copied);
+            delete(sourceJdbc, userId);
+        });
+        logger.info("Moved user {} from shard {} to shard {}", userId, sourceShard, targetShard);
+    }
+
+    // One transaction on the target, so that a failed copy leaves nothing behind there, reading one snapshot of the
+    // source, so that the tables are copied as they were at the same time
+    private static Map<String, Integer> copy(DataSource source, DataSource target, long userId) {
+        var sourceJdbc = new JdbcTemplate(source);
+        sourceJdbc.setFetchSize(BATCH_SIZE);
+        var targetJdbc = new JdbcTemplate(target);
+        var snapshot = new TransactionTemplate(new DataSourceTransactionManager(source));
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        return snapshot.execute(sourceStatus -> new TransactionTemplate(new DataSourceTransactionManager(target))
+                .execute(targetStatus -> {
+                    // Left over from an earlier attempt that failed after committing the copy
+                    delete(targetJdbc, userId);
+                    Map<String, Integer> rows = new LinkedHashMap<>();
+                    for (TableCopy copy : COPIES) {
+                        rows.put(copy.table(), copy.run(sourceJdbc, targetJdbc, userId));
+                    }
+                    return rows;
+                }));
+    }
+
+    // Row counts rather than contents, which catches rows added or deleted since the copy
+    private static void verify(JdbcTemplate source, long userId, Map<String, Integer> copied) {
+        Map<String, Integer> current = new LinkedHashMap<>();
+        for (TableCopy copy : COPIES) {
+            current.put(copy.table(), copy.count(source, userId));
+        }
+        if (!current.equals(copied)) {
+            throw new IllegalStateException("The rows of user " + userId + " changed during the move, copied "
+                    + copied + " but the source now has " + current + ". They are kept on the source");
+        }
+    }
+
+    // Deleting the user cascades to everything but the change log
+    private static void delete(JdbcTemplate jdbcTemplate, long userId) {
+        jdbcTemplate.update("DELETE FROM change_log_entry WHERE owner_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM app_user WHERE id = ?", userId);
+    }
+
+    private void awaitDirectoryCaches() throws InterruptedException {
+        Thread.sleep(directory.getCacheTtl().toMillis());
+    }
+
+    private record TableCopy(String table, String query) {
+
+        int run(JdbcTemplate source, JdbcTemplate target, long userId) {
+            var batch = new Batch(target, table);
+            source.query(query, batch::add, userId);
+            batch.flush();
+            return batch.rows;
+        }
+
+        int count(JdbcTemplate source, long userId) {
+            Integer rows = source.queryForObject(
+                    "SELECT COUNT(*) FROM (" + query + ") user_rows", Integer.class, userId);
+            return rows == null ? 0 : rows;
+        }
+    }
+
+    private static final class Batch {
+
+        private final JdbcTemplate target;
+
+        private final String table;
+
+        private final List<Object[]> pending = new ArrayList<>(BATCH_SIZE);
+
+        private String insert;
+
+        private int rows;
+
+        Batch(JdbcTemplate target, String table) {
+            this.target = target;
+            this.table = table;
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            if (insert == null) {
+                insert = insertStatement(metaData);
+            }
+            Object[] values = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            pending.add(values);
+            if (pending.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            target.batchUpdate(insert, pending);
+            rows += pending.size();
+            pending.clear();
+        }
+
+        private String insertStatement(ResultSetMetaData metaData) throws SQLException {
+            var columns = new StringJoiner(", ");
+            var parameters = new StringJoiner(", ");
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(metaData.getColumnName(i));
+                parameters.add("?");
+            }
+            return "INSERT INTO " + table + " (" + columns + ") VALUES (" + parameters + ")";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.amalstack.api.notebooks.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Looks up the shard of the authenticated user once per request and routes the rest of the request to it. Writes of
+ * a user who is being moved to another shard are refused until the move is done, reads keep going to the old shard.
+ */
+public class ShardResolutionFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final ShardDirectory directory;
+
+    public ShardResolutionFilter(ShardDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        var assignment = authentication == null || !authentication.isAuthenticated()
+                ? null
+                : directory.find(authentication.getName()).orElse(null);
+        if (assignment == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (assignment.moving() && !READ_METHODS.contains(request.getMethod())) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, directory.getCacheTtl().toSeconds())));
+            return;
+        }
+
+        ShardContext.set(assignment.shard());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
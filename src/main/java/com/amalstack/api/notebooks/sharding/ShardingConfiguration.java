@@ -0,0 +1,117 @@
+package com.amalstack.api.notebooks.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads the users and everything they own over several databases. The first shard is spring.datasource, the others
+ * are listed under notebooks.sharding.shards. Not meant to be combined with the read replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "notebooks.sharding.shards[0].url")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    static final String SHARD_ID_PLACEHOLDER = "shard_id";
+
+    private final ShardingProperties properties;
+
+    public ShardingConfiguration(ShardingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource firstShardDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    // The first shard is migrated by Spring Boot's Flyway, through the routing data source
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(@Qualifier("firstShardDataSource") DataSource firstShard) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(firstShard);
+        for (var shard : properties.shards()) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            migrate(dataSource, shards.size());
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return shardRoutingDataSource;
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(@Qualifier("firstShardDataSource") DataSource firstShard,
+                                         ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardDirectory(firstShard,
+                shardRoutingDataSource.getShardCount(),
+                properties.directoryCacheTtl(),
+                properties.directoryCacheSize());
+    }
+
+    @Bean
+    public ShardResolutionFilter shardResolutionFilter(ShardDirectory shardDirectory) {
+        return new ShardResolutionFilter(shardDirectory);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardDirectory shardDirectory,
+                                           ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardRebalancer(shardDirectory, shardRoutingDataSource, properties.moveDrainTime());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notebooks.sharding.move.username")
+    public ShardRebalanceRunner shardRebalanceRunner(ShardRebalancer shardRebalancer,
+                                                     ConfigurableApplicationContext context,
+                                                     @Value("${notebooks.sharding.move.username}") String username,
+                                                     @Value("${notebooks.sharding.move.target-shard}") int targetShard) {
+        return new ShardRebalanceRunner(shardRebalancer, context, username, targetShard);
+    }
+
+    // Streaming responses and other work handed to the application task executor stay on the request's shard
+    @Bean
+    public TaskDecorator shardContextTaskDecorator() {
+        return ShardContext::propagate;
+    }
+
+    // Every shard hands out ids from its own range, see V3__sharding.sql
+    private static void migrate(DataSource shard, int shardId) {
+        Flyway.configure()
+                .dataSource(shard)
+                .baselineOnMigrate(true)
+                .placeholders(Map.of(SHARD_ID_PLACEHOLDER, Integer.toString(shardId)))
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,22 @@
+package com.amalstack.api.notebooks.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The shards after the first one, which is the application's data source. The move drain time is how long a request
+ * that is already writing for a user may still take once the user's writes are refused.
+ */
+@ConfigurationProperties("notebooks.sharding")
+public record ShardingProperties(
+        List<Shard> shards,
+        @DefaultValue("5s") Duration directoryCacheTtl,
+        @DefaultValue("100000") long directoryCacheSize,
+        @DefaultValue("30s") Duration moveDrainTime) {
+
+    public record Shard(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.amalstack.api.notebooks.tree;
+
+import com.amalstack.api.notebooks.autosave.PageAutosaveBuffer;
+import com.amalstack.api.notebooks.bookmarks.BookmarkedPageCache;
+import com.amalstack.api.notebooks.dto.NotebookInfoDto;
+import com.amalstack.api.notebooks.dto.NotebookTreeRow;
+import com.amalstack.api.notebooks.repository.SectionRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes a notebook in the JSON shape of {@link NotebookInfoDto}, reading its sections and pages row by row from a
+ * cursor and writing each one as soon as it is read. Neither the entities nor the DTOs of the tree are kept, so the
+ * memory used does not grow with the size of the notebook.
+ */
+@Component
+public class NotebookTreeWriter {
+
+    private final SectionRepository sectionRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectProvider<PageAutosaveBuffer> autosaveBuffer;
+
+    private final ObjectProvider<BookmarkedPageCache> bookmarkedPages;
+
+    public NotebookTreeWriter(SectionRepository sectionRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              ObjectProvider<PageAutosaveBuffer> autosaveBuffer,
+                              ObjectProvider<BookmarkedPageCache> bookmarkedPages) {
+        this.sectionRepository = sectionRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.autosaveBuffer = autosaveBuffer;
+        this.bookmarkedPages = bookmarkedPages;
+    }
+
+    /**
+     * Writes the notebook with the sections and pages it has now. The sections of the given notebook are ignored.
+     */
+    public void write(NotebookInfoDto notebook, String username, OutputStream out) throws IOException {
+        var bookmarks = bookmarkedPages.getIfAvailable();
+        Set<Long> bookmarkedPageIds = bookmarks == null ? Set.of() : bookmarks.pageIds(username);
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            // The servlet container closes the response stream itself
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeNumberField("id", notebook.id());
+            generator.writeNumberField("userId", notebook.userId());
+            generator.writeStringField("name", notebook.name());
+            generator.writeStringField("description", notebook.description());
+            // Through the mapper, so that the date is formatted as it is everywhere else
+            generator.writeObjectField("creationTime", notebook.creationTime());
+            generator.writeArrayFieldStart("sections");
+            writeSections(generator, notebook.id(), username, bookmarkedPageIds);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    // The rows are only readable while the transaction that opened the cursor is active
+    private void writeSections(JsonGenerator generator, long notebookId, String username, Set<Long> bookmarkedPageIds)
+            throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<NotebookTreeRow> rows = sectionRepository.streamTree(notebookId)) {
+                    writeSections(generator, notebookId, rows.iterator(), username, bookmarkedPageIds);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeSections(JsonGenerator generator,
+                               long notebookId,
+                               Iterator<NotebookTreeRow> rows,
+                               String username,
+                               Set<Long> bookmarkedPageIds) throws IOException {
+        var buffer = autosaveBuffer.getIfAvailable();
+        Long currentSectionId = null;
+        while (rows.hasNext()) {
+            NotebookTreeRow row = rows.next();
+            // The rows are ordered by section, so a new section id means the previous section is complete
+            if (currentSectionId == null || currentSectionId != row.sectionId()) {
+                if (currentSectionId != null) {
+                    endSection(generator);
+                }
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.sectionId());
+                generator.writeNumberField("notebookId", notebookId);
+                generator.writeStringField("name", row.sectionName());
+                generator.writeArrayFieldStart("pages");
+                currentSectionId = row.sectionId();
+            }
+            if (row.pageId() != null) {
+                String content = buffer == null ? row.pageContent() : buffer
+                        .pendingContent(row.pageId(), username)
+                        .orElse(row.pageContent());
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.pageId());
+                generator.writeStringField("title", row.pageTitle());
+                generator.writeStringField("content", content);
+                generator.writeNumberField("sectionId", row.sectionId());
+                generator.writeBooleanField("bookmarked", bookmarkedPageIds.contains(row.pageId()));
+                generator.writeEndObject();
+            }
+        }
+        if (currentSectionId != null) {
+            endSection(generator);
+        }
+    }
+
+    private static void endSection(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
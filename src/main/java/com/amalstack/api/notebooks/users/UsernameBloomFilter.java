@@ -0,0 +1,132 @@
+package com.amalstack.api.notebooks.users;
+
+import com.amalstack.api.notebooks.repository.AppUserRepository;
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a Bloom filter of the existing usernames, so that most lookups of usernames that are still free can be
+ * answered without the database. Until the filter has been built every username is reported as possibly existing.
+ * <p>
+ * Usernames are only ever added, and the filter is rebuilt periodically, sized for the current number of users, to
+ * keep its false positive rate near the configured one as users sign up. In between, the usernames registered through
+ * every instance are added every {@code refresh-interval}. A filter that has not caught up for longer than twice that
+ * reports every username as possibly existing, like one that has not been built.
+ */
+@Component
+public class UsernameBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameBloomFilter.class);
+
+    // Registrations are stamped when their transaction starts, so one committed later can carry an earlier time
+    private static final Duration COMMIT_MARGIN = Duration.ofMinutes(1);
+
+    private final AppUserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long expectedUsernames;
+
+    private final double falsePositiveRate;
+
+    private final Duration maxStaleness;
+
+    private volatile BloomFilter filter;
+
+    // The filter being built, which registrations are added to as well so that none is missed by the swap
+    private volatile BloomFilter building;
+
+    // When the last scan that succeeded started, and where the next one starts from
+    private volatile Instant refreshedAt;
+
+    private Instant registeredSince;
+
+    public UsernameBloomFilter(AppUserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${notebooks.users.bloom-filter.expected-usernames:1000000}") long expectedUsernames,
+                               @Value("${notebooks.users.bloom-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${notebooks.users.bloom-filter.refresh-interval:5s}") Duration refreshInterval) {
+        this.userRepository = userRepository;
+        // Not read-only: a lagging replica could miss users registered just before the scan
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expectedUsernames = expectedUsernames;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStaleness = refreshInterval.multipliedBy(2);
+    }
+
+    public boolean mightExist(String username) {
+        var current = filter;
+        return current == null
+                || refreshedAt.plus(maxStaleness).isBefore(Instant.now())
+                || current.mightContain(username);
+    }
+
+    // Reads the filter being built first: once it is cleared, the swap has already happened
+    public void add(String username) {
+        var next = building;
+        if (next != null) {
+            next.add(username);
+        }
+        var current = filter;
+        if (current != null) {
+            current.add(username);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${notebooks.users.bloom-filter.rebuild-interval:1d}",
+            fixedDelayString = "${notebooks.users.bloom-filter.rebuild-interval:1d}")
+    public synchronized void rebuild() {
+        var startedAt = Instant.now();
+        try {
+            long userCount = ShardContext.sumOverShards(() -> Math.toIntExact(userRepository.count()));
+            var next = BloomFilter.create(Math.max(expectedUsernames, userCount * 2), falsePositiveRate);
+            // Published before the scan starts, so users committed after the scan's snapshot are added by add()
+            building = next;
+            ShardContext.forEachShard(() -> transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                    usernames.forEach(next::add);
+                }
+            }));
+            registeredSince = startedAt.minus(COMMIT_MARGIN);
+            refreshedAt = startedAt;
+            filter = next;
+            logger.info("Built the username Bloom filter from {} users", userCount);
+        } catch (DataAccessException e) {
+            // Lookups keep going to the database until the next attempt succeeds
+            logger.error("Failed to build the username Bloom filter", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${notebooks.users.bloom-filter.refresh-interval:5s}",
+            fixedDelayString = "${notebooks.users.bloom-filter.refresh-interval:5s}")
+    public synchronized void refresh() {
+        if (filter == null) {
+            return;
+        }
+        var startedAt = Instant.now();
+        try {
+            ShardContext.forEachShard(() -> transactionTemplate.executeWithoutResult(status ->
+                    userRepository.findUsernamesRegisteredSince(registeredSince).forEach(this::add)));
+            registeredSince = startedAt.minus(COMMIT_MARGIN);
+            refreshedAt = startedAt;
+        } catch (DataAccessException e) {
+            logger.warn("Failed to add the latest usernames to the Bloom filter", e);
+        }
+    }
+}
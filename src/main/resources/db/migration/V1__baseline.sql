@@ -0,0 +1,89 @@
+-- The schema as Hibernate generated it before migrations took over, so that existing databases can be baselined at
+-- this version (spring.flyway.baseline-on-migrate) and new ones end up identical.
+
+CREATE SEQUENCE app_user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE notebook_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE section_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE page_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE page_bookmark_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE change_log_entry_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE app_user
+(
+    id       BIGINT       NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    name     VARCHAR(255) NOT NULL,
+    CONSTRAINT app_user_pkey PRIMARY KEY (id),
+    CONSTRAINT app_user_username_key UNIQUE (username)
+);
+
+CREATE TABLE notebook
+(
+    id            BIGINT       NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    description   VARCHAR(255),
+    creation_time TIMESTAMP(6),
+    app_user_id   BIGINT,
+    section_count INTEGER      NOT NULL,
+    page_count    INTEGER      NOT NULL,
+    deleted_at    TIMESTAMP(6),
+    CONSTRAINT notebook_pkey PRIMARY KEY (id),
+    CONSTRAINT notebook_app_user_id_fkey FOREIGN KEY (app_user_id) REFERENCES app_user (id) ON DELETE CASCADE
+);
+
+CREATE INDEX notebook_deleted_at_idx ON notebook (deleted_at);
+
+CREATE TABLE section
+(
+    id          BIGINT       NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    notebook_id BIGINT,
+    page_count  INTEGER      NOT NULL,
+    position    VARCHAR(255) NOT NULL,
+    CONSTRAINT section_pkey PRIMARY KEY (id),
+    CONSTRAINT section_notebook_id_fkey FOREIGN KEY (notebook_id) REFERENCES notebook (id) ON DELETE CASCADE
+);
+
+CREATE INDEX section_notebook_id_position_idx ON section (notebook_id, position);
+
+CREATE TABLE page
+(
+    id         BIGINT       NOT NULL,
+    title      VARCHAR(255),
+    content    VARCHAR(255),
+    section_id BIGINT,
+    position   VARCHAR(255) NOT NULL,
+    CONSTRAINT page_pkey PRIMARY KEY (id),
+    CONSTRAINT page_section_id_fkey FOREIGN KEY (section_id) REFERENCES section (id) ON DELETE CASCADE
+);
+
+CREATE INDEX page_section_id_position_idx ON page (section_id, position);
+
+CREATE TABLE page_bookmark
+(
+    id      BIGINT NOT NULL,
+    page_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT page_bookmark_pkey PRIMARY KEY (id),
+    CONSTRAINT page_bookmark_user_id_page_id_key UNIQUE (user_id, page_id),
+    CONSTRAINT page_bookmark_page_id_fkey FOREIGN KEY (page_id) REFERENCES page (id) ON DELETE CASCADE,
+    CONSTRAINT page_bookmark_user_id_fkey FOREIGN KEY (user_id) REFERENCES app_user (id) ON DELETE CASCADE
+);
+
+CREATE TABLE change_log_entry
+(
+    id          BIGINT                      NOT NULL,
+    owner_id    BIGINT                      NOT NULL,
+    notebook_id BIGINT                      NOT NULL,
+    entity_type VARCHAR(16)                 NOT NULL,
+    entity_id   BIGINT                      NOT NULL,
+    operation   VARCHAR(16)                 NOT NULL,
+    recorded_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT change_log_entry_pkey PRIMARY KEY (id),
+    CONSTRAINT change_log_entry_entity_type_check CHECK (entity_type IN ('NOTEBOOK', 'SECTION', 'PAGE')),
+    CONSTRAINT change_log_entry_operation_check CHECK (operation IN ('CREATED', 'UPDATED', 'DELETED'))
+);
+
+CREATE INDEX change_log_entry_owner_id_idx ON change_log_entry (owner_id, id);
+CREATE INDEX change_log_entry_recorded_at_idx ON change_log_entry (recorded_at);
@@ -0,0 +1,12 @@
+-- Notebooks are listed by owner, and deleting a user cascades to them through the same column
+CREATE INDEX notebook_app_user_id_idx ON notebook (app_user_id);
+
+-- Only the purge job looks notebooks up by deletion time, and it only ever asks for deleted ones
+DROP INDEX notebook_deleted_at_idx;
+CREATE INDEX notebook_deleted_at_idx ON notebook (deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- The unique constraint leads with user_id, deleting or purging pages needs to find their bookmarks by page_id
+CREATE INDEX page_bookmark_page_id_idx ON page_bookmark (page_id);
+
+-- Covers the lookup of the latest entry of each entity when changes are synced, without visiting the table
+CREATE INDEX change_log_entry_entity_idx ON change_log_entry (owner_id, entity_type, entity_id, id) INCLUDE (recorded_at);
@@ -0,0 +1,16 @@
+-- The shard each user's rows live on (see ShardDirectory). Only read on the first shard, which is the only one when
+-- the data is not sharded.
+CREATE TABLE user_shard
+(
+    username VARCHAR(255) NOT NULL,
+    shard    INTEGER      NOT NULL,
+    moving   BOOLEAN      NOT NULL DEFAULT FALSE,
+    CONSTRAINT user_shard_pkey PRIMARY KEY (username)
+);
+
+-- Every shard hands out ids from its own range, so that rows keep their ids when their owner is moved to another
+-- shard. The first shard keeps the range starting at 1.
+SELECT setval(sequence_name::regclass, ${shard_id} * 1000000000000000)
+FROM (VALUES ('app_user_seq'), ('notebook_seq'), ('section_seq'), ('page_seq'), ('page_bookmark_seq'),
+             ('change_log_entry_seq')) AS sequences (sequence_name)
+WHERE ${shard_id} > 0;
@@ -0,0 +1,191 @@
+-- Splits section and page into 16 hash partitions of their notebook, so that vacuum and index maintenance work on
+-- partitions a sixteenth of the size and every query scoped to a notebook reads one partition of each table. Pages
+-- now carry the id of their notebook, and the keys of both tables include it as partitioned tables require.
+--
+-- Needs PostgreSQL 15 or later: moving a section to another notebook moves its row, and with it the rows of its pages
+-- through the cascading foreign key, to other partitions, which older versions treat as a delete of the referenced row.
+--
+-- The existing rows are copied into the new tables within this migration's transaction, which holds both tables
+-- locked until it commits, so schedule it for a maintenance window on a large database. Sections without a notebook
+-- and pages without a section could not be reached through the API and are not copied.
+
+CREATE TABLE section_partitioned
+(
+    id          BIGINT       NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    notebook_id BIGINT       NOT NULL,
+    page_count  INTEGER      NOT NULL,
+    position    VARCHAR(255) NOT NULL
+) PARTITION BY HASH (notebook_id);
+
+CREATE TABLE page_partitioned
+(
+    id          BIGINT       NOT NULL,
+    title       VARCHAR(255),
+    content     VARCHAR(255),
+    notebook_id BIGINT       NOT NULL,
+    section_id  BIGINT       NOT NULL,
+    position    VARCHAR(255) NOT NULL
+) PARTITION BY HASH (notebook_id);
+
+-- The same modulus for both tables, so the pages of a section are in the partition with the same number as it
+DO
+$$
+    BEGIN
+        FOR remainder IN 0..15
+            LOOP
+                EXECUTE format('CREATE TABLE section_p%s PARTITION OF section_partitioned '
+                                   || 'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', remainder, remainder);
+                EXECUTE format('CREATE TABLE page_p%s PARTITION OF page_partitioned '
+                                   || 'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', remainder, remainder);
+            END LOOP;
+    END
+$$;
+
+INSERT INTO section_partitioned (id, name, notebook_id, page_count, position)
+SELECT s.id, s.name, s.notebook_id, s.page_count, s.position
+FROM section s
+WHERE s.notebook_id IS NOT NULL;
+
+INSERT INTO page_partitioned (id, title, content, notebook_id, section_id, position)
+SELECT p.id, p.title, p.content, s.notebook_id, p.section_id, p.position
+FROM page p
+JOIN section s ON s.id = p.section_id
+WHERE s.notebook_id IS NOT NULL;
+
+-- The notebook of every section and page by id alone. A lookup by id reads its notebook here first, which lets the
+-- query on the partitioned table prune to the one partition holding the row.
+CREATE TABLE section_location
+(
+    id          BIGINT NOT NULL,
+    notebook_id BIGINT NOT NULL,
+    CONSTRAINT section_location_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE page_location
+(
+    id          BIGINT NOT NULL,
+    notebook_id BIGINT NOT NULL,
+    CONSTRAINT page_location_pkey PRIMARY KEY (id)
+);
+
+INSERT INTO section_location (id, notebook_id)
+SELECT id, notebook_id
+FROM section_partitioned;
+
+INSERT INTO page_location (id, notebook_id)
+SELECT id, notebook_id
+FROM page_partitioned;
+
+-- Bookmarks reference pages by id alone, which a unique key of the partitioned page table cannot provide
+ALTER TABLE page_bookmark DROP CONSTRAINT page_bookmark_page_id_fkey;
+DELETE
+FROM page_bookmark b
+WHERE NOT EXISTS (SELECT 1 FROM page_location l WHERE l.id = b.page_id);
+ALTER TABLE page_bookmark
+    ADD CONSTRAINT page_bookmark_page_id_fkey FOREIGN KEY (page_id) REFERENCES page_location (id) ON DELETE CASCADE;
+
+DROP TABLE page;
+DROP TABLE section;
+ALTER TABLE section_partitioned RENAME TO section;
+ALTER TABLE page_partitioned RENAME TO page;
+
+ALTER TABLE section
+    ADD CONSTRAINT section_pkey PRIMARY KEY (id, notebook_id);
+ALTER TABLE section
+    ADD CONSTRAINT section_notebook_id_fkey FOREIGN KEY (notebook_id) REFERENCES notebook (id) ON DELETE CASCADE;
+CREATE INDEX section_notebook_id_position_idx ON section (notebook_id, position);
+
+-- Updates cascade, so that the pages of a section moved to another notebook follow it into its partition
+ALTER TABLE page
+    ADD CONSTRAINT page_pkey PRIMARY KEY (id, notebook_id);
+ALTER TABLE page
+    ADD CONSTRAINT page_section_id_fkey FOREIGN KEY (section_id, notebook_id) REFERENCES section (id, notebook_id)
+        ON DELETE CASCADE ON UPDATE CASCADE;
+CREATE INDEX page_notebook_id_section_id_position_idx ON page (notebook_id, section_id, position);
+
+-- The locations are recorded before a row is written, and forgotten after it is deleted unless it moved: a row moved to
+-- another partition is deleted there and inserted again, and its new notebook has been recorded by then.
+CREATE FUNCTION record_section_location() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE section_location SET notebook_id = NEW.notebook_id WHERE id = NEW.id;
+        RETURN NEW;
+    END IF;
+    INSERT INTO section_location (id, notebook_id) VALUES (NEW.id, NEW.notebook_id) ON CONFLICT (id) DO NOTHING;
+    IF NOT FOUND AND NOT EXISTS (SELECT 1 FROM section_location WHERE id = NEW.id AND notebook_id = NEW.notebook_id) THEN
+        RAISE unique_violation USING MESSAGE = format('The section %s already exists in another notebook', NEW.id);
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE FUNCTION forget_section_location() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    DELETE FROM section_location WHERE id = OLD.id AND notebook_id = OLD.notebook_id;
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION record_page_location() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE page_location SET notebook_id = NEW.notebook_id WHERE id = NEW.id;
+        RETURN NEW;
+    END IF;
+    INSERT INTO page_location (id, notebook_id) VALUES (NEW.id, NEW.notebook_id) ON CONFLICT (id) DO NOTHING;
+    IF NOT FOUND AND NOT EXISTS (SELECT 1 FROM page_location WHERE id = NEW.id AND notebook_id = NEW.notebook_id) THEN
+        RAISE unique_violation USING MESSAGE = format('The page %s already exists in another notebook', NEW.id);
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE FUNCTION forget_page_location() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    DELETE FROM page_location WHERE id = OLD.id AND notebook_id = OLD.notebook_id;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER section_location_insert
+    BEFORE INSERT
+    ON section
+    FOR EACH ROW
+EXECUTE FUNCTION record_section_location();
+CREATE TRIGGER section_location_update
+    BEFORE UPDATE OF notebook_id
+    ON section
+    FOR EACH ROW
+    WHEN (OLD.notebook_id IS DISTINCT FROM NEW.notebook_id)
+EXECUTE FUNCTION record_section_location();
+CREATE TRIGGER section_location_delete
+    AFTER DELETE
+    ON section
+    FOR EACH ROW
+EXECUTE FUNCTION forget_section_location();
+
+CREATE TRIGGER page_location_insert
+    BEFORE INSERT
+    ON page
+    FOR EACH ROW
+EXECUTE FUNCTION record_page_location();
+CREATE TRIGGER page_location_update
+    BEFORE UPDATE OF notebook_id
+    ON page
+    FOR EACH ROW
+    WHEN (OLD.notebook_id IS DISTINCT FROM NEW.notebook_id)
+EXECUTE FUNCTION record_page_location();
+CREATE TRIGGER page_location_delete
+    AFTER DELETE
+    ON page
+    FOR EACH ROW
+EXECUTE FUNCTION forget_page_location();
@@ -0,0 +1,3 @@
+-- Contents up to the blob store's threshold stay in the row (see PageContentConverter), which a VARCHAR(255) could not
+-- hold. Changing to TEXT does not rewrite the rows.
+ALTER TABLE page ALTER COLUMN content TYPE TEXT;
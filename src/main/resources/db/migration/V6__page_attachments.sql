@@ -0,0 +1,21 @@
+CREATE SEQUENCE page_attachment_seq START WITH 1 INCREMENT BY 50;
+
+-- The files are kept by AttachmentStore under the id of their row. Attachments refer to pages by id alone, like
+-- bookmarks do, through page_location.
+CREATE TABLE page_attachment
+(
+    id           BIGINT       NOT NULL,
+    page_id      BIGINT       NOT NULL,
+    file_name    VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size         BIGINT       NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT page_attachment_pkey PRIMARY KEY (id),
+    CONSTRAINT page_attachment_page_id_fkey FOREIGN KEY (page_id) REFERENCES page_location (id) ON DELETE CASCADE
+);
+
+CREATE INDEX page_attachment_page_id_idx ON page_attachment (page_id, id);
+
+-- Offset on every shard but the first like the other sequences in V3, the ids also name the files
+SELECT setval('page_attachment_seq', ${shard_id} * 1000000000000000)
+WHERE ${shard_id} > 0;
@@ -0,0 +1,4 @@
+-- Counts the writes of a page that supersede its autosaved content. PageAutosaveBuffer only writes content buffered
+-- at the current count, so a flush that was already under way when a page was updated in full cannot overwrite it.
+-- A constant default does not rewrite the rows.
+ALTER TABLE page ADD COLUMN content_version BIGINT NOT NULL DEFAULT 0;
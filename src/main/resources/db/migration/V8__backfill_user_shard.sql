@@ -0,0 +1,7 @@
+-- Users registered before V3 were never recorded in the directory. All rows lived on the first shard until then, which
+-- is where they are recorded. Without an entry they could not sign in, and their usernames counted as free.
+INSERT INTO user_shard (username, shard)
+SELECT u.username, ${shard_id}
+FROM app_user u
+WHERE ${shard_id} = 0
+  AND NOT EXISTS (SELECT 1 FROM user_shard s WHERE s.username = u.username);
@@ -0,0 +1,4 @@
+-- Lets every instance add the usernames registered through the others to its Bloom filter, see UsernameBloomFilter
+ALTER TABLE app_user ADD COLUMN registered_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+CREATE INDEX app_user_registered_at_idx ON app_user (registered_at);
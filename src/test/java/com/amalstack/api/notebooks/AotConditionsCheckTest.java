@@ -0,0 +1,42 @@
+package com.amalstack.api.notebooks;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class AotConditionsCheckTest {
+
+    @Test
+    void check_whenStartedWithBuildProperties_thenPasses() {
+        var build = new MockEnvironment()
+                .withProperty("notebooks.autosave.enabled", "true")
+                .withProperty("notebooks.sharding.shards[0].url", "jdbc:postgresql://build/notebooks");
+        var runtime = new MockEnvironment()
+                .withProperty("notebooks.autosave.enabled", "true")
+                .withProperty("notebooks.sharding.shards[0].url", "jdbc:postgresql://production/notebooks");
+
+        assertThatCode(() -> AotConditionsCheck.check(AotConditionsCheck.record(build), runtime))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_whenFeatureSwitchedOnOnlyAtRuntime_thenFails() {
+        var runtime = new MockEnvironment().withProperty("notebooks.attachments.enabled", "true");
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> AotConditionsCheck.check(AotConditionsCheck.record(new MockEnvironment()), runtime))
+                .withMessageContaining("notebooks.attachments.enabled");
+    }
+
+    @Test
+    void check_whenShardsConfiguredOnlyAtRuntime_thenFails() {
+        var runtime = new MockEnvironment()
+                .withProperty("notebooks.sharding.shards[0].url", "jdbc:postgresql://production/notebooks");
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> AotConditionsCheck.check(AotConditionsCheck.record(new MockEnvironment()), runtime))
+                .withMessageContaining("notebooks.sharding.shards[0].url");
+    }
+}
@@ -1,9 +1,15 @@
 package com.amalstack.api.notebooks;
 
+import com.amalstack.api.notebooks.purge.NotebookPurgeJob;
+import com.amalstack.api.notebooks.security.PasswordHasher;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class NotebooksApiApplicationTests {
@@ -12,4 +18,13 @@ class NotebooksApiApplicationTests {
     void contextLoads() {
     }
 
+    @Test
+    void eagerInitializationFilter_thenExcludesScheduledJobsAndHibernateFromLazyInitialization() {
+        LazyInitializationExcludeFilter filter = NotebooksApiApplication.eagerInitializationFilter();
+
+        assertThat(filter.isExcluded("notebookPurgeJob", null, NotebookPurgeJob.class)).isTrue();
+        assertThat(filter.isExcluded("entityManagerFactory", null, EntityManagerFactory.class)).isTrue();
+        assertThat(filter.isExcluded("passwordHasher", null, PasswordHasher.class)).isFalse();
+    }
+
 }
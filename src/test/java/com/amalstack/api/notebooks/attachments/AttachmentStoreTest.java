@@ -0,0 +1,121 @@
+package com.amalstack.api.notebooks.attachments;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class AttachmentStoreTest {
+
+    private static final byte[] CONTENT = "Attachment Contents".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path directory;
+
+    private AttachmentStore store;
+
+    @BeforeEach
+    void initEach() throws IOException {
+        store = new AttachmentStore(directory);
+    }
+
+    @Test
+    void save_thenStoresFileUnderId() throws IOException {
+        store.save(258, new MockMultipartFile("file", CONTENT));
+
+        assertThat(store.exists(258)).isTrue();
+        assertThat(store.pathOf(258)).isEqualTo(directory.toAbsolutePath().resolve("02").resolve("258"));
+        assertThat(Files.readAllBytes(store.pathOf(258))).isEqualTo(CONTENT);
+        assertThat(files()).hasSize(1);
+    }
+
+    @Test
+    void transferTo_thenCopiesRequestedRange() throws IOException {
+        store.save(1, new MockMultipartFile("file", CONTENT));
+        var output = new ByteArrayOutputStream();
+
+        store.transferTo(1, 11, 8, Channels.newChannel(output));
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("Contents");
+    }
+
+    @Test
+    void transferTo_whenRangeExceedsFile_thenThrows() throws IOException {
+        store.save(1, new MockMultipartFile("file", CONTENT));
+
+        assertThatExceptionOfType(EOFException.class)
+                .isThrownBy(() -> store.transferTo(1, 0, CONTENT.length + 1,
+                        Channels.newChannel(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    void deleteAfterCommit_whenFileCannotBeDeleted_thenDoesNotThrow() throws IOException {
+        // A non-empty directory in place of the file makes the delete fail
+        Files.createDirectories(store.pathOf(1).resolve("child"));
+
+        assertThatNoException().isThrownBy(() -> store.deleteAfterCommit(1));
+        assertThat(Files.exists(store.pathOf(1))).isTrue();
+    }
+
+    @Test
+    void sweep_whenRowIsMissingAndFileIsOlderThanCutoff_thenDeletesIt() throws IOException {
+        store.save(1, new MockMultipartFile("file", CONTENT));
+        store.save(2, new MockMultipartFile("file", CONTENT));
+        age(store.pathOf(1));
+        age(store.pathOf(2));
+
+        int deleted = store.sweep(id -> id == 2, Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(store.exists(1)).isFalse();
+        assertThat(store.exists(2)).isTrue();
+    }
+
+    @Test
+    void sweep_whenFileIsNewerThanCutoff_thenKeepsIt() throws IOException {
+        store.save(1, new MockMultipartFile("file", CONTENT));
+
+        int deleted = store.sweep(id -> false, Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(deleted).isZero();
+        assertThat(store.exists(1)).isTrue();
+    }
+
+    @Test
+    void sweep_thenDeletesOldTemporaryFiles() throws IOException {
+        Path temporary = Files.createDirectories(directory.resolve("01")).resolve("1-upload.tmp");
+        Files.write(temporary, CONTENT);
+        age(temporary);
+
+        store.sweep(id -> true, Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(files()).isEmpty();
+    }
+
+    private static void age(Path path) throws IOException {
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.amalstack.api.notebooks.autosave;
+
+import com.amalstack.api.notebooks.sharding.ShardContext;
+import com.amalstack.api.notebooks.sharding.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PageAutosaveBufferTest {
+
+    private static final String USERNAME = "test1@example.com";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PageAutosaveBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initEach() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        buffer = new PageAutosaveBuffer(jdbcTemplate, Mockito.mock(ObjectProvider.class),
+                Mockito.mock(ObjectProvider.class), Duration.ofHours(1), Duration.ofHours(1), 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAll_whenPageIsSavedRepeatedly_thenWritesLatestContentOnce() {
+        buffer.buffer(1, USERNAME, "first", 0);
+        buffer.bufferIfPending(1, USERNAME, "second");
+        buffer.buffer(2, USERNAME, "other", 3);
+
+        buffer.flushAll();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(PageAutosaveBuffer.UPDATE_CONTENT), batch.capture());
+        assertThat(batch.getValue())
+                .containsExactlyInAnyOrder(new Object[]{"second", 1L, 1L, 0L}, new Object[]{"other", 2L, 2L, 3L});
+    }
+
+    @Test
+    void flushDue_whenPagesAreNotIdle_thenDoesNotWrite() {
+        buffer.buffer(1, USERNAME, "content", 0);
+
+        buffer.flushDue();
+
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(buffer.pendingContent(1, USERNAME)).contains("content");
+    }
+
+    @Test
+    void pendingContent_whenRequestedByAnotherUser_thenIsEmpty() {
+        buffer.buffer(1, USERNAME, "content", 0);
+
+        assertThat(buffer.pendingContent(1, "test2@example.com")).isEmpty();
+        assertThat(buffer.bufferIfPending(1, "test2@example.com", "other")).isFalse();
+        assertThat(buffer.pendingContent(1, USERNAME)).contains("content");
+    }
+
+    @Test
+    void flushAll_whenWriteFails_thenKeepsContentBuffered() {
+        when(jdbcTemplate.batchUpdate(eq(PageAutosaveBuffer.UPDATE_CONTENT), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Database is down"));
+        buffer.buffer(1, USERNAME, "content", 0);
+
+        buffer.flushAll();
+
+        assertThat(buffer.pendingContent(1, USERNAME)).contains("content");
+    }
+
+    @Test
+    void flushAll_whenWriteSucceeds_thenClearsBuffer() {
+        buffer.buffer(1, USERNAME, "content", 0);
+
+        buffer.flushAll();
+
+        assertThat(buffer.pendingContent(1, USERNAME)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAll_whenUserIsBeingMoved_thenHoldsContentUntilMoved() {
+        var directory = Mockito.mock(ShardDirectory.class);
+        ObjectProvider<ShardDirectory> directoryProvider = Mockito.mock(ObjectProvider.class);
+        when(directoryProvider.getIfAvailable()).thenReturn(directory);
+        buffer = new PageAutosaveBuffer(jdbcTemplate, Mockito.mock(ObjectProvider.class), directoryProvider,
+                Duration.ofHours(1), Duration.ofHours(1), 100);
+        var shards = new ArrayList<Integer>();
+        when(jdbcTemplate.batchUpdate(eq(PageAutosaveBuffer.UPDATE_CONTENT), anyList())).thenAnswer(invocation -> {
+            shards.add(ShardContext.current());
+            return new int[]{1};
+        });
+        buffer.buffer(1, USERNAME, "content", 0);
+
+        when(directory.find(USERNAME)).thenReturn(Optional.of(new ShardDirectory.Assignment(0, true)));
+        buffer.flushAll();
+
+        assertThat(shards).isEmpty();
+        assertThat(buffer.pendingContent(1, USERNAME)).contains("content");
+
+        when(directory.find(USERNAME)).thenReturn(Optional.of(new ShardDirectory.Assignment(1, false)));
+        buffer.flushAll();
+
+        assertThat(shards).containsExactly(1);
+        assertThat(buffer.pendingContent(1, USERNAME)).isEmpty();
+    }
+
+    @Test
+    void bufferIfPending_whenNothingIsBuffered_thenBuffersNothing() {
+        assertThat(buffer.bufferIfPending(1, USERNAME, "content")).isFalse();
+        assertThat(buffer.pendingContent(1, USERNAME)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAll_whenPageIsDiscardedDuringFlush_thenWritesOnlyAtBufferedVersionAndForgetsContent() {
+        buffer.buffer(1, USERNAME, "autosaved", 4);
+        // A full update discarding the page while its content is being written
+        when(jdbcTemplate.batchUpdate(eq(PageAutosaveBuffer.UPDATE_CONTENT), anyList())).thenAnswer(invocation -> {
+            buffer.discard(1);
+            return new int[]{0};
+        });
+
+        buffer.flushAll();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(PageAutosaveBuffer.UPDATE_CONTENT), batch.capture());
+        // The update has moved the page past version 4, so the statement matches no row once it gets the row lock
+        assertThat(PageAutosaveBuffer.UPDATE_CONTENT).contains("AND content_version = ?");
+        assertThat(batch.getValue()).containsExactly(new Object[]{"autosaved", 1L, 1L, 4L});
+        assertThat(buffer.pendingContent(1, USERNAME)).isEmpty();
+
+        buffer.flushAll();
+
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,75 @@
+package com.amalstack.api.notebooks.blobs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatException;
+
+class BlobGarbageCollectorTest {
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BlobStore store;
+
+    private BlobGarbageCollector collector;
+
+    @BeforeEach
+    void initEach() throws IOException {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE page (id BIGINT PRIMARY KEY, content VARCHAR(1000))");
+        store = new BlobStore(directory, DataSize.ofBytes(8));
+        collector = new BlobGarbageCollector(store, jdbcTemplate, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void destroyEach() {
+        database.shutdown();
+    }
+
+    @Test
+    void sweep_thenDeletesOnlyBlobsNoPageRefersTo() throws IOException {
+        String referenced = put("Referenced Contents");
+        String unreferenced = put("Unreferenced Contents");
+        jdbcTemplate.update("INSERT INTO page (id, content) VALUES (1, ?), (2, 'blob: notes')",
+                new BlobReference(referenced, 19).format());
+
+        int deleted = collector.sweep();
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(store.read(referenced, 19)).isEqualTo("Referenced Contents");
+        assertThatException().isThrownBy(() -> store.read(unreferenced, 21));
+    }
+
+    // Stored a day ago, long enough for the sweep to consider it
+    private String put(String content) throws IOException {
+        String hash = store.put(content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(directory.resolve(hash.substring(0, 2)).resolve(hash),
+                FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        return hash;
+    }
+}
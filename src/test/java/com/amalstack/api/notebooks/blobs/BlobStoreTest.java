@@ -0,0 +1,97 @@
+package com.amalstack.api.notebooks.blobs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlobStoreTest {
+
+    private static final byte[] CONTENT = "Page Contents Ü".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path directory;
+
+    private BlobStore store;
+
+    @BeforeEach
+    void initEach() throws IOException {
+        store = new BlobStore(directory, DataSize.ofBytes(8));
+    }
+
+    @Test
+    void put_thenStoresContentUnderItsSha256() {
+        String hash = store.put(CONTENT);
+
+        assertThat(hash).isEqualTo("1658a1faef6045c45817e1a858b5f52516864cfa0ef0242a23ded66f20f1ab35");
+        assertThat(store.read(hash, CONTENT.length)).isEqualTo("Page Contents Ü");
+    }
+
+    @Test
+    void put_whenContentIsStoredTwice_thenKeepsOneFile() throws IOException {
+        String first = store.put(CONTENT);
+        String second = store.put(CONTENT.clone());
+
+        assertThat(second).isEqualTo(first);
+        assertThat(files()).hasSize(1);
+    }
+
+    @Test
+    void sweep_whenBlobIsUnreferencedAndOlderThanCutoff_thenDeletesIt() throws IOException {
+        String hash = store.put(CONTENT);
+        age(hash);
+
+        int deleted = store.sweep(referenced -> false, Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void sweep_whenBlobIsReferencedOrNewerThanCutoff_thenKeepsIt() throws IOException {
+        String referenced = store.put(CONTENT);
+        age(referenced);
+        String recent = store.put("Other Contents".getBytes(StandardCharsets.UTF_8));
+
+        int deleted = store.sweep(referenced::equals, Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(deleted).isZero();
+        assertThat(files()).hasSize(2);
+        assertThat(store.read(recent, "Other Contents".length())).isEqualTo("Other Contents");
+    }
+
+    @Test
+    void sweep_whenBlobIsReferencedAgain_thenKeepsIt() throws IOException {
+        String hash = store.put(CONTENT);
+        age(hash);
+        store.put(CONTENT);
+
+        int deleted = store.sweep(referenced -> false, Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(deleted).isZero();
+        assertThat(store.read(hash, CONTENT.length)).isEqualTo("Page Contents Ü");
+    }
+
+    private void age(String hash) throws IOException {
+        Path path = directory.resolve(hash.substring(0, 2)).resolve(hash);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.amalstack.api.notebooks.blobs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.when;
+
+class PageContentConverterTest {
+
+    private static final String LARGE_CONTENT = "Page Contents ".repeat(10);
+
+    @TempDir
+    private Path directory;
+
+    private ObjectProvider<BlobStore> blobStore;
+
+    private PageContentConverter converter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initEach() throws IOException {
+        blobStore = Mockito.mock(ObjectProvider.class);
+        when(blobStore.getIfAvailable()).thenReturn(new BlobStore(directory, DataSize.ofBytes(64)));
+        converter = new PageContentConverter(blobStore);
+    }
+
+    @Test
+    void convertToDatabaseColumn_whenContentIsBelowThreshold_thenKeepsItInTheRow() {
+        assertThat(converter.convertToDatabaseColumn("Page Contents")).isEqualTo("Page Contents");
+    }
+
+    @Test
+    void convertToDatabaseColumn_whenContentIsAboveThreshold_thenKeepsOnlyHashAndLength() {
+        String column = converter.convertToDatabaseColumn(LARGE_CONTENT);
+
+        assertThat(column).matches("blob:sha256:[0-9a-f]{64}:" + LARGE_CONTENT.length());
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(LARGE_CONTENT);
+    }
+
+    @Test
+    void convertToDatabaseColumn_whenContentsAreEqual_thenShareTheBlob() {
+        assertThat(converter.convertToDatabaseColumn(LARGE_CONTENT))
+                .isEqualTo(converter.convertToDatabaseColumn(new String(LARGE_CONTENT)));
+    }
+
+    @Test
+    void convertToDatabaseColumn_whenContentLooksLikeReference_thenIsReadBackUnchanged() {
+        String content = converter.convertToDatabaseColumn(LARGE_CONTENT);
+
+        String column = converter.convertToDatabaseColumn(content);
+
+        assertThat(column).isNotEqualTo(content);
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(content);
+    }
+
+    @Test
+    void convertToEntityAttribute_whenRowPredatesBlobStore_thenReturnsItUnchanged() {
+        assertThat(converter.convertToEntityAttribute("blob: notes")).isEqualTo("blob: notes");
+    }
+
+    @Test
+    void convertToEntityAttribute_whenBlobStoreIsNotEnabled_thenThrows() {
+        String column = converter.convertToDatabaseColumn(LARGE_CONTENT);
+        when(blobStore.getIfAvailable()).thenReturn(null);
+
+        assertThatIllegalStateException().isThrownBy(() -> converter.convertToEntityAttribute(column));
+    }
+}
@@ -0,0 +1,58 @@
+package com.amalstack.api.notebooks.bookmarks;
+
+import com.amalstack.api.notebooks.repository.PageBookmarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BookmarkedPageCacheTest {
+
+    private static final String USERNAME = "test1@example.com";
+
+    private PageBookmarkRepository bookmarkRepository;
+
+    private BookmarkedPageCache cache;
+
+    @BeforeEach
+    void initEach() {
+        bookmarkRepository = Mockito.mock(PageBookmarkRepository.class);
+        cache = new BookmarkedPageCache(bookmarkRepository, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    void pageIds_whenRequestedRepeatedly_thenQueriesOnce() {
+        when(bookmarkRepository.findPageIdsByUsername(USERNAME)).thenReturn(Set.of(1L, 2L));
+
+        assertThat(cache.pageIds(USERNAME)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(cache.pageIds(USERNAME)).containsExactlyInAnyOrder(1L, 2L);
+
+        verify(bookmarkRepository, times(1)).findPageIdsByUsername(USERNAME);
+    }
+
+    @Test
+    void pageIds_whenInvalidated_thenQueriesAgain() {
+        when(bookmarkRepository.findPageIdsByUsername(USERNAME)).thenReturn(Set.of(1L), Set.of(1L, 3L));
+        cache.pageIds(USERNAME);
+
+        cache.invalidate(USERNAME);
+
+        assertThat(cache.pageIds(USERNAME)).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void invalidate_whenOtherUserIsInvalidated_thenKeepsEntry() {
+        when(bookmarkRepository.findPageIdsByUsername(USERNAME)).thenReturn(Set.of(1L));
+        cache.pageIds(USERNAME);
+
+        cache.invalidate("test2@example.com");
+        cache.pageIds(USERNAME);
+
+        verify(bookmarkRepository, times(1)).findPageIdsByUsername(USERNAME);
+    }
+}
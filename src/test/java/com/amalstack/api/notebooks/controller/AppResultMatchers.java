@@ -4,16 +4,20 @@ import com.amalstack.api.notebooks.exception.NotebookNotFoundByIdException;
 import com.amalstack.api.notebooks.exception.PageNotFoundByIdException;
 import com.amalstack.api.notebooks.exception.ResourceNotOwnedException;
 import com.amalstack.api.notebooks.exception.SectionNotFoundByIdException;
+import com.amalstack.api.notebooks.monitoring.SqlStatementCountingFilter;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultMatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class AppResultMatchers {
     public static ResultMatcher resourceIsNotOwned(Long resourceId, String resourceName) {
         return result -> {
             status().isUnauthorized().match(result);
-            status().reason("Current user does not have the ownership of the resource").match(result);
+            errorMessage("Current user does not own the %s with id %d", resourceName, resourceId).match(result);
             assertThat(result.getResolvedException())
                     .isInstanceOf(ResourceNotOwnedException.class)
                     .hasMessage("Current user does not own the %s with id %d",
@@ -24,7 +28,7 @@ public class AppResultMatchers {
     public static ResultMatcher notebookIsNotFoundById(Long notebookId) {
         return result -> {
             status().isNotFound().match(result);
-            status().reason("Notebook not found").match(result);
+            errorMessage("The notebook with id %d was not found", notebookId).match(result);
             assertThat(result.getResolvedException())
                     .isInstanceOf(NotebookNotFoundByIdException.class)
                     .hasMessage("The notebook with id %d was not found",
@@ -37,9 +41,7 @@ public class AppResultMatchers {
             status()
                     .isNotFound()
                     .match(result);
-            status()
-                    .reason("Section not found")
-                    .match(result);
+            errorMessage("The section with id %d was not found", sectionId).match(result);
 
             AppResultMatchers.resolvedException()
                     .isInstanceOf(SectionNotFoundByIdException.class)
@@ -54,9 +56,7 @@ public class AppResultMatchers {
             status()
                     .isNotFound()
                     .match(result);
-            status()
-                    .reason("Page not found")
-                    .match(result);
+            errorMessage("The page with id %d was not found", pageId).match(result);
 
             AppResultMatchers.resolvedException()
                     .isInstanceOf(PageNotFoundByIdException.class)
@@ -66,6 +66,26 @@ public class AppResultMatchers {
         };
     }
 
+    public static ResultMatcher sqlStatementCountIsAtMost(int budget) {
+        return result -> {
+            String count = result.getResponse().getHeader(SqlStatementCountingFilter.HEADER_NAME);
+            assertThat(count)
+                    .as("%s header", SqlStatementCountingFilter.HEADER_NAME)
+                    .isNotNull();
+            assertThat(Integer.parseInt(count))
+                    .as("SQL statements executed by %s", result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(budget);
+        };
+    }
+
+    public static ResultMatcher errorMessage(String message, Object... params) {
+        return result -> {
+            content().contentType(MediaType.APPLICATION_JSON).match(result);
+            jsonPath("$.status").value(result.getResponse().getStatus()).match(result);
+            jsonPath("$.message").value(String.format(message, params)).match(result);
+        };
+    }
+
     public static FailedValidationResultMatcher validationFailed() {
         return new FailedValidationResultMatcher();
     }
@@ -7,7 +7,10 @@ import com.amalstack.api.notebooks.exception.UsernameAlreadyExistsException;
 import com.amalstack.api.notebooks.model.AppUser;
 import com.amalstack.api.notebooks.repository.AppUserRepository;
 import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import com.amalstack.api.notebooks.security.PasswordHasher;
+import com.amalstack.api.notebooks.users.UsernameBloomFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.mockito.AdditionalAnswers;
 import org.mockito.Mockito;
@@ -16,22 +19,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import java.sql.SQLException;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @WebMvcTest(AppUsersController.class)
-@Import(ApplicationSecurityConfiguration.class)
+@Import({ApplicationSecurityConfiguration.class, PasswordHasher.class})
 @AutoConfigureMockMvc
 class AppUsersControllerTest {
 
@@ -48,16 +56,19 @@ class AppUsersControllerTest {
     @MockBean
     private PasswordEncoder passwordEncoder;
 
+    @MockBean
+    private UsernameBloomFilter usernames;
+
 
     @Test
     void register_whenUsernameAlreadyExists_thenBadRequest() throws Exception {
         final String existingUsername = "existing@example.com";
         Mockito
-                .when(appUserRepository.findByUsername(existingUsername))
-                .thenReturn(Optional.of(new AppUser(1L,
-                        existingUsername,
-                        "Existing User",
-                        "password")));
+                .when(appUserRepository.saveAndFlush(Mockito.any(AppUser.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate username",
+                        new ConstraintViolationException("Duplicate username",
+                                new SQLException("Duplicate username"),
+                                AppUser.USERNAME_CONSTRAINT)));
 
         AppUserRegistrationDto registration = new AppUserRegistrationDto(
                 existingUsername,
@@ -65,12 +76,17 @@ class AppUsersControllerTest {
                 "password",
                 "password");
 
-        mockMvc
+        MvcResult asyncResult = mockMvc
                 .perform(post(PATH)
                         //.with(SecurityMockMvcRequestPostProcessors.csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registration))
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isBadRequest())
                 //.andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
@@ -80,6 +96,57 @@ class AppUsersControllerTest {
                         .hasFieldOrPropertyWithValue("username", existingUsername)
                         .hasMessage("The user with username %s already exists", existingUsername)
                 );
+        Mockito.verify(appUserRepository, Mockito.never()).findByUsername(existingUsername);
+    }
+
+    @Test
+    void register_whenOtherConstraintIsViolated_thenDoesNotReportExistingUsername() throws Exception {
+        Mockito
+                .when(appUserRepository.saveAndFlush(Mockito.any(AppUser.class)))
+                .thenThrow(new DataIntegrityViolationException("Other constraint"));
+
+        AppUserRegistrationDto registration = new AppUserRegistrationDto("other@example.com",
+                "Test User",
+                "password",
+                "password");
+
+        MvcResult asyncResult = mockMvc
+                .perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registration)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(asyncResult.getAsyncResult())
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void register_whenPasswordIsHashed_thenInsertsOffTheHashingThreads() throws Exception {
+        var insertingThread = new AtomicReference<String>();
+        Mockito
+                .when(appUserRepository.saveAndFlush(Mockito.any(AppUser.class)))
+                .thenAnswer(invocation -> {
+                    insertingThread.set(Thread.currentThread().getName());
+                    return invocation.getArgument(0);
+                });
+
+        AppUserRegistrationDto registration = new AppUserRegistrationDto("new@example.com",
+                "Test User",
+                "password",
+                "password");
+
+        MvcResult asyncResult = mockMvc
+                .perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registration)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isCreated());
+        assertThat(insertingThread.get()).doesNotStartWith("password-hasher-");
     }
 
     @Test
@@ -121,20 +188,24 @@ class AppUsersControllerTest {
                 "Test User");
 
         Mockito
-                .when(appUserRepository.save(Mockito.any(AppUser.class)))
+                .when(appUserRepository.saveAndFlush(Mockito.any(AppUser.class)))
                 .then(AdditionalAnswers.returnsFirstArg());
 
-        mockMvc
+        MvcResult asyncResult = mockMvc
                 .perform(post(PATH)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registration))
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().string(objectMapper.writeValueAsString(appUserInfo)));
-
-
+        Mockito.verify(usernames).add("validregistration@example.com");
     }
 
     @Test
@@ -177,4 +248,49 @@ class AppUsersControllerTest {
                         .hasMessage("The user was not found")
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+    void available_whenUsernameIsNotInFilter_thenAvailableWithoutQuery() throws Exception {
+        final String username = "available_test_new@example.com";
+        Mockito.when(usernames.mightExist(username)).thenReturn(false);
+
+        mockMvc
+                .perform(get(PATH + "/available").param("email", username))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.email").value(username))
+                .andExpect(jsonPath("$.available").value(true));
+        Mockito.verify(appUserRepository, Mockito.never()).findByUsername(username);
+    }
+
+    @Test
+    void available_whenUsernameExists_thenNotAvailable() throws Exception {
+        final String username = "available_test_existing@example.com";
+        Mockito.when(usernames.mightExist(username)).thenReturn(true);
+        Mockito
+                .when(appUserRepository.findByUsername(username))
+                .thenReturn(Optional.of(new AppUser(username, "Test User", "password")));
+
+        mockMvc
+                .perform(get(PATH + "/available").param("email", username))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false));
+    }
+
+    @Test
+    void available_whenFilterReportsFalsePositive_thenAvailable() throws Exception {
+        final String username = "available_test_false_positive@example.com";
+        Mockito.when(usernames.mightExist(username)).thenReturn(true);
+        Mockito
+                .when(appUserRepository.findByUsername(username))
+                .thenReturn(Optional.empty());
+
+        mockMvc
+                .perform(get(PATH + "/available").param("email", username))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true));
+    }
+}
@@ -0,0 +1,130 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.bookmarks.BookmarkedPageCache;
+import com.amalstack.api.notebooks.dto.BookmarkDto;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.repository.*;
+import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import java.util.List;
+
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.pageIsNotFoundById;
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.resourceIsNotOwned;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookmarksController.class)
+@Import(ApplicationSecurityConfiguration.class)
+@AutoConfigureMockMvc
+@WithMockUser(username = BookmarksControllerTest.USERNAME_PREFIX + TestData.APP_USER_WITH_NOTEBOOKS_USERNAME)
+class BookmarksControllerTest {
+
+    static final String USERNAME_PREFIX = "BookmarksControllerTest";
+
+    private static final String PATH = "/bookmarks";
+
+    private final TestData testData = new TestData(USERNAME_PREFIX, true);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotebookRepository notebookRepository;
+
+    @MockBean
+    private SectionRepository sectionRepository;
+
+    @MockBean
+    private PageRepository pageRepository;
+
+    @MockBean
+    private AppUserRepository appUserRepository;
+
+    @MockBean
+    private PageBookmarkRepository bookmarkRepository;
+
+    @MockBean
+    private BookmarkedPageCache bookmarkedPages;
+
+    @BeforeEach
+    void setUp() {
+        testData.initMocks(appUserRepository,
+                notebookRepository,
+                sectionRepository,
+                pageRepository);
+    }
+
+    @Test
+    void getByUser_thenReturnsBookmarksOfCurrentUser() throws Exception {
+        Page page = testData.getPage1OfSection1();
+        Mockito.when(bookmarkRepository.findByUsername(testData.getAppUserWithNotebooks().getUsername()))
+                .thenReturn(List.of(BookmarkDto.fromPage(page)));
+
+        mockMvc.perform(get(PATH))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].pageId").value(page.getId()))
+                .andExpect(jsonPath("$[0].sectionName").value(page.getSection().getName()))
+                .andExpect(jsonPath("$[0].notebookName").value(page.getSection().getNotebook().getName()));
+    }
+
+    @Test
+    void add_whenPageIsOwnedByCurrentUser_thenAddsBookmarkAndEvictsCachedIds() throws Exception {
+        Page page = testData.getPage1OfSection1();
+        String username = testData.getAppUserWithNotebooks().getUsername();
+
+        mockMvc.perform(put(PATH + "/{pageId}", page.getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pageTitle").value(page.getTitle()));
+
+        Mockito.verify(bookmarkRepository).addIfAbsent(testData.getAppUserWithNotebooks().getId(), page.getId());
+        Mockito.verify(bookmarkedPages).invalidate(username);
+    }
+
+    @Test
+    void add_whenPageDoesNotExist_thenNotFound() throws Exception {
+        long pageId = testData.nonPersistent().page().getId();
+
+        mockMvc.perform(put(PATH + "/{pageId}", pageId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(pageIsNotFoundById(pageId));
+    }
+
+    @Test
+    @WithMockUser(username = USERNAME_PREFIX + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void add_whenPageIsNotOwnedByCurrentUser_thenUnauthorized() throws Exception {
+        long pageId = testData.getPage1OfSection1().getId();
+
+        mockMvc.perform(put(PATH + "/{pageId}", pageId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(resourceIsNotOwned(pageId, "page"));
+
+        Mockito.verify(bookmarkRepository, Mockito.never()).addIfAbsent(Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    void remove_whenPageIsOwnedByCurrentUser_thenRemovesBookmark() throws Exception {
+        Page page = testData.getPage1OfSection1();
+
+        mockMvc.perform(delete(PATH + "/{pageId}", page.getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk());
+
+        Mockito.verify(bookmarkRepository)
+                .deleteByUserIdAndPageId(testData.getAppUserWithNotebooks().getId(), page.getId());
+        Mockito.verify(bookmarkedPages).invalidate(testData.getAppUserWithNotebooks().getUsername());
+    }
+}
@@ -0,0 +1,42 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.dto.ErrorInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorResponseTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void render_thenWritesSameJsonAsErrorInfo() throws Exception {
+        var timestamp = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000_000);
+        String message = "The notebook with id 42 was not found";
+
+        byte[] body = new ErrorResponseTemplate(HttpStatus.NOT_FOUND).render(timestamp, message);
+
+        var expected = new ErrorInfo<>(404, HttpStatus.NOT_FOUND.toString(), timestamp, message, null);
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(expected));
+    }
+
+    @Test
+    void render_whenMessageHasCharactersToEscape_thenWritesValidJson() throws Exception {
+        String message = "Current user does not own \"Notes\"\né";
+
+        byte[] body = new ErrorResponseTemplate(HttpStatus.UNAUTHORIZED).render(LocalDateTime.now(), message);
+
+        var error = objectMapper.readTree(body);
+        assertThat(error.get("status").asInt()).isEqualTo(401);
+        assertThat(error.get("message").asText()).isEqualTo(message);
+    }
+}
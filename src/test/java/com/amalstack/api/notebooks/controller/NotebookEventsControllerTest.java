@@ -0,0 +1,138 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.EntityType;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import com.amalstack.api.notebooks.events.NotebookEventBroker;
+import com.amalstack.api.notebooks.repository.*;
+import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import java.io.UnsupportedEncodingException;
+
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.notebookIsNotFoundById;
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.resourceIsNotOwned;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(NotebookEventsController.class)
+@Import({ApplicationSecurityConfiguration.class, NotebookEventBroker.class})
+@AutoConfigureMockMvc
+@WithMockUser(username = NotebookEventsControllerTest.USERNAME_PREFIX + TestData.APP_USER_WITH_NOTEBOOKS_USERNAME)
+class NotebookEventsControllerTest {
+
+    static final String USERNAME_PREFIX = "NotebookEventsControllerTest";
+
+    private static final String PATH = "/notebooks/{id}/events";
+
+    private final TestData testData = new TestData(USERNAME_PREFIX, true);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NotebookEventBroker eventBroker;
+
+    @MockBean
+    private NotebookRepository notebookRepository;
+
+    @MockBean
+    private SectionRepository sectionRepository;
+
+    @MockBean
+    private PageRepository pageRepository;
+
+    @MockBean
+    private AppUserRepository appUserRepository;
+
+    @BeforeEach
+    void setUp() {
+        testData.initMocks(appUserRepository,
+                notebookRepository,
+                sectionRepository,
+                pageRepository);
+    }
+
+    @Test
+    void events_whenNotebookIsOwnedByUser_thenStreamsChanges() throws Exception {
+        long notebookId = testData.getNotebookWithSections().getId();
+
+        var result = mockMvc.perform(get(PATH, notebookId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        eventBroker.publish(new NotebookChangeEvent(1, notebookId, EntityType.PAGE, 7, Operation.UPDATED));
+
+        assertThat(awaitContent(result.getResponse(), "page.updated"))
+                .contains("event:page.updated")
+                .contains("\"entityId\":7");
+    }
+
+    @Test
+    void events_whenLastEventIdIsSent_thenReplaysMissedEvents() throws Exception {
+        long notebookId = testData.getNotebookWithSections().getId();
+        var seen = new NotebookChangeEvent(1, notebookId, EntityType.SECTION, 1, Operation.CREATED);
+        var missed = new NotebookChangeEvent(1, notebookId, EntityType.SECTION, 2, Operation.DELETED);
+        var missedInOtherNotebook = new NotebookChangeEvent(1, notebookId + 1000, EntityType.SECTION, 3,
+                Operation.DELETED);
+        var connection = mockMvc.perform(get(PATH, notebookId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        eventBroker.publish(seen);
+        long lastEventId = lastEventId(awaitContent(connection.getResponse(), "section.created"));
+        eventBroker.publish(missed);
+        eventBroker.publish(missedInOtherNotebook);
+
+        var result = mockMvc.perform(get(PATH, notebookId).header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitContent(result.getResponse(), "section.deleted"))
+                .doesNotContain("event:section.created")
+                .contains("\"entityId\":2")
+                .doesNotContain("\"entityId\":3");
+    }
+
+    @Test
+    void events_whenNotebookDoesNotExist_thenNotFound() throws Exception {
+        long notebookId = testData.nonPersistent().notebook().getId();
+
+        mockMvc.perform(get(PATH, notebookId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(notebookIsNotFoundById(notebookId));
+    }
+
+    @Test
+    @WithMockUser(username = USERNAME_PREFIX + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void events_whenNotebookIsNotOwnedByUser_thenUnauthorized() throws Exception {
+        long notebookId = testData.getNotebookWithSections().getId();
+
+        mockMvc.perform(get(PATH, notebookId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(resourceIsNotOwned(notebookId, "notebook"));
+    }
+
+    private static long lastEventId(String content) {
+        int start = content.lastIndexOf("id:") + 3;
+        return Long.parseLong(content.substring(start, content.indexOf('\n', start)).trim());
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected)
+            throws UnsupportedEncodingException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return response.getContentAsString();
+    }
+}
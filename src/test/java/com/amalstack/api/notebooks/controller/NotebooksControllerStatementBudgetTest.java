@@ -0,0 +1,60 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.sqlStatementCountIsAtMost;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NotebooksControllerStatementBudgetTest {
+
+    private static final String PATH = "/notebooks";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    private TestData testData;
+
+    @BeforeAll
+    void setUp() {
+        testData = new TestData("NotebooksControllerStatementBudgetTest");
+        testData.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+    }
+
+    @Test
+    void get_whenNotebookHasSectionsAndPages_thenExecutesAtMost3Statements() throws Exception {
+        mockMvc.perform(get(PATH + "/{id}", testData.getNotebookWithSections().getId())
+                        .with(user(testData.getAppUserWithNotebooks().getUsername()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementCountIsAtMost(3));
+    }
+}
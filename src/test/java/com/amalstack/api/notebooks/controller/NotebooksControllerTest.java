@@ -1,5 +1,6 @@
 package com.amalstack.api.notebooks.controller;
 
+import com.amalstack.api.notebooks.bookmarks.BookmarkedPageCache;
 import com.amalstack.api.notebooks.dto.NotebookDto;
 import com.amalstack.api.notebooks.dto.NotebookInfoDto;
 import com.amalstack.api.notebooks.dto.PageInfoDto;
@@ -8,10 +9,12 @@ import com.amalstack.api.notebooks.model.Page;
 import com.amalstack.api.notebooks.model.Section;
 import com.amalstack.api.notebooks.repository.*;
 import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import com.amalstack.api.notebooks.tree.NotebookTreeWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -20,12 +23,18 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -57,6 +66,12 @@ class NotebooksControllerTest {
     @MockBean
     private AppUserRepository appUserRepository;
 
+    @MockBean
+    private BookmarkedPageCache bookmarkedPages;
+
+    @MockBean
+    private NotebookTreeWriter treeWriter;
+
     @BeforeEach
     void setUp() {
         testData.initMocks(appUserRepository,
@@ -92,6 +107,23 @@ class NotebooksControllerTest {
                 .andExpect(content().json(expectedContent));
     }
 
+    @Test
+    void get_whenPagesAreBookmarked_thenFlagsThem() throws Exception {
+        var bookmarkedPage = testData.getPage2OfSection1();
+        Mockito.when(bookmarkedPages.pageIds(testData.getAppUserWithNotebooks().getUsername()))
+                .thenReturn(Set.of(bookmarkedPage.getId()));
+
+        mockMvc.perform(get(PATH + "/{id}",
+                        testData.getNotebookWithSections().getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sections[*].pages[?(@.bookmarked == true)].id")
+                        .value(Matchers.contains(bookmarkedPage.getId().intValue())));
+
+        Mockito.verify(bookmarkedPages, Mockito.times(1)).pageIds(Mockito.anyString());
+    }
+
     @Test
     void get_whenIdIsInvalid_thenNotFound() throws Exception {
         mockMvc.perform(get(PATH + "/{id}",
@@ -114,6 +146,51 @@ class NotebooksControllerTest {
                         testData.getNotebookWithSections().getId(), "notebook"));
     }
 
+    @Test
+    void getTree_whenIdIsValid_thenStreamsTree() throws Exception {
+        var notebook = testData.getNotebookWithSections();
+        var username = testData.getAppUserWithNotebooks().getUsername();
+        Mockito.doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("{}".getBytes());
+            return null;
+        }).when(treeWriter).write(Mockito.any(), Mockito.eq(username), Mockito.any());
+
+        MvcResult asyncResult = mockMvc.perform(get(PATH + "/{id}/tree", notebook.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("{}"));
+        Mockito.verify(treeWriter).write(Mockito.eq(NotebookInfoDto.fromNotebook(notebook, List.of())),
+                Mockito.eq(username),
+                Mockito.any());
+    }
+
+    @Test
+    void getTree_whenIdIsInvalid_thenNotFound() throws Exception {
+        mockMvc.perform(get(PATH + "/{id}/tree",
+                        testData.nonPersistent().notebook().getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.notebookIsNotFoundById(
+                        testData.nonPersistent().notebook().getId()
+                ));
+        Mockito.verifyNoInteractions(treeWriter);
+    }
+
+    @Test
+    @WithMockUser(username = "NotebooksControllerTest" + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void getTree_whenNotebookIsNotOwnedByCurrentUser_thenUnauthorized() throws Exception {
+        mockMvc.perform(get(PATH + "/{id}/tree",
+                        testData.getNotebookWithSections().getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.resourceIsNotOwned(
+                        testData.getNotebookWithSections().getId(), "notebook"));
+        Mockito.verifyNoInteractions(treeWriter);
+    }
+
     @Test
     void getByUser_whenAuthorized_thenOk() throws Exception {
         mockMvc.perform(get(PATH + "/user")
@@ -234,6 +311,60 @@ class NotebooksControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk());
+
+        assertThat(testData.getNotebookWithSections().isDeleted()).isTrue();
+        Mockito.verify(notebookRepository, Mockito.never()).deleteById(Mockito.anyLong());
+    }
+
+    @Test
+    void update_whenNotebookIsDeleted_thenNotFound() throws Exception {
+        long deletedNotebookId = 42;
+        Mockito.when(notebookRepository.existsById(deletedNotebookId)).thenReturn(true);
+
+        mockMvc.perform(put(PATH + "/{id}", deletedNotebookId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new NotebookDto("Name", "Description"))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.notebookIsNotFoundById(deletedNotebookId));
+    }
+
+    @Test
+    void restore_whenNotebookIsDeletedWithinRetention_thenOk() throws Exception {
+        var notebook = testData.getNotebookWithSections();
+        notebook.setDeletedAt(LocalDateTime.now());
+        Mockito.when(notebookRepository.findDeletedById(Mockito.eq(notebook.getId()), Mockito.any()))
+                .thenReturn(Optional.of(notebook));
+
+        mockMvc.perform(post(PATH + "/{id}/restore", notebook.getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(notebook.getId()));
+
+        assertThat(notebook.isDeleted()).isFalse();
+    }
+
+    @Test
+    void restore_whenNotebookIsNotDeletedOrAlreadyPurged_thenNotFound() throws Exception {
+        long notebookId = testData.getNotebookWithSections().getId();
+
+        mockMvc.perform(post(PATH + "/{id}/restore", notebookId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.notebookIsNotFoundById(notebookId));
+    }
+
+    @Test
+    @WithMockUser(username = "NotebooksControllerTest" + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void restore_whenNotebookIsNotOwnedByCurrentUser_thenUnauthorized() throws Exception {
+        var notebook = testData.getNotebookWithSections();
+        notebook.setDeletedAt(LocalDateTime.now());
+        Mockito.when(notebookRepository.findDeletedById(Mockito.eq(notebook.getId()), Mockito.any()))
+                .thenReturn(Optional.of(notebook));
+
+        mockMvc.perform(post(PATH + "/{id}/restore", notebook.getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.resourceIsNotOwned(notebook.getId(), "notebook"));
+
+        assertThat(notebook.isDeleted()).isTrue();
     }
 
     @Test
@@ -259,5 +390,44 @@ class NotebooksControllerTest {
                 .andExpect(AppResultMatchers.resourceIsNotOwned(
                         unownedNotebookId, "notebook"));
     }
-}
 
+    @Test
+    void copy_whenNotebookIsOwnedByCurrentUser_thenCreatedWithCopiedCounts() throws Exception {
+        var notebook = testData.getNotebookWithSections();
+        Mockito.when(notebookRepository.copySections(Mockito.eq(notebook.getId()), Mockito.anyLong()))
+                .thenReturn(testData.getPages().size());
+        Mockito.when(sectionRepository.countByNotebookId(Mockito.anyLong()))
+                .thenReturn(testData.getSections().size());
+
+        mockMvc.perform(post(PATH + "/{id}/copy", notebook.getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value(notebook.getName()))
+                .andExpect(jsonPath("$.sectionCount").value(testData.getSections().size()))
+                .andExpect(jsonPath("$.pageCount").value(testData.getPages().size()));
+
+        Mockito.verify(sectionRepository, Mockito.never()).findByNotebookId(notebook.getId());
+        Mockito.verify(pageRepository, Mockito.never()).findByNotebookId(notebook.getId());
+    }
+
+    @Test
+    void copy_whenNotebookDoesNotExist_thenNotFound() throws Exception {
+        var nonPersistentNotebookId = testData.nonPersistent().notebook().getId();
+
+        mockMvc.perform(post(PATH + "/{id}/copy", nonPersistentNotebookId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.notebookIsNotFoundById(nonPersistentNotebookId));
+    }
+
+    @Test
+    @WithMockUser(username = "NotebooksControllerTest" + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void copy_whenNotebookIsNotOwnedByCurrentUser_thenUnauthorized() throws Exception {
+        long unownedNotebookId = testData.getNotebookWithSections().getId();
+
+        mockMvc.perform(post(PATH + "/{id}/copy", unownedNotebookId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(AppResultMatchers.resourceIsNotOwned(unownedNotebookId, "notebook"));
+
+        Mockito.verify(notebookRepository, Mockito.never()).copySections(Mockito.anyLong(), Mockito.anyLong());
+    }
+}
@@ -0,0 +1,253 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.attachments.AttachmentStore;
+import com.amalstack.api.notebooks.exception.AttachmentNotFoundByIdException;
+import com.amalstack.api.notebooks.model.PageAttachment;
+import com.amalstack.api.notebooks.repository.*;
+import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = PageAttachmentsController.class, properties = "notebooks.attachments.enabled=true")
+@Import(ApplicationSecurityConfiguration.class)
+@AutoConfigureMockMvc
+@WithMockUser(username = PageAttachmentsControllerTest.USERNAME_PREFIX + TestData.APP_USER_WITH_NOTEBOOKS_USERNAME)
+class PageAttachmentsControllerTest {
+
+    static final String USERNAME_PREFIX = "PageAttachmentsControllerTest";
+
+    private static final String PATH = "/pages/{pageId}/attachments";
+
+    private static final long ATTACHMENT_ID = 7L;
+
+    private static final byte[] CONTENT = "Attachment Contents".getBytes(StandardCharsets.UTF_8);
+
+    private final TestData testData = new TestData(USERNAME_PREFIX, true);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotebookRepository notebookRepository;
+
+    @MockBean
+    private SectionRepository sectionRepository;
+
+    @MockBean
+    private PageRepository pageRepository;
+
+    @MockBean
+    private AppUserRepository appUserRepository;
+
+    @MockBean
+    private PageAttachmentRepository attachmentRepository;
+
+    @MockBean
+    private AttachmentStore attachmentStore;
+
+    private long pageId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testData.initMocks(appUserRepository,
+                notebookRepository,
+                sectionRepository,
+                pageRepository);
+        pageId = testData.getPage1OfSection1().getId();
+
+        var attachment = new PageAttachment(pageId, "video.mp4", "video/mp4", CONTENT.length);
+        attachment.setId(ATTACHMENT_ID);
+        Mockito.when(attachmentRepository.findByIdAndPageId(ATTACHMENT_ID, pageId))
+                .thenReturn(Optional.of(attachment));
+        Mockito.when(attachmentRepository.findByPageIdOrderById(pageId)).thenReturn(List.of(attachment));
+        Mockito.when(attachmentStore.exists(ATTACHMENT_ID)).thenReturn(true);
+        Mockito.when(attachmentStore.pathOf(ATTACHMENT_ID)).thenReturn(Path.of("attachments", "07", "7"));
+        Mockito.doAnswer(invocation -> {
+            int position = Math.toIntExact(invocation.getArgument(1, Long.class));
+            int count = Math.toIntExact(invocation.getArgument(2, Long.class));
+            invocation.getArgument(3, WritableByteChannel.class).write(ByteBuffer.wrap(CONTENT, position, count));
+            return null;
+        }).when(attachmentStore).transferTo(Mockito.eq(ATTACHMENT_ID), Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any());
+    }
+
+    @Test
+    void getByPage_thenReturnsAttachmentsOfPage() throws Exception {
+        mockMvc.perform(get(PATH, pageId))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(ATTACHMENT_ID))
+                .andExpect(jsonPath("$[0].fileName").value("video.mp4"))
+                .andExpect(jsonPath("$[0].size").value(CONTENT.length));
+    }
+
+    @Test
+    void upload_whenPageIsOwnedByCurrentUser_thenStoresFile() throws Exception {
+        var file = new MockMultipartFile("file", "C:\\Users\\me\\notes.txt", "text/plain", CONTENT);
+        Mockito.when(attachmentRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            PageAttachment attachment = invocation.getArgument(0);
+            attachment.setId(8L);
+            return attachment;
+        });
+
+        mockMvc.perform(multipart(PATH, pageId).file(file))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(8))
+                .andExpect(jsonPath("$.pageId").value(pageId))
+                .andExpect(jsonPath("$.fileName").value("notes.txt"))
+                .andExpect(jsonPath("$.contentType").value("text/plain"))
+                .andExpect(jsonPath("$.size").value(CONTENT.length));
+
+        Mockito.verify(attachmentStore).save(Mockito.eq(8L), Mockito.any());
+    }
+
+    @Test
+    @WithMockUser(username = USERNAME_PREFIX + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void upload_whenPageIsNotOwnedByCurrentUser_thenUnauthorized() throws Exception {
+        var file = new MockMultipartFile("file", "notes.txt", "text/plain", CONTENT);
+
+        mockMvc.perform(multipart(PATH, pageId).file(file))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(resourceIsNotOwned(pageId, "page"));
+
+        Mockito.verify(attachmentStore, Mockito.never()).save(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void upload_whenPageDoesNotExist_thenNotFound() throws Exception {
+        long missingPageId = testData.nonPersistent().page().getId();
+        var file = new MockMultipartFile("file", "notes.txt", "text/plain", CONTENT);
+
+        mockMvc.perform(multipart(PATH, missingPageId).file(file))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(pageIsNotFoundById(missingPageId));
+    }
+
+    @Test
+    void download_thenStreamsWholeFile() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(PATH + "/{id}", pageId, ATTACHMENT_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "video/mp4"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("inline;")))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void download_whenSingleRangeIsRequested_thenStreamsPartialContent() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(PATH + "/{id}", pageId, ATTACHMENT_ID)
+                        .header(HttpHeaders.RANGE, "bytes=11-"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 11-18/19"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 8))
+                .andExpect(content().string("Contents"));
+    }
+
+    @Test
+    void download_whenIfRangeDoesNotMatch_thenStreamsWholeFile() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(PATH + "/{id}", pageId, ATTACHMENT_ID)
+                        .header(HttpHeaders.RANGE, "bytes=11-")
+                        .header(HttpHeaders.IF_RANGE, "\"8\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void download_whenRangeStartsPastEnd_thenRangeNotSatisfiable() throws Exception {
+        mockMvc.perform(get(PATH + "/{id}", pageId, ATTACHMENT_ID)
+                        .header(HttpHeaders.RANGE, "bytes=19-"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */19"));
+
+        Mockito.verify(attachmentStore, Mockito.never())
+                .transferTo(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void download_whenContainerSupportsSendfile_thenLeavesRangeToContainer() throws Exception {
+        mockMvc.perform(get(PATH + "/{id}", pageId, ATTACHMENT_ID)
+                        .header(HttpHeaders.RANGE, "bytes=0-9")
+                        .requestAttr(PageAttachmentsController.SENDFILE_SUPPORT, Boolean.TRUE))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/19"))
+                .andExpect(request().attribute(PageAttachmentsController.SENDFILE_FILENAME,
+                        Path.of("attachments", "07", "7").toString()))
+                .andExpect(request().attribute(PageAttachmentsController.SENDFILE_START, 0L))
+                .andExpect(request().attribute(PageAttachmentsController.SENDFILE_END, 10L));
+
+        Mockito.verify(attachmentStore, Mockito.never())
+                .transferTo(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void download_whenAttachmentBelongsToAnotherPage_thenNotFound() throws Exception {
+        long otherPageId = testData.getPage2OfSection1().getId();
+
+        mockMvc.perform(get(PATH + "/{id}", otherPageId, ATTACHMENT_ID))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotFound())
+                .andExpect(errorMessage("The attachment with id %d was not found", ATTACHMENT_ID))
+                .andExpect(resolvedException().isInstanceOf(AttachmentNotFoundByIdException.class));
+    }
+
+    @Test
+    @WithMockUser(username = USERNAME_PREFIX + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void download_whenPageIsNotOwnedByCurrentUser_thenUnauthorized() throws Exception {
+        mockMvc.perform(get(PATH + "/{id}", pageId, ATTACHMENT_ID))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(resourceIsNotOwned(pageId, "page"));
+    }
+
+    @Test
+    void delete_thenDeletesRowAndFileAfterCommit() throws Exception {
+        mockMvc.perform(delete(PATH + "/{id}", pageId, ATTACHMENT_ID))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk());
+
+        Mockito.verify(attachmentRepository).delete(Mockito.argThat(attachment -> attachment.getId() == ATTACHMENT_ID));
+        Mockito.verify(attachmentStore).deleteAfterCommit(ATTACHMENT_ID);
+    }
+}
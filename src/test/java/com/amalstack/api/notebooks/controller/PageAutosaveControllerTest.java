@@ -0,0 +1,124 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.autosave.PageAutosaveBuffer;
+import com.amalstack.api.notebooks.dto.PageContentDto;
+import com.amalstack.api.notebooks.repository.*;
+import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.pageIsNotFoundById;
+import static com.amalstack.api.notebooks.controller.AppResultMatchers.resourceIsNotOwned;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = PageAutosaveController.class, properties = "notebooks.autosave.enabled=true")
+@Import(ApplicationSecurityConfiguration.class)
+@AutoConfigureMockMvc
+@WithMockUser(username = PageAutosaveControllerTest.USERNAME_PREFIX + TestData.APP_USER_WITH_NOTEBOOKS_USERNAME)
+class PageAutosaveControllerTest {
+
+    static final String USERNAME_PREFIX = "PageAutosaveControllerTest";
+
+    private static final String PATH = "/pages/{id}/autosave";
+
+    private final TestData testData = new TestData(USERNAME_PREFIX, true);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private NotebookRepository notebookRepository;
+
+    @MockBean
+    private SectionRepository sectionRepository;
+
+    @MockBean
+    private PageRepository pageRepository;
+
+    @MockBean
+    private AppUserRepository appUserRepository;
+
+    @MockBean
+    private PageAutosaveBuffer autosaveBuffer;
+
+    @BeforeEach
+    void setUp() {
+        testData.initMocks(appUserRepository,
+                notebookRepository,
+                sectionRepository,
+                pageRepository);
+    }
+
+    @Test
+    void autosave_whenPageIsOwnedByUser_thenAccepted() throws Exception {
+        long pageId = testData.getPage1OfSection1().getId();
+        String username = testData.getAppUserWithNotebooks().getUsername();
+
+        mockMvc.perform(put(PATH, pageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PageContentDto("Autosaved"))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isAccepted());
+
+        Mockito.verify(autosaveBuffer).buffer(pageId, username, "Autosaved",
+                testData.getPage1OfSection1().getContentVersion());
+    }
+
+    @Test
+    void autosave_whenPageIsAlreadyBufferedByUser_thenSkipsOwnershipLookup() throws Exception {
+        long pageId = testData.getPage1OfSection1().getId();
+        String username = testData.getAppUserWithNotebooks().getUsername();
+        Mockito.when(autosaveBuffer.bufferIfPending(pageId, username, "Autosaved")).thenReturn(true);
+
+        mockMvc.perform(put(PATH, pageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PageContentDto("Autosaved"))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isAccepted());
+
+        Mockito.verify(pageRepository, Mockito.never()).findById(pageId);
+        Mockito.verify(autosaveBuffer, Mockito.never())
+                .buffer(Mockito.anyLong(), Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+    }
+
+    @Test
+    void autosave_whenPageDoesNotExist_thenNotFound() throws Exception {
+        long pageId = testData.nonPersistent().page().getId();
+
+        mockMvc.perform(put(PATH, pageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PageContentDto("Autosaved"))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(pageIsNotFoundById(pageId));
+    }
+
+    @Test
+    @WithMockUser(username = USERNAME_PREFIX + TestData.APP_USER_WITHOUT_NOTEBOOKS_USERNAME)
+    void autosave_whenPageIsNotOwnedByUser_thenUnauthorized() throws Exception {
+        long pageId = testData.getPage1OfSection1().getId();
+
+        mockMvc.perform(put(PATH, pageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PageContentDto("Autosaved"))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(resourceIsNotOwned(pageId, "page"));
+
+        Mockito.verify(autosaveBuffer, Mockito.never())
+                .buffer(Mockito.anyLong(), Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+    }
+}
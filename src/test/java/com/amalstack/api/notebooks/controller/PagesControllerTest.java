@@ -2,12 +2,15 @@ package com.amalstack.api.notebooks.controller;
 
 import com.amalstack.api.notebooks.dto.PageDto;
 import com.amalstack.api.notebooks.dto.PageInfoDto;
+import com.amalstack.api.notebooks.dto.PositionDto;
 import com.amalstack.api.notebooks.model.Page;
 import com.amalstack.api.notebooks.repository.*;
 import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -169,6 +172,22 @@ class PagesControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void create_whenInputIsValid_thenSectionIsLockedBeforeLastPositionIsRead() throws Exception {
+        var section = testData.getSection1WithPages();
+        long notebookId = section.getNotebook().getId();
+        String body = objectMapper.writeValueAsString(new PageDto(section.getId(), "Test Title", "Test Content"));
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated());
+
+        InOrder inOrder = Mockito.inOrder(sectionRepository, pageRepository);
+        inOrder.verify(sectionRepository).lockForPositioning(notebookId, section.getId());
+        inOrder.verify(pageRepository).findLastPosition(notebookId, section.getId());
+    }
+
     @Test
     void create_whenInputIsInvalid_thenBadRequest() throws Exception {
         String body = objectMapper.writeValueAsString(
@@ -342,6 +361,32 @@ class PagesControllerTest {
                 );
     }
 
+    @Test
+    void move_whenPlacedBeforeFirstSibling_thenPageComesFirst() throws Exception {
+        Page first = testData.getPage1OfSection1();
+        Page moved = testData.getPage2OfSection1();
+
+        mockMvc.perform(put(PATH + "/{id}/position", moved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PositionDto(null, first.getId()))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(moved.getId()));
+
+        assertThat(moved.getPosition()).isLessThan(first.getPosition());
+    }
+
+    @Test
+    void move_whenNeighbourBelongsToAnotherSection_thenBadRequest() throws Exception {
+        mockMvc.perform(put(PATH + "/{id}/position", testData.getPage2OfSection1().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PositionDto(testData.getPage1OfSection2().getId(), null))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid position"));
+    }
+
     @Test
     void delete_whenPageDoesNotExist_thenNotFound() throws Exception {
         long nonExistentPageId = testData.nonPersistent().page().getId();
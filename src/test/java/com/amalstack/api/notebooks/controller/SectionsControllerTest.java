@@ -1,5 +1,6 @@
 package com.amalstack.api.notebooks.controller;
 
+import com.amalstack.api.notebooks.dto.PositionDto;
 import com.amalstack.api.notebooks.dto.SectionDto;
 import com.amalstack.api.notebooks.dto.SectionSummaryDto;
 import com.amalstack.api.notebooks.model.Notebook;
@@ -9,6 +10,8 @@ import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -20,6 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
 import static com.amalstack.api.notebooks.controller.AppResultMatchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -164,6 +168,20 @@ class SectionsControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void create_whenInputIsValid_thenNotebookIsLockedBeforeLastPositionIsRead() throws Exception {
+        long notebookId = testData.getNotebookWithSections().getId();
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SectionDto(notebookId, "New Section"))))
+                .andExpect(status().isCreated());
+
+        InOrder inOrder = Mockito.inOrder(notebookRepository, sectionRepository);
+        inOrder.verify(notebookRepository).lockForPositioning(notebookId);
+        inOrder.verify(sectionRepository).findLastPosition(notebookId);
+    }
+
     @Test
     void create_whenInputIsInvalid_thenBadRequest() throws Exception {
         long notebookId = testData.getNotebookWithSections().getId();
@@ -303,6 +321,47 @@ class SectionsControllerTest {
     }
 
 
+    @Test
+    void move_whenNeighboursAreSiblings_thenPlacesSectionBetweenThem() throws Exception {
+        Section first = testData.getSection1WithPages();
+        Section second = testData.getSection2WithPages();
+        Section moved = testData.getSectionWithoutPages();
+
+        mockMvc.perform(put(PATH + "/{id}/position", moved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PositionDto(first.getId(), second.getId()))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk());
+
+        assertThat(moved.getPosition())
+                .isGreaterThan(first.getPosition())
+                .isLessThan(second.getPosition());
+    }
+
+    @Test
+    void move_whenNeighboursAreOutOfOrder_thenBadRequest() throws Exception {
+        Section first = testData.getSection1WithPages();
+        Section second = testData.getSection2WithPages();
+
+        mockMvc.perform(put(PATH + "/{id}/position", testData.getSectionWithoutPages().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PositionDto(second.getId(), first.getId()))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid position"));
+    }
+
+    @Test
+    void move_whenNeighbourBelongsToAnotherNotebook_thenBadRequest() throws Exception {
+        mockMvc.perform(put(PATH + "/{id}/position", testData.getSectionWithoutPages().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PositionDto(testData.unowned().section().getId(), null))))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid position"));
+    }
+
     @Test
     void delete_whenSectionExistsAndIsOwnedByCurrentUser_thenOk() throws Exception {
         mockMvc.perform(delete(PATH + "/{id}",
@@ -334,4 +393,40 @@ class SectionsControllerTest {
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(resourceIsNotOwned(unownedSectionId, "section"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void copy_whenSectionIsOwnedByCurrentUser_thenCreatedAtEndOfNotebook() throws Exception {
+        Section section = testData.getSection1WithPages();
+        Mockito.when(sectionRepository.save(Mockito.any(Section.class))).thenAnswer(invocation -> {
+            Section saved = invocation.getArgument(0);
+            saved.setId(100L);
+            return saved;
+        });
+        Mockito.when(sectionRepository.copyPages(Mockito.eq(section),
+                        Mockito.argThat(copy -> copy.getId() == 100L)))
+                .thenReturn(testData.getSection1Pages().size());
+
+        mockMvc.perform(post(PATH + "/{id}/copy", section.getId()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(100L))
+                .andExpect(jsonPath("$.name").value(section.getName()))
+                .andExpect(jsonPath("$.notebookId").value(section.getNotebook().getId()));
+
+        Mockito.verify(sectionRepository).onSectionAdded(Mockito.argThat(copy ->
+                copy.getPageCount() == testData.getSection1Pages().size()));
+    }
+
+    @Test
+    void copy_whenTargetNotebookIsNotOwned_thenUnauthorized() throws Exception {
+        long unownedNotebookId = testData.unowned().notebook().getId();
+
+        mockMvc.perform(post(PATH + "/{id}/copy", testData.getSection1WithPages().getId())
+                        .param("notebookId", String.valueOf(unownedNotebookId)))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(resourceIsNotOwned(unownedNotebookId, "notebook"));
+
+        Mockito.verify(sectionRepository, Mockito.never()).copyPages(Mockito.any(), Mockito.any());
+    }
+}
+
@@ -0,0 +1,115 @@
+package com.amalstack.api.notebooks.controller;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.EntityType;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import com.amalstack.api.notebooks.model.ChangeLogEntry;
+import com.amalstack.api.notebooks.repository.*;
+import com.amalstack.api.notebooks.security.ApplicationSecurityConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SyncController.class)
+@Import(ApplicationSecurityConfiguration.class)
+@AutoConfigureMockMvc
+@WithMockUser(username = SyncControllerTest.USERNAME_PREFIX + TestData.APP_USER_WITH_NOTEBOOKS_USERNAME)
+class SyncControllerTest {
+
+    static final String USERNAME_PREFIX = "SyncControllerTest";
+
+    private static final String PATH = "/sync";
+
+    private final TestData testData = new TestData(USERNAME_PREFIX, true);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeLogEntryRepository changeLogEntryRepository;
+
+    @MockBean
+    private AppUserRepository appUserRepository;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(appUserRepository.findByUsername(testData.getAppUserWithNotebooks().getUsername()))
+                .thenReturn(Optional.of(testData.getAppUserWithNotebooks()));
+        Mockito.when(changeLogEntryRepository.findOldestId()).thenReturn(Optional.of(11L));
+        Mockito.when(changeLogEntryRepository.findLatestId()).thenReturn(Optional.of(42L));
+    }
+
+    @Test
+    void sync_whenCursorIsMissing_thenReturnsCurrentPosition() throws Exception {
+        mockMvc.perform(get(PATH))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes").isEmpty())
+                .andExpect(jsonPath("$.next").value(42))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void sync_whenMoreChangesThanLimit_thenReturnsFirstPageAndCursor() throws Exception {
+        long ownerId = testData.getAppUserWithNotebooks().getId();
+        Mockito.when(changeLogEntryRepository.findLatestChanges(eq(ownerId), eq(10L), any(Instant.class), any()))
+                .thenReturn(List.of(
+                        entry(12, EntityType.SECTION, Operation.CREATED),
+                        entry(15, EntityType.PAGE, Operation.DELETED),
+                        entry(16, EntityType.PAGE, Operation.UPDATED)));
+
+        mockMvc.perform(get(PATH).param("since", "10").param("limit", "2"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(2))
+                .andExpect(jsonPath("$.changes[1].entityType").value("PAGE"))
+                .andExpect(jsonPath("$.changes[1].operation").value("DELETED"))
+                .andExpect(jsonPath("$.next").value(15))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void sync_whenNoNewChanges_thenKeepsCursor() throws Exception {
+        Mockito.when(changeLogEntryRepository.findLatestChanges(anyLong(), anyLong(), any(Instant.class), any()))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get(PATH).param("since", "42"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(42))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void sync_whenCursorPrecedesRetainedChanges_thenGone() throws Exception {
+        mockMvc.perform(get(PATH).param("since", "5"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isGone())
+                .andExpect(status().reason("Sync cursor has expired"));
+    }
+
+    private static ChangeLogEntry entry(long id, EntityType entityType, Operation operation) {
+        var entry = new ChangeLogEntry(1, 1, entityType, id * 100, operation, Instant.now());
+        ReflectionTestUtils.setField(entry, "id", id);
+        return entry;
+    }
+}
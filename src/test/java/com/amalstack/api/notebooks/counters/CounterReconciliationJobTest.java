@@ -0,0 +1,80 @@
+package com.amalstack.api.notebooks.counters;
+
+import com.amalstack.api.notebooks.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CounterReconciliationJobTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TestData data;
+
+    private CounterReconciliationJob job;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("CounterReconciliationJobTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+        job = new CounterReconciliationJob(notebookRepository, sectionRepository, transactionManager);
+    }
+
+    @Test
+    void findIdsWithCounterDrift_whenCountersMatch_thenDoesNotReportTestData() {
+        assertThat(notebookRepository.findIdsWithCounterDrift())
+                .doesNotContain(data.getNotebookWithSections().getId(), data.getNotebookWithoutSections().getId());
+        assertThat(sectionRepository.findIdsWithPageCountDrift())
+                .doesNotContain(data.getSection1WithPages().getId(), data.getSection2WithPages().getId());
+    }
+
+    @Test
+    void reconcile_whenCountersDrifted_thenRecountsThem() {
+        long notebookId = data.getNotebookWithSections().getId();
+        long sectionId = data.getSection1WithPages().getId();
+        var notebook = notebookRepository.findById(notebookId).orElseThrow();
+        notebook.setSectionCount(42);
+        notebook.setPageCount(-1);
+        var section = sectionRepository.findById(sectionId).orElseThrow();
+        section.setPageCount(7);
+        entityManager.flush();
+        assertThat(notebookRepository.findIdsWithCounterDrift()).contains(notebookId);
+        assertThat(sectionRepository.findIdsWithPageCountDrift()).contains(sectionId);
+
+        assertThat(job.reconcile()).isGreaterThanOrEqualTo(2);
+        entityManager.clear();
+
+        var reconciledNotebook = notebookRepository.findById(notebookId).orElseThrow();
+        assertThat(reconciledNotebook.getSectionCount()).isEqualTo(data.getSections().size());
+        assertThat(reconciledNotebook.getPageCount()).isEqualTo(data.getPages().size());
+        assertThat(sectionRepository.findById(sectionId).orElseThrow().getPageCount())
+                .isEqualTo(data.getSection1Pages().size());
+        assertThat(notebookRepository.findIdsWithCounterDrift()).doesNotContain(notebookId);
+    }
+}
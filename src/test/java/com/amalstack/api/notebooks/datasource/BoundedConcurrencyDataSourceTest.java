@@ -0,0 +1,65 @@
+package com.amalstack.api.notebooks.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.when;
+
+class BoundedConcurrencyDataSourceTest {
+
+    private DataSource target;
+
+    private BoundedConcurrencyDataSource dataSource;
+
+    @BeforeEach
+    void initEach() throws SQLException {
+        target = Mockito.mock(DataSource.class);
+        when(target.getConnection()).then(invocation -> Mockito.mock(Connection.class));
+        dataSource = new BoundedConcurrencyDataSource(target, 1, 50);
+    }
+
+    @Test
+    void getConnection_whenPermitsAreExhausted_thenTimesOut() throws SQLException {
+        dataSource.getConnection();
+
+        assertThatExceptionOfType(SQLTransientConnectionException.class)
+                .isThrownBy(() -> dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenPreviousConnectionIsClosed_thenSucceeds() throws SQLException {
+        dataSource.getConnection().close();
+
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    void close_whenCalledTwice_thenReleasesOnePermit() throws SQLException {
+        var connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        dataSource.getConnection();
+        assertThatExceptionOfType(SQLTransientConnectionException.class)
+                .isThrownBy(() -> dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenTargetFails_thenReleasesPermit() throws SQLException {
+        when(target.getConnection())
+                .thenThrow(new SQLException("Pool is down"))
+                .then(invocation -> Mockito.mock(Connection.class));
+
+        assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(() -> dataSource.getConnection());
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+}
@@ -0,0 +1,118 @@
+package com.amalstack.api.notebooks.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT lag_seconds FROM replication_status";
+
+    private EmbeddedDatabase primary;
+
+    private EmbeddedDatabase replica;
+
+    @BeforeEach
+    void initEach() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+    }
+
+    @AfterEach
+    void shutdown() {
+        ReplicaRoutingContext.clear();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaIsHealthy_thenReadsFromReplica() {
+        var dataSource = routing(replica);
+
+        assertThat(readServer(dataSource, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransaction_thenUsesPrimary() {
+        var dataSource = routing(replica);
+
+        assertThat(readServer(dataSource, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_whenPrimaryIsRequired_thenReadsFromPrimary() {
+        var dataSource = routing(replica);
+        ReplicaRoutingContext.requirePrimary();
+
+        assertThat(readServer(dataSource, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaIsDown_thenFallsBackToPrimary() throws SQLException {
+        DataSource failingReplica = Mockito.mock(DataSource.class);
+        when(failingReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        var dataSource = routing(failingReplica);
+
+        assertThat(readServer(dataSource, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaLagsBehind_thenReadsFromPrimaryUntilItCatchesUp() {
+        var routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica),
+                LAG_QUERY, Duration.ofSeconds(10), Duration.ofSeconds(30));
+        var dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        var replicaJdbc = new JdbcTemplate(replica);
+
+        replicaJdbc.update("UPDATE replication_status SET lag_seconds = 60");
+        routingDataSource.checkReplicas();
+        assertThat(readServer(dataSource, true)).isEqualTo("primary");
+
+        replicaJdbc.update("UPDATE replication_status SET lag_seconds = 0");
+        routingDataSource.checkReplicas();
+        assertThat(readServer(dataSource, true)).isEqualTo("replica");
+    }
+
+    private DataSource routing(DataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary,
+                List.of(replicaDataSource),
+                LAG_QUERY,
+                Duration.ofSeconds(10),
+                Duration.ofSeconds(30)));
+    }
+
+    private static String readServer(DataSource dataSource, boolean readOnly) {
+        var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource)
+                .queryForObject("SELECT name FROM server", String.class));
+    }
+
+    private static EmbeddedDatabase createDatabase(String name) {
+        var database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        var jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE server (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO server VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replication_status (lag_seconds DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO replication_status VALUES (0)");
+        return database;
+    }
+}
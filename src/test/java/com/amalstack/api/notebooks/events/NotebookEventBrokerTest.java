@@ -0,0 +1,96 @@
+package com.amalstack.api.notebooks.events;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.EntityType;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotebookEventBrokerTest {
+
+    private static final long NOTEBOOK_ID = 1;
+
+    // Queued deliveries are never run, as if every subscriber were stuck on a slow connection
+    private final List<Runnable> pendingDeliveries = new ArrayList<>();
+
+    private final NotebookEventBroker broker = new NotebookEventBroker(pendingDeliveries::add,
+            2,
+            4,
+            Duration.ofMinutes(1),
+            0);
+
+    @Test
+    void publish_whenSubscriberBufferOverflows_thenDisconnectsSubscriber() {
+        broker.subscribe(NOTEBOOK_ID, null);
+
+        broker.publish(event(1));
+        broker.publish(event(2));
+        assertThat(broker.subscriberCount(NOTEBOOK_ID)).isEqualTo(1);
+
+        broker.publish(event(3));
+        assertThat(broker.subscriberCount(NOTEBOOK_ID)).isZero();
+    }
+
+    @Test
+    void publish_whenEventBelongsToOtherNotebook_thenDoesNotQueueIt() {
+        broker.subscribe(NOTEBOOK_ID, null);
+
+        for (int i = 0; i < 10; i++) {
+            broker.publish(new NotebookChangeEvent(1, NOTEBOOK_ID + 1, EntityType.PAGE, i, Operation.UPDATED));
+        }
+
+        assertThat(broker.subscriberCount(NOTEBOOK_ID)).isEqualTo(1);
+        assertThat(pendingDeliveries).isEmpty();
+    }
+
+    @Test
+    void subscribe_whenMissedEventsAreStillInHistory_thenQueuesReplay() {
+        broker.publish(event(1));
+        broker.publish(event(2));
+
+        broker.subscribe(NOTEBOOK_ID, 1L);
+
+        assertThat(pendingDeliveries).hasSize(1);
+        assertThat(broker.subscriberCount(NOTEBOOK_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_whenMissedEventsWereEvictedFromHistory_thenStaysWithinBuffer() {
+        for (int i = 0; i < 10; i++) {
+            broker.publish(event(i));
+        }
+
+        // Only a reset event is sent instead of the whole backlog, so the subscriber is not dropped
+        broker.subscribe(NOTEBOOK_ID, 1L);
+
+        assertThat(broker.subscriberCount(NOTEBOOK_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_whenLastEventIdIsAheadOfBroker_thenQueuesReset() {
+        broker.publish(event(1));
+
+        // As after a restart, or when the id was given out by another instance
+        broker.subscribe(NOTEBOOK_ID, 100L);
+
+        assertThat(pendingDeliveries).hasSize(1);
+        assertThat(broker.subscriberCount(NOTEBOOK_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_whenUpToDate_thenQueuesNothing() {
+        broker.publish(event(1));
+
+        broker.subscribe(NOTEBOOK_ID, 1L);
+
+        assertThat(pendingDeliveries).isEmpty();
+    }
+
+    private static NotebookChangeEvent event(long pageId) {
+        return new NotebookChangeEvent(1, NOTEBOOK_ID, EntityType.PAGE, pageId, Operation.UPDATED);
+    }
+}
@@ -0,0 +1,91 @@
+package com.amalstack.api.notebooks.exception;
+
+import com.amalstack.api.notebooks.controller.DomainExceptionHandler;
+import com.amalstack.api.notebooks.dto.ErrorInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throwing and answering a missing notebook the way it used to be done, with a stack trace, a message
+ * formatted by {@link MessageFormat} and a body written by the object mapper, with the current error path. The
+ * exceptions are thrown from a few frames down, as they are from a controller. Run with
+ * {@code scripts/error-path-benchmark.sh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"40", "120"})
+    public int depth;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final DomainExceptionHandler handler = new DomainExceptionHandler();
+
+    private long id;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ErrorPathBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Benchmark
+    public byte[] stackTraceAndObjectMapper() throws Exception {
+        try {
+            throwAt(depth, true);
+            return null;
+        } catch (RuntimeException e) {
+            return objectMapper.writeValueAsBytes(
+                    new ErrorInfo<>(HttpStatus.NOT_FOUND, e.getMessage(), null));
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessAndTemplate() {
+        try {
+            throwAt(depth, false);
+            return null;
+        } catch (RuntimeException e) {
+            return handler.handle(e).getBody();
+        }
+    }
+
+    private void throwAt(int depth, boolean legacy) {
+        if (depth > 0) {
+            throwAt(depth - 1, legacy);
+            return;
+        }
+        id++;
+        throw legacy ? new LegacyNotFoundException(id) : new NotebookNotFoundByIdException(id);
+    }
+
+    // What NotebookNotFoundByIdException used to be
+    static class LegacyNotFoundException extends RuntimeException {
+        LegacyNotFoundException(long id) {
+            super(MessageFormat.format("The {0} with id {1} was not found", "notebook", id));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.amalstack.api.notebooks.limiting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void tryAcquire_whenLimitIsReached_thenRejectsUntilReleased() {
+        var limit = new AdaptiveConcurrencyLimit(1, 2);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release();
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_whenLatencyRises_thenBacksOffOncePerRoundTrip() {
+        var limit = new AdaptiveConcurrencyLimit(1, 100);
+        long now = sampleSteadyLatency(limit, 0, 1000);
+
+        // Requests that started together all see the slowdown, but only the first one cuts the limit
+        long start = now;
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.release(start, start + LATENCY * 10, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo((int) (100 * AdaptiveConcurrencyLimit.BACKOFF_RATIO));
+    }
+
+    @Test
+    void release_whenPoolHasWaiters_thenBacksOff() {
+        var limit = new AdaptiveConcurrencyLimit(1, 100);
+        long now = sampleSteadyLatency(limit, 0, 10);
+
+        limit.tryAcquire();
+        limit.release(now, now + LATENCY, true);
+
+        assertThat(limit.getLimit()).isLessThan(100);
+    }
+
+    @Test
+    void release_whenCongestionPersists_thenStopsAtMinimum() {
+        var limit = new AdaptiveConcurrencyLimit(5, 100);
+
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(now, now + LATENCY, true);
+            now += LATENCY + 1;
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void release_whenLatencyRecoversUnderLoad_thenGrowsBack() {
+        var limit = new AdaptiveConcurrencyLimit(1, 100);
+        long now = 0;
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(now, now + LATENCY, true);
+            now += LATENCY + 1;
+        }
+        int reduced = limit.getLimit();
+
+        // Keep the limit in use, so that the good samples count as evidence that more is possible
+        for (int i = 0; i < reduced; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(now, now + LATENCY, false);
+
+        assertThat(limit.getLimit()).isEqualTo(reduced + 1);
+    }
+
+    @Test
+    void constructor_whenLimitsAreInvalid_thenThrows() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(0, 10));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(10, 5));
+    }
+
+    private static long sampleSteadyLatency(AdaptiveConcurrencyLimit limit, long now, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.tryAcquire();
+            limit.release(now, now + LATENCY, false);
+            now += LATENCY;
+        }
+        return now;
+    }
+}
@@ -0,0 +1,117 @@
+package com.amalstack.api.notebooks.limiting;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initEach() {
+        ObjectProvider<DataSource> dataSources = Mockito.mock(ObjectProvider.class);
+        Mockito.when(dataSources.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        filter = new ConcurrencyLimitFilter(dataSources, 1, 1, 1, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void doFilter_whenLimitIsReached_thenRejectsWithRetryAfter() throws Exception {
+        var nested = new AtomicReference<MockHttpServletResponse>();
+
+        filter.doFilter(request("GET", "/notebooks/user"),
+                new MockHttpServletResponse(),
+                (request, response) -> nested.set(perform("GET", "/pages/1")));
+
+        assertThat(nested.get().getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(nested.get().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(perform("GET", "/pages/1").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void doFilter_whenCheapRequestsAreAtLimit_thenStillAdmitsExpensiveRequest() throws Exception {
+        var nested = new AtomicReference<MockHttpServletResponse>();
+
+        filter.doFilter(request("GET", "/notebooks/user"),
+                new MockHttpServletResponse(),
+                (request, response) -> nested.set(perform("GET", "/notebooks/1")));
+
+        assertThat(nested.get().getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void doFilter_whenExpensiveRequestsAreAtLimit_thenRejectsExpensiveRequest() throws Exception {
+        var nested = new AtomicReference<MockHttpServletResponse>();
+
+        filter.doFilter(request("POST", "/notebooks/1/copy"),
+                new MockHttpServletResponse(),
+                (request, response) -> nested.set(perform("GET", "/notebooks/2")));
+
+        assertThat(nested.get().getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @Test
+    void doFilter_whenResponseIsAsync_thenHoldsPermitUntilComplete() throws Exception {
+        var asyncRequest = request("GET", "/notebooks/1/tree");
+        asyncRequest.setAsyncSupported(true);
+
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertThat(perform("GET", "/notebooks/2/tree").getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        asyncRequest.getAsyncContext().complete();
+
+        assertThat(perform("GET", "/notebooks/2/tree").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void doFilter_whenEventStream_thenIsNotLimited() throws Exception {
+        var nested = new AtomicReference<MockHttpServletResponse>();
+
+        filter.doFilter(request("GET", "/notebooks/user"),
+                new MockHttpServletResponse(),
+                (request, response) -> nested.set(perform("GET", "/notebooks/1/events")));
+
+        assertThat(nested.get().getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void doFilter_whenAttachmentDownload_thenIsNotLimited() throws Exception {
+        var nested = new AtomicReference<MockHttpServletResponse>();
+
+        filter.doFilter(request("GET", "/notebooks/user"),
+                new MockHttpServletResponse(),
+                (request, response) -> nested.set(perform("GET", "/pages/1/attachments/2")));
+
+        assertThat(nested.get().getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    private MockHttpServletResponse perform(String method, String uri) {
+        var response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request(method, uri), response, (request, r) -> {
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
@@ -0,0 +1,79 @@
+package com.amalstack.api.notebooks.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class SqlLoggingDataSourceTest {
+
+    private Connection connection;
+
+    private SqlQueryLogger queryLogger;
+
+    private SqlLoggingDataSource dataSource;
+
+    @BeforeEach
+    void initEach() throws SQLException {
+        var target = Mockito.mock(DataSource.class);
+        connection = Mockito.mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        queryLogger = Mockito.mock(SqlQueryLogger.class);
+        dataSource = new SqlLoggingDataSource(target, queryLogger);
+    }
+
+    @Test
+    void executeQuery_whenPrepared_thenRecordsStatementWithParameters() throws SQLException {
+        final String sql = "select * from page where section_id=? and title=?";
+        when(connection.prepareStatement(sql)).thenReturn(Mockito.mock(PreparedStatement.class));
+        Map<Integer, Object> recorded = new HashMap<>();
+        Mockito.doAnswer(invocation -> {
+            recorded.putAll(invocation.getArgument(1));
+            return null;
+        }).when(queryLogger).record(eq(sql), anyMap(), anyLong());
+
+        PreparedStatement statement = dataSource.getConnection().prepareStatement(sql);
+        statement.setLong(1, 7L);
+        statement.setNull(2, Types.VARCHAR);
+        statement.executeQuery();
+
+        assertThat(recorded).containsEntry(1, 7L).containsEntry(2, null);
+    }
+
+    @Test
+    void execute_whenPlainStatement_thenRecordsExecutedSql() throws SQLException {
+        when(connection.createStatement()).thenReturn(Mockito.mock(Statement.class));
+
+        dataSource.getConnection().createStatement().execute("select 1");
+
+        Mockito.verify(queryLogger).record(eq("select 1"), anyMap(), anyLong());
+    }
+
+    @Test
+    void execute_whenStatementFails_thenRecordsAndRethrows() throws SQLException {
+        final String sql = "select * from notebook";
+        var statement = Mockito.mock(PreparedStatement.class);
+        when(statement.execute()).thenThrow(new SQLException("Canceled"));
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+
+        assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(() -> dataSource.getConnection().prepareStatement(sql).execute())
+                .withMessage("Canceled");
+        Mockito.verify(queryLogger).record(eq(sql), anyMap(), anyLong());
+    }
+}
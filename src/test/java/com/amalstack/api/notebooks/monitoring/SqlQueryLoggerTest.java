@@ -0,0 +1,133 @@
+package com.amalstack.api.notebooks.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlQueryLoggerTest {
+
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SqlQueryLogger.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void initEach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void cleanUpEach() {
+        logger.detachAppender(appender);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void record_whenStatementIsSlow_thenLogsWarningWithRedactedText() {
+        var queryLogger = new SqlQueryLogger(Duration.ofMillis(200), 0, true);
+
+        queryLogger.record("update page set title=?, content=? where id=?",
+                parameters("Title", "Secret content", 42L),
+                SLOW);
+
+        assertThat(appender.list).hasSize(1);
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getLevel()).isEqualTo(Level.WARN);
+        assertThat(fields(event))
+                .containsEntry("sql", "update page set title=?, content=? where id=?")
+                .containsEntry("parameters", List.of(SqlQueryLogger.REDACTED, SqlQueryLogger.REDACTED, "42"))
+                .containsEntry("durationMs", 500.0);
+    }
+
+    @Test
+    void record_whenRedactionIsDisabled_thenLogsText() {
+        var queryLogger = new SqlQueryLogger(Duration.ofMillis(200), 0, false);
+
+        queryLogger.record("select * from notebook where name=?", parameters("Notebook"), SLOW);
+
+        assertThat(fields(appender.list.get(0))).containsEntry("parameters", List.of("Notebook"));
+    }
+
+    @Test
+    void record_whenStatementIsFastAndNotSampled_thenLogsNothing() {
+        var queryLogger = new SqlQueryLogger(Duration.ofMillis(200), 0, true);
+
+        queryLogger.record("select * from notebook where id=?", parameters(1L), FAST);
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void record_whenStatementIsFastAndSampled_thenLogsInfo() {
+        var queryLogger = new SqlQueryLogger(Duration.ofMillis(200), 1, true);
+
+        queryLogger.record("select * from notebook where id=?", parameters(1L), FAST);
+
+        assertThat(appender.list).singleElement()
+                .extracting(ILoggingEvent::getLevel)
+                .isEqualTo(Level.INFO);
+    }
+
+    @Test
+    void record_whenExecutedByController_thenLogsControllerMethodAsOrigin() throws NoSuchMethodException {
+        var request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(this, SqlQueryLoggerTest.class.getDeclaredMethod("handler")));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        var queryLogger = new SqlQueryLogger(Duration.ofMillis(200), 0, true);
+
+        queryLogger.record("select * from notebook", parameters(), SLOW);
+
+        assertThat(fields(appender.list.get(0))).containsEntry("origin", "SqlQueryLoggerTest#handler");
+    }
+
+    @Test
+    void record_whenExecutedOutsideRequest_thenLogsThreadAsOrigin() {
+        var queryLogger = new SqlQueryLogger(Duration.ofMillis(200), 0, true);
+
+        queryLogger.record("select * from notebook", parameters(), SLOW);
+
+        assertThat(fields(appender.list.get(0))).containsEntry("origin", Thread.currentThread().getName());
+    }
+
+    @SuppressWarnings("unused")
+    private void handler() {
+
+    }
+
+    private static Map<Integer, Object> parameters(Object... values) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        for (int i = 0; i < values.length; i++) {
+            parameters.put(i + 1, values[i]);
+        }
+        return parameters;
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        return event.getKeyValuePairs()
+                .stream()
+                .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+    }
+}
@@ -0,0 +1,61 @@
+package com.amalstack.api.notebooks.ordering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class FractionalIndexTest {
+
+    @Test
+    void between_whenBothBoundsAreOpen_thenReturnsKey() {
+        assertThat(FractionalIndex.between(null, null)).isNotEmpty();
+    }
+
+    @Test
+    void between_whenBoundsAreGiven_thenKeyIsStrictlyBetweenThem() {
+        String key = FractionalIndex.between("a", "b");
+
+        assertThat(key).isGreaterThan("a").isLessThan("b");
+    }
+
+    @Test
+    void between_whenInsertingRepeatedlyAtRandomPositions_thenKeysStayOrdered() {
+        var random = new Random(42);
+        List<String> keys = new ArrayList<>(List.of(FractionalIndex.between(null, null)));
+
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(keys.size() + 1);
+            String before = index == 0 ? null : keys.get(index - 1);
+            String after = index == keys.size() ? null : keys.get(index);
+            keys.add(index, FractionalIndex.between(before, after));
+        }
+
+        assertThat(keys).isSorted().doesNotHaveDuplicates();
+        assertThat(keys).noneMatch(key -> key.endsWith("0"));
+    }
+
+    @Test
+    void between_whenBoundsAreOutOfOrder_thenThrows() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FractionalIndex.between("b", "a"));
+        assertThatIllegalArgumentException().isThrownBy(() -> FractionalIndex.between("a", "a"));
+    }
+
+    @Test
+    void between_whenKeyHasInvalidDigits_thenThrows() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FractionalIndex.between("A", null));
+        assertThatIllegalArgumentException().isThrownBy(() -> FractionalIndex.between(null, "a0"));
+    }
+
+    @Test
+    void evenlySpaced_whenCountIsGiven_thenReturnsShortAscendingKeys() {
+        List<String> keys = FractionalIndex.evenlySpaced(100);
+
+        assertThat(keys).hasSize(100).isSorted().doesNotHaveDuplicates();
+        assertThat(keys).allMatch(key -> key.length() <= 2);
+    }
+}
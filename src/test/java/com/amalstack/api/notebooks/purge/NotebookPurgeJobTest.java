@@ -0,0 +1,86 @@
+package com.amalstack.api.notebooks.purge;
+
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotebookPurgeJobTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestData data;
+
+    private NotebookPurgeJob job;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("NotebookPurgeJobTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+        // A batch size of one purges the pages of the test notebook over several batches
+        job = new NotebookPurgeJob(notebookRepository, sectionRepository, pageRepository, transactionManager,
+                Duration.ofDays(7), 1, 10, Duration.ZERO);
+    }
+
+    @Test
+    void purge_whenNotebookWasDeletedBeforeRetention_thenRemovesItWithItsContents() {
+        long notebookId = data.getNotebookWithSections().getId();
+        delete(data.getNotebookWithSections(), LocalDateTime.now().minusDays(8));
+
+        assertThat(job.purge()).isPositive();
+        entityManager.clear();
+
+        assertThat(notebookRepository.existsById(notebookId)).isFalse();
+        assertThat(sectionRepository.countByNotebookId(notebookId)).isZero();
+        assertThat(pageRepository.countByNotebookId(notebookId)).isZero();
+        assertThat(notebookRepository.existsById(data.getNotebookWithoutSections().getId())).isTrue();
+    }
+
+    @Test
+    void purge_whenNotebookWasDeletedWithinRetention_thenKeepsIt() {
+        long notebookId = data.getNotebookWithSections().getId();
+        delete(data.getNotebookWithSections(), LocalDateTime.now().minusDays(1));
+
+        job.purge();
+        entityManager.clear();
+
+        assertThat(notebookRepository.existsById(notebookId)).isTrue();
+        assertThat(pageRepository.countByNotebookId(notebookId)).isEqualTo(data.getPages().size());
+    }
+
+    private void delete(Notebook notebook, LocalDateTime deletedAt) {
+        Notebook managed = notebookRepository.findById(notebook.getId()).orElseThrow();
+        managed.setDeletedAt(deletedAt);
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,90 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.EntityType;
+import com.amalstack.api.notebooks.events.NotebookChangeEvent.Operation;
+import com.amalstack.api.notebooks.model.ChangeLogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ChangeLogEntryRepositoryTest {
+
+    private static final long OWNER_ID = 1_000_001;
+
+    private static final long OTHER_OWNER_ID = 1_000_002;
+
+    private static final long NOTEBOOK_ID = 10;
+
+    @Autowired
+    private ChangeLogEntryRepository changeLogEntryRepository;
+
+    @Test
+    void findLatestChanges_whenEntityChangedRepeatedly_thenReturnsOnlyLatestChange() {
+        var now = Instant.now();
+        var created = record(OWNER_ID, EntityType.PAGE, 1, Operation.CREATED, now);
+        record(OWNER_ID, EntityType.PAGE, 1, Operation.UPDATED, now);
+        var deleted = record(OWNER_ID, EntityType.PAGE, 1, Operation.DELETED, now);
+        var section = record(OWNER_ID, EntityType.SECTION, 1, Operation.UPDATED, now);
+        record(OTHER_OWNER_ID, EntityType.PAGE, 2, Operation.CREATED, now);
+
+        var changes = changeLogEntryRepository.findLatestChanges(OWNER_ID,
+                created.getId() - 1,
+                now,
+                PageRequest.ofSize(10));
+
+        assertThat(changes)
+                .extracting(ChangeLogEntry::getId)
+                .containsExactly(deleted.getId(), section.getId());
+        assertThat(changes.get(0).getOperation()).isEqualTo(Operation.DELETED);
+    }
+
+    @Test
+    void findLatestChanges_whenEntriesAreYoungerThanCutoff_thenLeavesThemOut() {
+        var now = Instant.now();
+        var settled = record(OWNER_ID, EntityType.NOTEBOOK, NOTEBOOK_ID, Operation.UPDATED, now.minusSeconds(5));
+        record(OWNER_ID, EntityType.SECTION, 3, Operation.CREATED, now);
+
+        var changes = changeLogEntryRepository.findLatestChanges(OWNER_ID,
+                settled.getId() - 1,
+                now.minusSeconds(1),
+                PageRequest.ofSize(10));
+
+        assertThat(changes)
+                .extracting(ChangeLogEntry::getId)
+                .containsExactly(settled.getId());
+    }
+
+    @Test
+    void deleteRecordedBefore_thenPrunesOnlyOldEntries() {
+        var now = Instant.now();
+        var old = record(OWNER_ID, EntityType.PAGE, 4, Operation.CREATED, now.minus(Duration.ofDays(31)));
+        var recent = record(OWNER_ID, EntityType.PAGE, 4, Operation.UPDATED, now);
+
+        changeLogEntryRepository.deleteRecordedBefore(now.minus(Duration.ofDays(30)));
+
+        assertThat(changeLogEntryRepository.findById(old.getId())).isEmpty();
+        assertThat(changeLogEntryRepository.findById(recent.getId())).isPresent();
+    }
+
+    private ChangeLogEntry record(long ownerId,
+                                  EntityType entityType,
+                                  long entityId,
+                                  Operation operation,
+                                  Instant recordedAt) {
+        return changeLogEntryRepository.save(new ChangeLogEntry(ownerId,
+                NOTEBOOK_ID,
+                entityType,
+                entityId,
+                operation,
+                recordedAt));
+    }
+}
@@ -1,13 +1,23 @@
 package com.amalstack.api.notebooks.repository;
 
 import com.amalstack.api.notebooks.model.AppUser;
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
 import org.mockito.AdditionalAnswers;
 import org.mockito.Mockito;
+import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 public class MockRepositoryInitializer extends MockRepositoryInitializerBase {
+    // Far above the ids of the test data
+    private final AtomicLong generatedIds = new AtomicLong(10000);
+
     MockRepositoryInitializer(TestData testData) {
         super(testData);
     }
@@ -57,7 +67,7 @@ public class MockRepositoryInitializer extends MockRepositoryInitializerBase {
                         .findById(testData.unowned().notebook().getId()))
                 .thenReturn(Optional.of(testData.unowned().notebook()));
 
-        super.initMocks(notebookRepository);
+        assignIdsOnSave(notebookRepository, Notebook.class, Notebook::getId, Notebook::setId);
     }
 
     public void initMocks(SectionRepository sectionRepository) {
@@ -77,18 +87,28 @@ public class MockRepositoryInitializer extends MockRepositoryInitializerBase {
                         .findById(testData.unowned().section().getId()))
                 .thenReturn(Optional.of(testData.unowned().section()));
 
-        super.initMocks(sectionRepository);
+        assignIdsOnSave(sectionRepository, Section.class, Section::getId, Section::setId);
     }
 
     public void initMocks(PageRepository pageRepository) {
         Mockito.when(pageRepository
-                        .findBySectionId(testData.getSection1WithPages().getId()))
+                        .findByNotebookIdAndSectionId(testData.getNotebookWithSections().getId(),
+                                testData.getSection1WithPages().getId()))
                 .thenReturn(testData.getSection1Pages());
         Mockito.when(pageRepository
-                        .findBySectionId(testData.getSection2WithPages().getId()))
+                        .findByNotebookIdAndSectionId(testData.getNotebookWithSections().getId(),
+                                testData.getSection2WithPages().getId()))
                 .thenReturn(testData.getSection2Pages());
         Mockito.when(pageRepository
-                        .findBySectionId(testData.getSectionWithoutPages().getId()))
+                        .findByNotebookIdAndSectionId(testData.getNotebookWithSections().getId(),
+                                testData.getSectionWithoutPages().getId()))
+                .thenReturn(Collections.emptyList());
+
+        Mockito.when(pageRepository
+                        .findByNotebookId(testData.getNotebookWithSections().getId()))
+                .thenReturn(testData.getPages());
+        Mockito.when(pageRepository
+                        .findByNotebookId(testData.getNotebookWithoutSections().getId()))
                 .thenReturn(Collections.emptyList());
 
         testData.getPages().forEach(page -> Mockito
@@ -100,6 +120,20 @@ public class MockRepositoryInitializer extends MockRepositoryInitializerBase {
                         .findById(testData.unowned().page().getId()))
                 .thenReturn(Optional.of(testData.unowned().page()));
 
-        super.initMocks(pageRepository);
+        assignIdsOnSave(pageRepository, Page.class, Page::getId, Page::setId);
+    }
+
+    // Saving a new entity gives it an id like the database would, the change events of the controllers carry it
+    private <T> void assignIdsOnSave(JpaRepository<T, Long> repository,
+                                     Class<T> type,
+                                     Function<T, Long> getId,
+                                     BiConsumer<T, Long> setId) {
+        Mockito.when(repository.save(Mockito.any(type))).then(invocation -> {
+            T entity = invocation.getArgument(0);
+            if (getId.apply(entity) == null) {
+                setId.accept(entity, generatedIds.incrementAndGet());
+            }
+            return entity;
+        });
     }
 }
@@ -0,0 +1,100 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotebookCopierTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestData data;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("NotebookCopierTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+    }
+
+    @Test
+    void copySections_thenCopiesSectionsAndPagesInOrderWithNewIds() {
+        long sourceId = data.getNotebookWithSections().getId();
+        long targetId = data.getNotebookWithoutSections().getId();
+
+        int copiedPages = notebookRepository.copySections(sourceId, targetId);
+        entityManager.clear();
+
+        assertThat(copiedPages).isEqualTo(data.getPages().size());
+        Collection<Section> copies = sectionRepository.findByNotebookId(targetId);
+        assertThat(copies)
+                .extracting(Section::getName, Section::getPosition, Section::getPageCount)
+                .containsExactlyElementsOf(data.getSections()
+                        .stream()
+                        .map(section -> tuple(
+                                section.getName(), section.getPosition(), section.getPageCount()))
+                        .toList());
+        assertThat(copies)
+                .extracting(Section::getId)
+                .doesNotContainAnyElementsOf(data.getSections().stream().map(Section::getId).toList());
+        assertThat(pageRepository.findByNotebookId(targetId))
+                .extracting(Page::getTitle)
+                .containsExactlyInAnyOrderElementsOf(data.getPages().stream().map(Page::getTitle).toList());
+        assertThat(pageRepository.findByNotebookId(sourceId)).hasSize(data.getPages().size());
+    }
+
+    @Test
+    void copyPages_thenCopiesPagesIntoTargetSection() {
+        Section source = data.getSection1WithPages();
+        Section target = data.getSectionWithoutPages();
+
+        int copiedPages = sectionRepository.copyPages(source, target);
+        entityManager.clear();
+
+        assertThat(copiedPages).isEqualTo(data.getSection1Pages().size());
+        assertThat(pageRepository.findByNotebookIdAndSectionId(target.getNotebook().getId(), target.getId()))
+                .extracting(Page::getTitle, Page::getContent, Page::getPosition)
+                .containsExactlyElementsOf(data.getSection1Pages()
+                        .stream()
+                        .map(page -> tuple(
+                                page.getTitle(), page.getContent(), page.getPosition()))
+                        .toList());
+    }
+
+    @Test
+    void copySections_whenSourceHasNoSections_thenCopiesNothing() {
+        int copiedPages = notebookRepository.copySections(data.getNotebookWithoutSections().getId(),
+                data.getNotebookWithSections().getId());
+        entityManager.clear();
+
+        assertThat(copiedPages).isZero();
+        assertThat(sectionRepository.countByNotebookId(data.getNotebookWithSections().getId()))
+                .isEqualTo(data.getSections().size());
+    }
+}
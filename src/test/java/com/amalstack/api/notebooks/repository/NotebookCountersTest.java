@@ -0,0 +1,113 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotebookCountersTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestData data;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("NotebookCountersTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+    }
+
+    @Test
+    void onPageAdded_thenIncrementsSectionAndNotebookPageCounts() {
+        Section section = sectionRepository.findById(data.getSectionWithoutPages().getId()).orElseThrow();
+
+        Page page = pageRepository.save(new Page("Added Page", "Contents", section));
+        pageRepository.onPageAdded(page);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(section(data.getSectionWithoutPages()).getPageCount()).isEqualTo(1);
+        assertThat(notebook(data.getNotebookWithSections()).getPageCount()).isEqualTo(data.getPages().size() + 1);
+    }
+
+    @Test
+    void onPageRemoved_whenPageMovesWithinNotebook_thenOnlyAdjustsSectionPageCounts() {
+        Page page = pageRepository.findById(data.getPage1OfSection1().getId()).orElseThrow();
+        Section target = sectionRepository.findById(data.getSection2WithPages().getId()).orElseThrow();
+
+        pageRepository.onPageRemoved(page);
+        page.setSection(target);
+        pageRepository.onPageAdded(page);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(section(data.getSection1WithPages()).getPageCount()).isEqualTo(data.getSection1Pages().size() - 1);
+        assertThat(section(data.getSection2WithPages()).getPageCount()).isEqualTo(data.getSection2Pages().size() + 1);
+        assertThat(notebook(data.getNotebookWithSections()).getPageCount()).isEqualTo(data.getPages().size());
+    }
+
+    @Test
+    void onSectionRemoved_thenSubtractsSectionAndItsPagesFromNotebook() {
+        Section section = sectionRepository.findById(data.getSection1WithPages().getId()).orElseThrow();
+
+        sectionRepository.onSectionRemoved(section);
+        sectionRepository.delete(section);
+        entityManager.flush();
+        entityManager.clear();
+
+        Notebook notebook = notebook(data.getNotebookWithSections());
+        assertThat(notebook.getSectionCount()).isEqualTo(data.getSections().size() - 1);
+        assertThat(notebook.getPageCount()).isEqualTo(data.getPages().size() - data.getSection1Pages().size());
+    }
+
+    @Test
+    void onSectionAdded_whenSectionMovesBetweenNotebooks_thenMovesItsPageCount() {
+        Section section = sectionRepository.findById(data.getSection2WithPages().getId()).orElseThrow();
+        Notebook target = notebookRepository.findById(data.getNotebookWithoutSections().getId()).orElseThrow();
+
+        sectionRepository.onSectionRemoved(section);
+        section.setNotebook(target);
+        sectionRepository.onSectionAdded(section);
+        entityManager.flush();
+        entityManager.clear();
+
+        Notebook source = notebook(data.getNotebookWithSections());
+        assertThat(source.getSectionCount()).isEqualTo(data.getSections().size() - 1);
+        assertThat(source.getPageCount()).isEqualTo(data.getPages().size() - data.getSection2Pages().size());
+        Notebook moved = notebook(data.getNotebookWithoutSections());
+        assertThat(moved.getSectionCount()).isEqualTo(1);
+        assertThat(moved.getPageCount()).isEqualTo(data.getSection2Pages().size());
+    }
+
+    private Notebook notebook(Notebook notebook) {
+        return notebookRepository.findById(notebook.getId()).orElseThrow();
+    }
+
+    private Section section(Section section) {
+        return sectionRepository.findById(section.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.dto.BookmarkDto;
+import com.amalstack.api.notebooks.model.Page;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PageBookmarkRepositoryTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private PageBookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestData data;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("PageBookmarkRepositoryTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+    }
+
+    @Test
+    void addIfAbsent_whenAddedTwice_thenKeepsOneBookmark() {
+        long userId = data.getAppUserWithNotebooks().getId();
+        long pageId = data.getPage1OfSection1().getId();
+
+        assertThat(bookmarkRepository.addIfAbsent(userId, pageId)).isEqualTo(1);
+        assertThat(bookmarkRepository.addIfAbsent(userId, pageId)).isZero();
+
+        assertThat(bookmarkRepository.findPageIdsByUsername(data.getAppUserWithNotebooks().getUsername()))
+                .containsExactly(pageId);
+    }
+
+    @Test
+    void findByUsername_thenReturnsPageSectionAndNotebookNames() {
+        Page page = data.getPage1OfSection2();
+        bookmarkRepository.addIfAbsent(data.getAppUserWithNotebooks().getId(), page.getId());
+
+        assertThat(bookmarkRepository.findByUsername(data.getAppUserWithNotebooks().getUsername()))
+                .containsExactly(BookmarkDto.fromPage(page));
+        assertThat(bookmarkRepository.findByUsername(data.getAppUserWithoutNotebooks().getUsername())).isEmpty();
+    }
+
+    @Test
+    void findByUsername_whenNotebookIsDeleted_thenLeavesBookmarkOut() {
+        bookmarkRepository.addIfAbsent(data.getAppUserWithNotebooks().getId(), data.getPage1OfSection1().getId());
+        notebookRepository.findById(data.getNotebookWithSections().getId())
+                .orElseThrow()
+                .setDeletedAt(LocalDateTime.now());
+        entityManager.flush();
+
+        assertThat(bookmarkRepository.findByUsername(data.getAppUserWithNotebooks().getUsername())).isEmpty();
+    }
+
+    @Test
+    void deleteById_whenPageIsBookmarked_thenRemovesBookmarkWithPage() {
+        long pageId = data.getPage2OfSection1().getId();
+        bookmarkRepository.addIfAbsent(data.getAppUserWithNotebooks().getId(), pageId);
+
+        pageRepository.deleteById(pageId);
+        entityManager.flush();
+
+        assertThat(bookmarkRepository.findPageIdsByUsername(data.getAppUserWithNotebooks().getUsername()))
+                .doesNotContain(pageId);
+    }
+}
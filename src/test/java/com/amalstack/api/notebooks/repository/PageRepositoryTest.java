@@ -6,6 +6,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,8 +27,13 @@ class PageRepositoryTest {
     @Autowired
     private AppUserRepository appUserRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private TestData data;
 
+    private Long notebookId;
+
     private Long section1Id;
 
 
@@ -35,12 +41,13 @@ class PageRepositoryTest {
     void init() {
         data = new TestData("PageRepositoryTest");
         data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+        notebookId = data.getNotebookWithSections().getId();
         section1Id = data.getSection1WithPages().getId();
     }
 
     @Test
-    void findBySectionId_whenSectionContainsPages_thenFindsPagesBySectionId() {
-        var pages = pageRepository.findBySectionId(section1Id);
+    void findByNotebookIdAndSectionId_whenSectionContainsPages_thenFindsPagesBySectionId() {
+        var pages = pageRepository.findByNotebookIdAndSectionId(notebookId, section1Id);
 
         assertThat(pages).hasSize(data.getSection1Pages().size());
 
@@ -50,16 +57,16 @@ class PageRepositoryTest {
     }
 
     @Test
-    void findBySectionId_whenSectionContainsNoPages_thenReturnsEmptyCollection() {
-        var pages = pageRepository.findBySectionId(
+    void findByNotebookIdAndSectionId_whenSectionContainsNoPages_thenReturnsEmptyCollection() {
+        var pages = pageRepository.findByNotebookIdAndSectionId(notebookId,
                 data.getSectionWithoutPages().getId());
 
         assertThat(pages).isEmpty();
     }
 
     @Test
-    void findBySectionId_whenSectionDoesNotExist_thenReturnsEmptyCollection() {
-        var pages = pageRepository.findBySectionId(data
+    void findByNotebookIdAndSectionId_whenSectionDoesNotExist_thenReturnsEmptyCollection() {
+        var pages = pageRepository.findByNotebookIdAndSectionId(notebookId, data
                 .nonPersistent()
                 .section()
                 .getId());
@@ -68,23 +75,52 @@ class PageRepositoryTest {
     }
 
     @Test
-    void countBySectionId_whenSectionContainsPages_thenCountsPagesBySectionId() {
-        var count = pageRepository.countBySectionId(section1Id);
+    void findByNotebookId_whenNotebookContainsPages_thenFindsPagesOfAllSections() {
+        var pages = pageRepository.findByNotebookId(notebookId);
+
+        assertThat(pages).hasSize(data.getPages().size());
+
+        assertThat(pages)
+                .extracting(p -> p.getSection().getNotebook().getId())
+                .allMatch(i -> i.equals(notebookId));
+    }
+
+    @Test
+    void findByNotebookId_whenNotebookContainsNoSections_thenReturnsEmptyCollection() {
+        var pages = pageRepository.findByNotebookId(
+                data.getNotebookWithoutSections().getId());
+
+        assertThat(pages).isEmpty();
+    }
+
+    @Test
+    void findByNotebookId_whenNotebookDoesNotExist_thenReturnsEmptyCollection() {
+        var pages = pageRepository.findByNotebookId(data
+                .nonPersistent()
+                .notebook()
+                .getId());
+
+        assertThat(pages).isEmpty();
+    }
+
+    @Test
+    void countByNotebookIdAndSectionId_whenSectionContainsPages_thenCountsPagesBySectionId() {
+        var count = pageRepository.countByNotebookIdAndSectionId(notebookId, section1Id);
 
         assertThat(count).isEqualTo(data.getSection1Pages().size());
     }
 
     @Test
-    void countBySectionId_whenSectionContainsNoPages_thenReturns0() {
-        var count = pageRepository.countBySectionId(data
+    void countByNotebookIdAndSectionId_whenSectionContainsNoPages_thenReturns0() {
+        var count = pageRepository.countByNotebookIdAndSectionId(notebookId, data
                 .getSectionWithoutPages().getId());
 
         assertThat(count).isZero();
     }
 
     @Test
-    void countBySectionId_whenSectionDoesNotExist_thenReturns0() {
-        var count = pageRepository.countBySectionId(data
+    void countByNotebookIdAndSectionId_whenSectionDoesNotExist_thenReturns0() {
+        var count = pageRepository.countByNotebookIdAndSectionId(notebookId, data
                 .nonPersistent()
                 .section()
                 .getId());
@@ -93,8 +129,8 @@ class PageRepositoryTest {
     }
 
     @Test
-    void countBySectionNotebookId_whenNotebookContainsSections_thenCountsPagesOfAllSectionsByNotebookId() {
-        var count = pageRepository.countBySectionNotebookId(data
+    void countByNotebookId_whenNotebookContainsSections_thenCountsPagesOfAllSectionsByNotebookId() {
+        var count = pageRepository.countByNotebookId(data
                 .getNotebookWithSections()
                 .getId());
         // Both the below sections belong to the notebook
@@ -104,8 +140,8 @@ class PageRepositoryTest {
     }
 
     @Test
-    void countBySectionNotebookId_whenNotebookContainsNoSections_thenReturns0() {
-        var count = pageRepository.countBySectionNotebookId(data
+    void countByNotebookId_whenNotebookContainsNoSections_thenReturns0() {
+        var count = pageRepository.countByNotebookId(data
                 .getNotebookWithoutSections()
                 .getId());
 
@@ -113,8 +149,8 @@ class PageRepositoryTest {
     }
 
     @Test
-    void countBySectionNotebookId_whenNotebookDoesNotExist_thenReturns0() {
-        var count = pageRepository.countBySectionNotebookId(data
+    void countByNotebookId_whenNotebookDoesNotExist_thenReturns0() {
+        var count = pageRepository.countByNotebookId(data
                 .nonPersistent()
                 .notebook()
                 .getId());
@@ -122,4 +158,29 @@ class PageRepositoryTest {
         assertThat(count).isZero();
     }
 
-}
\ No newline at end of file
+    @Test
+    void findById_whenPageExists_thenFindsItInItsNotebooksPartition() {
+        var page = data.getPage2OfSection1();
+
+        assertThat(pageRepository.findById(page.getId()))
+                .hasValueSatisfying(found -> {
+                    assertThat(found.getTitle()).isEqualTo(page.getTitle());
+                    assertThat(found.getNotebookId()).isEqualTo(notebookId);
+                });
+    }
+
+    @Test
+    void findById_whenSectionMovedToAnotherNotebook_thenFindsItsPagesInTheNewPartition() {
+        var section = sectionRepository.findById(data.getSection2WithPages().getId()).orElseThrow();
+        var targetNotebook = notebookRepository.findById(data.getNotebookWithoutSections().getId()).orElseThrow();
+        section.setNotebook(targetNotebook);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(pageRepository.findByNotebookId(targetNotebook.getId()))
+                .hasSize(data.getSection2Pages().size());
+        data.getSection2Pages().forEach(page -> assertThat(pageRepository.findById(page.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getNotebookId()).isEqualTo(targetNotebook.getId())));
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.AppUser;
+import com.amalstack.api.notebooks.model.Notebook;
+import com.amalstack.api.notebooks.model.Page;
+import com.amalstack.api.notebooks.model.Section;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private TestData data;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("SecondLevelCacheTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+    }
+
+    @Test
+    void findById_whenEntityWasLoaded_thenServesItFromCache() {
+        long notebookId = data.getNotebookWithSections().getId();
+        notebookRepository.findById(notebookId);
+        long hits = statistics().getSecondLevelCacheHitCount();
+
+        notebookRepository.findById(notebookId);
+
+        assertThat(cache().contains(Notebook.class, notebookId)).isTrue();
+        assertThat(statistics().getSecondLevelCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    void findById_whenEntityIsPage_thenDoesNotCacheIt() {
+        long pageId = data.getPage1OfSection1().getId();
+
+        pageRepository.findById(pageId);
+
+        assertThat(cache().contains(Page.class, pageId)).isFalse();
+    }
+
+    @Test
+    void findByUsername_whenCalledTwice_thenHitsQueryCache() {
+        String username = data.getAppUserWithNotebooks().getUsername();
+        appUserRepository.findByUsername(username);
+        long hits = statistics().getQueryCacheHitCount();
+
+        var user = appUserRepository.findByUsername(username).orElseThrow();
+
+        assertThat(statistics().getQueryCacheHitCount()).isGreaterThan(hits);
+        assertThat(cache().contains(AppUser.class, user.getId())).isTrue();
+    }
+
+    @Test
+    void findByNotebookId_whenSectionIsAdded_thenInvalidatesCachedResult() {
+        var notebook = data.getNotebookWithoutSections();
+        assertThat(sectionRepository.findByNotebookId(notebook.getId())).isEmpty();
+
+        sectionRepository.save(new Section("Added Section", notebook));
+
+        assertThat(sectionRepository.findByNotebookId(notebook.getId()))
+                .extracting(Section::getName)
+                .containsExactly("Added Section");
+    }
+
+    @Test
+    void deleteByNotebookId_thenEvictsCachedSections() {
+        var owner = data.getAppUserWithNotebooks();
+        var notebook = notebookRepository.save(new Notebook("Deleted Notebook", "", null, owner));
+        var section = sectionRepository.save(new Section("Deleted Section", notebook));
+        assertThat(sectionRepository.findByNotebookId(notebook.getId())).hasSize(1);
+        assertThat(cache().contains(Section.class, section.getId())).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            sectionRepository.deleteByNotebookId(notebook.getId());
+            notebookRepository.deleteById(notebook.getId());
+        });
+
+        assertThat(cache().contains(Section.class, section.getId())).isFalse();
+        assertThat(sectionRepository.findByNotebookId(notebook.getId())).isEmpty();
+        assertThat(sectionRepository.findById(section.getId())).isEmpty();
+    }
+
+    private jakarta.persistence.Cache cache() {
+        return entityManagerFactory.getCache();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,81 @@
+package com.amalstack.api.notebooks.repository;
+
+import com.amalstack.api.notebooks.model.Notebook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SoftDeleteTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private NotebookRepository notebookRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestData data;
+
+    @BeforeAll
+    void init() {
+        data = new TestData("SoftDeleteTest");
+        data.saveToRepositories(appUserRepository, notebookRepository, sectionRepository, pageRepository);
+    }
+
+    @Test
+    void findById_whenNotebookIsDeleted_thenHidesNotebookAndItsContents() {
+        deleteNotebookWithSections(LocalDateTime.now());
+
+        assertThat(notebookRepository.findById(data.getNotebookWithSections().getId())).isEmpty();
+        assertThat(sectionRepository.findById(data.getSection1WithPages().getId())).isEmpty();
+        assertThat(pageRepository.findById(data.getPage1OfSection1().getId())).isEmpty();
+        assertThat(notebookRepository.findById(data.getNotebookWithoutSections().getId())).isPresent();
+    }
+
+    @Test
+    void findByOwnerUsername_whenNotebookIsDeleted_thenLeavesItOut() {
+        deleteNotebookWithSections(LocalDateTime.now());
+
+        assertThat(notebookRepository.findByOwnerUsername(data.getAppUserWithNotebooks().getUsername()))
+                .extracting(Notebook::getId)
+                .containsExactly(data.getNotebookWithoutSections().getId());
+    }
+
+    @Test
+    void findDeletedById_whenDeletedWithinWindow_thenFindsNotebook() {
+        deleteNotebookWithSections(LocalDateTime.now().minusDays(1));
+
+        assertThat(notebookRepository.findDeletedById(data.getNotebookWithSections().getId(),
+                LocalDateTime.now().minusDays(7))).isPresent();
+        assertThat(notebookRepository.findDeletedById(data.getNotebookWithSections().getId(),
+                LocalDateTime.now())).isEmpty();
+        assertThat(notebookRepository.findDeletedById(data.getNotebookWithoutSections().getId(),
+                LocalDateTime.now().minusDays(7))).isEmpty();
+    }
+
+    private void deleteNotebookWithSections(LocalDateTime deletedAt) {
+        Notebook notebook = notebookRepository.findById(data.getNotebookWithSections().getId()).orElseThrow();
+        notebook.setDeletedAt(deletedAt);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -4,9 +4,11 @@ import com.amalstack.api.notebooks.model.AppUser;
 import com.amalstack.api.notebooks.model.Notebook;
 import com.amalstack.api.notebooks.model.Page;
 import com.amalstack.api.notebooks.model.Section;
+import com.amalstack.api.notebooks.ordering.FractionalIndex;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public class TestData {
 
@@ -56,11 +58,25 @@ public class TestData {
     public TestData(String randomString, boolean setIds) {
         // Prefix each username with the supplied random string
         getAppUsers().forEach(u -> u.setUsername(randomString + u.getUsername()));
+        sectionWithPages1.setPageCount(section1Pages.size());
+        sectionWithPages2.setPageCount(section2Pages.size());
+        notebookWithSections.setSectionCount(getSections().size());
+        notebookWithSections.setPageCount(getPages().size());
+        assignPositions(getSections(), Section::setPosition);
+        assignPositions(section1Pages, Page::setPosition);
+        assignPositions(section2Pages, Page::setPosition);
         if (setIds) {
             setIds();
         }
     }
 
+    private static <T> void assignPositions(List<T> items, BiConsumer<T, String> setPosition) {
+        var positions = FractionalIndex.evenlySpaced(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            setPosition.accept(items.get(i), positions.get(i));
+        }
+    }
+
     private void setIds() {
         var appUsers = getAppUsers();
         for (int i = 0; i < appUsers.size(); i++) {
@@ -2,6 +2,7 @@ package com.amalstack.api.notebooks.security;
 
 import com.amalstack.api.notebooks.model.AppUser;
 import com.amalstack.api.notebooks.repository.AppUserRepository;
+import com.amalstack.api.notebooks.sharding.ShardDirectory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -28,6 +30,9 @@ class AppUserDetailsServiceTest {
     @Mock
     private AppUserRepository appUserRepository;
 
+    @Mock
+    private ObjectProvider<ShardDirectory> shardDirectory;
+
     @InjectMocks
     private AppUserDetailsService appUserDetailsService;
 
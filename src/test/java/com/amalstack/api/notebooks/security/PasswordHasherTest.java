@@ -0,0 +1,57 @@
+package com.amalstack.api.notebooks.security;
+
+import com.amalstack.api.notebooks.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void encode_thenCompletesWithEncodedPassword() throws Exception {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode("password")).thenReturn("encoded");
+        hasher = new PasswordHasher(encoder, 1, 1);
+
+        assertThat(hasher.encode("password").get(5, TimeUnit.SECONDS)).isEqualTo("encoded");
+    }
+
+    @Test
+    void encode_whenPoolAndQueueAreFull_thenFailsWithoutBlocking() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return "encoded";
+        });
+        hasher = new PasswordHasher(encoder, 1, 1);
+
+        CompletableFuture<String> running = hasher.encode("first");
+        CompletableFuture<String> queued = hasher.encode("second");
+        CompletableFuture<String> rejected = hasher.encode("third");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(running).isNotDone();
+        assertThat(queued).isNotDone();
+    }
+}
@@ -0,0 +1,105 @@
+package com.amalstack.api.notebooks.sharding;
+
+import com.amalstack.api.notebooks.exception.UsernameAlreadyExistsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ShardDirectoryTest {
+
+    private static final int SHARD_COUNT = 4;
+
+    private EmbeddedDatabase database;
+
+    private ShardDirectory directory;
+
+    @BeforeEach
+    void initEach() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("""
+                CREATE TABLE user_shard (
+                    username VARCHAR(255) PRIMARY KEY,
+                    shard INTEGER NOT NULL,
+                    moving BOOLEAN NOT NULL DEFAULT FALSE)""");
+        directory = new ShardDirectory(database, SHARD_COUNT, Duration.ofMinutes(1), 100);
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void assign_thenUserIsFoundOnAssignedShard() {
+        int shard = directory.assign("user@example.com");
+
+        assertThat(shard).isBetween(0, SHARD_COUNT - 1);
+        assertThat(directory.find("user@example.com"))
+                .contains(new ShardDirectory.Assignment(shard, false));
+    }
+
+    @Test
+    void assign_whenUsernameIsAssigned_thenThrows() {
+        directory.assign("user@example.com");
+
+        assertThatExceptionOfType(UsernameAlreadyExistsException.class)
+                .isThrownBy(() -> directory.assign("user@example.com"));
+    }
+
+    @Test
+    void assign_thenSpreadsUsersOverAllShards() {
+        var shards = IntStream.range(0, 1000)
+                .map(i -> directory.assign("user" + i + "@example.com"))
+                .boxed()
+                .toList();
+
+        assertThat(shards).containsAll(IntStream.range(0, SHARD_COUNT).boxed().toList());
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            int current = shard;
+            assertThat(shards.stream().filter(s -> s == current).count()).isBetween(150L, 350L);
+        }
+    }
+
+    @Test
+    void find_whenUsernameIsNotAssigned_thenDoesNotCacheMiss() {
+        assertThat(directory.find("user@example.com")).isEmpty();
+
+        new JdbcTemplate(database).update("INSERT INTO user_shard (username, shard) VALUES (?, 2)", "user@example.com");
+
+        assertThat(directory.find("user@example.com")).contains(new ShardDirectory.Assignment(2, false));
+    }
+
+    @Test
+    void setMovingAndReassign_thenFindReflectsThem() {
+        int shard = directory.assign("user@example.com");
+        int target = (shard + 1) % SHARD_COUNT;
+
+        directory.setMoving("user@example.com", true);
+        assertThat(directory.find("user@example.com")).contains(new ShardDirectory.Assignment(shard, true));
+
+        directory.reassign("user@example.com", target);
+        assertThat(directory.find("user@example.com")).contains(new ShardDirectory.Assignment(target, false));
+    }
+
+    @Test
+    void unassign_thenUserIsNotFound() {
+        directory.assign("user@example.com");
+
+        directory.unassign("user@example.com");
+
+        assertThat(directory.find("user@example.com")).isEmpty();
+    }
+}
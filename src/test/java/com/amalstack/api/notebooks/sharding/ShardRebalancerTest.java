@@ -0,0 +1,208 @@
+package com.amalstack.api.notebooks.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ShardRebalancerTest {
+
+    private static final String MOVING_USERNAME = "moving@example.com";
+
+    private static final String STAYING_USERNAME = "staying@example.com";
+
+    private EmbeddedDatabase source;
+
+    private EmbeddedDatabase target;
+
+    private ShardRoutingDataSource shards;
+
+    private ShardDirectory directory;
+
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void initEach() {
+        source = createShard();
+        target = createShard();
+        shards = new ShardRoutingDataSource(List.of(source, target));
+        directory = new ShardDirectory(source, 2, Duration.ZERO, 100);
+        rebalancer = new ShardRebalancer(directory, shards, Duration.ZERO);
+
+        var sourceJdbc = new JdbcTemplate(source);
+        insertUser(sourceJdbc, 1, MOVING_USERNAME);
+        insertUser(sourceJdbc, 2, STAYING_USERNAME);
+        sourceJdbc.update("INSERT INTO user_shard (username, shard) VALUES (?, 0), (?, 0)",
+                MOVING_USERNAME, STAYING_USERNAME);
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        shards.close();
+        source.shutdown();
+        target.shutdown();
+    }
+
+    @Test
+    void move_thenCopiesRowsToTargetAndDeletesThemFromSource() throws InterruptedException {
+        rebalancer.move(MOVING_USERNAME, 1);
+
+        var sourceJdbc = new JdbcTemplate(source);
+        var targetJdbc = new JdbcTemplate(target);
+        assertThat(ids(targetJdbc, "app_user")).containsExactly(1L);
+        assertThat(ids(targetJdbc, "notebook")).containsExactly(100L);
+        assertThat(ids(targetJdbc, "section")).containsExactly(1000L);
+        assertThat(ids(targetJdbc, "page")).containsExactly(10000L, 10001L);
+        assertThat(ids(targetJdbc, "page_attachment")).containsExactly(10000000L);
+        assertThat(ids(targetJdbc, "page_bookmark")).containsExactly(100000L);
+        assertThat(ids(targetJdbc, "change_log_entry")).containsExactly(1000000L);
+        assertThat(targetJdbc.queryForObject("SELECT title FROM page WHERE id = 10001", String.class))
+                .isEqualTo("Page 10001");
+
+        assertThat(ids(sourceJdbc, "app_user")).containsExactly(2L);
+        assertThat(ids(sourceJdbc, "page")).containsExactly(20000L, 20001L);
+        assertThat(ids(sourceJdbc, "page_attachment")).containsExactly(20000000L);
+        assertThat(ids(sourceJdbc, "change_log_entry")).containsExactly(2000000L);
+        assertThat(directory.find(MOVING_USERNAME)).contains(new ShardDirectory.Assignment(1, false));
+        assertThat(directory.find(STAYING_USERNAME)).contains(new ShardDirectory.Assignment(0, false));
+    }
+
+    @Test
+    void move_whenTargetHasRowsOfEarlierAttempt_thenReplacesThem() throws InterruptedException {
+        insertUser(new JdbcTemplate(target), 1, MOVING_USERNAME);
+
+        rebalancer.move(MOVING_USERNAME, 1);
+
+        assertThat(ids(new JdbcTemplate(target), "page")).containsExactly(10000L, 10001L);
+        assertThat(directory.find(MOVING_USERNAME)).contains(new ShardDirectory.Assignment(1, false));
+    }
+
+    @Test
+    void move_whenCopyFails_thenUserStaysOnSource() {
+        new JdbcTemplate(target).execute("DROP TABLE change_log_entry");
+
+        assertThatExceptionOfType(DataAccessException.class)
+                .isThrownBy(() -> rebalancer.move(MOVING_USERNAME, 1));
+
+        assertThat(ids(new JdbcTemplate(target), "app_user")).isEmpty();
+        assertThat(ids(new JdbcTemplate(source), "app_user")).containsExactly(1L, 2L);
+        assertThat(directory.find(MOVING_USERNAME)).contains(new ShardDirectory.Assignment(0, false));
+    }
+
+    @Test
+    void move_whenSourceChangesAfterCopy_thenKeepsSourceRows() {
+        // A scheduled job writing to the old shard once the rows have been copied from there
+        var changingDirectory = new ShardDirectory(source, 2, Duration.ZERO, 100) {
+            @Override
+            public void reassign(String username, int shard) {
+                super.reassign(username, shard);
+                new JdbcTemplate(source).update(
+                        "INSERT INTO change_log_entry (id, owner_id, entity_id) VALUES (1000001, 1, 10000)");
+            }
+        };
+        rebalancer = new ShardRebalancer(changingDirectory, shards, Duration.ZERO);
+
+        assertThatIllegalStateException().isThrownBy(() -> rebalancer.move(MOVING_USERNAME, 1));
+
+        assertThat(ids(new JdbcTemplate(source), "app_user")).containsExactly(1L, 2L);
+        assertThat(ids(new JdbcTemplate(source), "change_log_entry")).containsExactly(1000000L, 1000001L, 2000000L);
+        assertThat(ids(new JdbcTemplate(target), "app_user")).containsExactly(1L);
+    }
+
+    @Test
+    void move_whenTargetShardDoesNotExist_thenThrows() {
+        assertThatIllegalArgumentException().isThrownBy(() -> rebalancer.move(MOVING_USERNAME, 2));
+    }
+
+    private static List<Long> ids(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+
+    // Ids are derived from the user id, a notebook with a section of two pages, one bookmarked and with an attachment,
+    // and one change
+    private static void insertUser(JdbcTemplate jdbcTemplate, long userId, String username) {
+        long notebookId = userId * 100;
+        long sectionId = userId * 1000;
+        long pageId = userId * 10000;
+        jdbcTemplate.update("INSERT INTO app_user (id, username, password, name) VALUES (?, ?, 'password', 'Name')",
+                userId, username);
+        jdbcTemplate.update("INSERT INTO notebook (id, name, app_user_id) VALUES (?, 'Notebook', ?)",
+                notebookId, userId);
+        jdbcTemplate.update("INSERT INTO section (id, name, notebook_id) VALUES (?, 'Section', ?)",
+                sectionId, notebookId);
+        for (long id = pageId; id < pageId + 2; id++) {
+            jdbcTemplate.update("INSERT INTO page (id, title, notebook_id, section_id) VALUES (?, ?, ?, ?)",
+                    id, "Page " + id, notebookId, sectionId);
+        }
+        jdbcTemplate.update("INSERT INTO page_attachment (id, page_id, file_name, size) VALUES (?, ?, 'file.txt', 1)",
+                userId * 10000000, pageId);
+        jdbcTemplate.update("INSERT INTO page_bookmark (id, page_id, user_id) VALUES (?, ?, ?)",
+                userId * 100000, pageId, userId);
+        jdbcTemplate.update("INSERT INTO change_log_entry (id, owner_id, entity_id) VALUES (?, ?, ?)",
+                userId * 1000000, userId, pageId);
+    }
+
+    private static EmbeddedDatabase createShard() {
+        var database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        var jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("""
+                CREATE TABLE user_shard (
+                    username VARCHAR(255) PRIMARY KEY,
+                    shard INTEGER NOT NULL,
+                    moving BOOLEAN NOT NULL DEFAULT FALSE)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE app_user (
+                    id BIGINT PRIMARY KEY,
+                    username VARCHAR(255) NOT NULL UNIQUE,
+                    password VARCHAR(255) NOT NULL,
+                    name VARCHAR(255) NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE notebook (
+                    id BIGINT PRIMARY KEY,
+                    name VARCHAR(255) NOT NULL,
+                    app_user_id BIGINT REFERENCES app_user (id) ON DELETE CASCADE)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE section (
+                    id BIGINT PRIMARY KEY,
+                    name VARCHAR(255) NOT NULL,
+                    notebook_id BIGINT REFERENCES notebook (id) ON DELETE CASCADE)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE page (
+                    id BIGINT PRIMARY KEY,
+                    title VARCHAR(255),
+                    notebook_id BIGINT NOT NULL,
+                    section_id BIGINT REFERENCES section (id) ON DELETE CASCADE)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE page_attachment (
+                    id BIGINT PRIMARY KEY,
+                    page_id BIGINT NOT NULL REFERENCES page (id) ON DELETE CASCADE,
+                    file_name VARCHAR(255) NOT NULL,
+                    size BIGINT NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE page_bookmark (
+                    id BIGINT PRIMARY KEY,
+                    page_id BIGINT NOT NULL REFERENCES page (id) ON DELETE CASCADE,
+                    user_id BIGINT NOT NULL REFERENCES app_user (id) ON DELETE CASCADE)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE change_log_entry (
+                    id BIGINT PRIMARY KEY,
+                    owner_id BIGINT NOT NULL,
+                    entity_id BIGINT NOT NULL)""");
+        return database;
+    }
+}
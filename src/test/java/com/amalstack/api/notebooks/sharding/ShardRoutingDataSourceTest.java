@@ -0,0 +1,103 @@
+package com.amalstack.api.notebooks.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ShardRoutingDataSourceTest {
+
+    private List<EmbeddedDatabase> shards;
+
+    private ShardRoutingDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void initEach() {
+        shards = List.of(createDatabase("shard-0"), createDatabase("shard-1"), createDatabase("shard-2"));
+        dataSource = new ShardRoutingDataSource(List.copyOf(shards));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        ShardContext.clear();
+        dataSource.close();
+        shards.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void getConnection_whenShardIsSet_thenUsesThatShard() {
+        ShardContext.set(2);
+
+        assertThat(readServer()).isEqualTo("shard-2");
+    }
+
+    @Test
+    void getConnection_whenNoShardIsSet_thenUsesFirstShard() {
+        assertThat(readServer()).isEqualTo("shard-0");
+    }
+
+    @Test
+    void getConnection_whenShardDoesNotExist_thenThrows() {
+        ShardContext.set(3);
+
+        assertThatExceptionOfType(CannotGetJdbcConnectionException.class).isThrownBy(this::readServer);
+    }
+
+    @Test
+    void callOn_thenRestoresPreviousShard() {
+        ShardContext.set(1);
+
+        assertThat(ShardContext.callOn(2, this::readServer)).isEqualTo("shard-2");
+        assertThat(readServer()).isEqualTo("shard-1");
+    }
+
+    @Test
+    void forEachShard_thenRunsOnEveryShard() {
+        List<String> servers = new ArrayList<>();
+
+        ShardContext.forEachShard(() -> servers.add(readServer()));
+
+        assertThat(servers).containsExactly("shard-0", "shard-1", "shard-2");
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void propagate_thenTaskRunsOnShardOfSubmittingThread() {
+        ShardContext.set(1);
+        var server = new CompletableFuture<String>();
+
+        Runnable task = ShardContext.propagate(() -> server.complete(readServer()));
+        new Thread(task).start();
+
+        assertThat(server.join()).isEqualTo("shard-1");
+    }
+
+    private String readServer() {
+        return jdbcTemplate.queryForObject("SELECT name FROM server", String.class);
+    }
+
+    private static EmbeddedDatabase createDatabase(String name) {
+        var database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        var jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE server (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO server VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,119 @@
+package com.amalstack.api.notebooks.sharding;
+
+import com.amalstack.api.notebooks.exception.UsernameAlreadyExistsException;
+import com.amalstack.api.notebooks.model.AppUser;
+import com.amalstack.api.notebooks.repository.AppUserRepository;
+import com.amalstack.api.notebooks.security.AppUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UserShardBackfillTest {
+
+    private static final String LEGACY_USERNAME = "legacy@example.com";
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ShardDirectory directory;
+
+    @BeforeEach
+    void initEach() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("""
+                CREATE TABLE app_user (
+                    id BIGINT PRIMARY KEY,
+                    username VARCHAR(255) NOT NULL UNIQUE,
+                    password VARCHAR(255) NOT NULL,
+                    name VARCHAR(255) NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE user_shard (
+                    username VARCHAR(255) PRIMARY KEY,
+                    shard INTEGER NOT NULL,
+                    moving BOOLEAN NOT NULL DEFAULT FALSE)""");
+        // Registered before V3, so without a directory entry
+        jdbcTemplate.update("INSERT INTO app_user (id, username, password, name) VALUES (1, ?, 'password', 'Legacy')",
+                LEGACY_USERNAME);
+        directory = new ShardDirectory(database, 2, Duration.ZERO, 100);
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void migrate_whenUserPredatesDirectory_thenUserCanSignIn() throws IOException {
+        migrate(0);
+
+        var userRepository = Mockito.mock(AppUserRepository.class);
+        Mockito.when(userRepository.findByUsername(LEGACY_USERNAME)).thenAnswer(invocation ->
+                Integer.valueOf(0).equals(ShardContext.current())
+                        ? Optional.of(new AppUser(1L, LEGACY_USERNAME, "Legacy", "password"))
+                        : Optional.empty());
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardDirectory> directoryProvider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(directoryProvider.getIfAvailable()).thenReturn(directory);
+
+        var userDetails = new AppUserDetailsService(userRepository, directoryProvider)
+                .loadUserByUsername(LEGACY_USERNAME);
+
+        assertThat(userDetails.getUsername()).isEqualTo(LEGACY_USERNAME);
+        assertThat(directory.find(LEGACY_USERNAME)).contains(new ShardDirectory.Assignment(0, false));
+    }
+
+    @Test
+    void migrate_whenUserPredatesDirectory_thenUsernameCannotBeRegisteredAgain() throws IOException {
+        migrate(0);
+
+        assertThatExceptionOfType(UsernameAlreadyExistsException.class)
+                .isThrownBy(() -> directory.assign(LEGACY_USERNAME));
+    }
+
+    @Test
+    void migrate_whenUserIsAssigned_thenKeepsAssignment() throws IOException {
+        jdbcTemplate.update("INSERT INTO user_shard (username, shard) VALUES (?, 1)", LEGACY_USERNAME);
+
+        migrate(0);
+
+        assertThat(directory.find(LEGACY_USERNAME)).contains(new ShardDirectory.Assignment(1, false));
+    }
+
+    @Test
+    void migrate_whenShardIsNotFirst_thenRecordsNothing() throws IOException {
+        migrate(1);
+
+        assertThat(directory.find(LEGACY_USERNAME)).isEmpty();
+    }
+
+    // Runs the migration as Flyway would on the given shard
+    private void migrate(int shardId) throws IOException {
+        String script = new ClassPathResource("db/migration/V8__backfill_user_shard.sql")
+                .getContentAsString(StandardCharsets.UTF_8)
+                .replace("${shard_id}", Integer.toString(shardId));
+        new ResourceDatabasePopulator(new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)))
+                .execute(database);
+    }
+}
@@ -0,0 +1,125 @@
+package com.amalstack.api.notebooks.tree;
+
+import com.amalstack.api.notebooks.autosave.PageAutosaveBuffer;
+import com.amalstack.api.notebooks.bookmarks.BookmarkedPageCache;
+import com.amalstack.api.notebooks.dto.NotebookInfoDto;
+import com.amalstack.api.notebooks.dto.NotebookTreeRow;
+import com.amalstack.api.notebooks.dto.PageInfoDto;
+import com.amalstack.api.notebooks.dto.SectionInfoDto;
+import com.amalstack.api.notebooks.repository.SectionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class NotebookTreeWriterTest {
+
+    private static final String USERNAME = "tree@example.com";
+
+    private static final long NOTEBOOK_ID = 1L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final NotebookInfoDto notebook = new NotebookInfoDto(NOTEBOOK_ID,
+            2L,
+            "Notebook",
+            null,
+            LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+            List.of());
+
+    private SectionRepository sectionRepository;
+
+    private ObjectProvider<PageAutosaveBuffer> autosaveBuffer;
+
+    private ObjectProvider<BookmarkedPageCache> bookmarkedPages;
+
+    private NotebookTreeWriter writer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initEach() {
+        sectionRepository = Mockito.mock(SectionRepository.class);
+        autosaveBuffer = Mockito.mock(ObjectProvider.class);
+        bookmarkedPages = Mockito.mock(ObjectProvider.class);
+        writer = new NotebookTreeWriter(sectionRepository,
+                objectMapper,
+                Mockito.mock(PlatformTransactionManager.class),
+                autosaveBuffer,
+                bookmarkedPages);
+    }
+
+    @Test
+    void write_thenWritesSameJsonAsNotebookInfoDto() throws IOException {
+        when(sectionRepository.streamTree(NOTEBOOK_ID)).thenReturn(Stream.of(
+                new NotebookTreeRow(10L, "Section 1", 100L, "Page 1", "Content 1"),
+                new NotebookTreeRow(10L, "Section 1", 101L, "Page 2", null),
+                new NotebookTreeRow(11L, "Empty section", null, null, null),
+                new NotebookTreeRow(12L, "Section 3", 102L, "Page 3", "Content 3")));
+
+        var expected = new NotebookInfoDto(notebook.id(),
+                notebook.userId(),
+                notebook.name(),
+                notebook.description(),
+                notebook.creationTime(),
+                List.of(new SectionInfoDto(10L, NOTEBOOK_ID, "Section 1", List.of(
+                                new PageInfoDto(100L, "Page 1", "Content 1", 10L),
+                                new PageInfoDto(101L, "Page 2", null, 10L))),
+                        new SectionInfoDto(11L, NOTEBOOK_ID, "Empty section", List.of()),
+                        new SectionInfoDto(12L, NOTEBOOK_ID, "Section 3", List.of(
+                                new PageInfoDto(102L, "Page 3", "Content 3", 12L)))));
+
+        assertThat(write()).isEqualTo(objectMapper.writeValueAsString(expected));
+    }
+
+    @Test
+    void write_whenNotebookHasNoSections_thenWritesEmptySections() throws IOException {
+        when(sectionRepository.streamTree(NOTEBOOK_ID)).thenReturn(Stream.empty());
+
+        assertThat(write()).isEqualTo(objectMapper.writeValueAsString(notebook));
+    }
+
+    @Test
+    void write_whenPagesAreBookmarkedOrHavePendingContent_thenWritesThem() throws IOException {
+        when(sectionRepository.streamTree(NOTEBOOK_ID)).thenReturn(Stream.of(
+                new NotebookTreeRow(10L, "Section 1", 100L, "Page 1", "Saved content"),
+                new NotebookTreeRow(10L, "Section 1", 101L, "Page 2", "Content 2")));
+        var bookmarks = Mockito.mock(BookmarkedPageCache.class);
+        when(bookmarks.pageIds(USERNAME)).thenReturn(Set.of(101L));
+        when(bookmarkedPages.getIfAvailable()).thenReturn(bookmarks);
+        var buffer = Mockito.mock(PageAutosaveBuffer.class);
+        when(buffer.pendingContent(Mockito.anyLong(), Mockito.eq(USERNAME))).thenReturn(Optional.empty());
+        when(buffer.pendingContent(100L, USERNAME)).thenReturn(Optional.of("Pending content"));
+        when(autosaveBuffer.getIfAvailable()).thenReturn(buffer);
+
+        var tree = objectMapper.readValue(write(), NotebookInfoDto.class);
+
+        assertThat(tree.sections())
+                .flatExtracting(SectionInfoDto::pages)
+                .containsExactly(new PageInfoDto(100L, "Page 1", "Pending content", 10L, false),
+                        new PageInfoDto(101L, "Page 2", "Content 2", 10L, true));
+    }
+
+    private String write() throws IOException {
+        var out = new ByteArrayOutputStream();
+        writer.write(notebook, USERNAME, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package com.amalstack.api.notebooks.users;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_whenValueWasAdded_thenIsTrue() {
+        var filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@example.com"));
+
+        assertThat(IntStream.range(0, 10_000))
+                .allMatch(i -> filter.mightContain("user" + i + "@example.com"));
+    }
+
+    @Test
+    void mightContain_whenValueWasNotAdded_thenIsRarelyTrue() {
+        var filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@example.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.org"))
+                .count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void create_whenFalsePositiveRateIsOutOfRange_thenThrows() {
+        assertThatIllegalArgumentException().isThrownBy(() -> BloomFilter.create(100, 1.0));
+        assertThatIllegalArgumentException().isThrownBy(() -> BloomFilter.create(0, 0.01));
+    }
+}
@@ -0,0 +1,95 @@
+package com.amalstack.api.notebooks.users;
+
+import com.amalstack.api.notebooks.repository.AppUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class UsernameBloomFilterTest {
+
+    private AppUserRepository userRepository;
+
+    private UsernameBloomFilter usernames;
+
+    @BeforeEach
+    void initEach() {
+        userRepository = Mockito.mock(AppUserRepository.class);
+        usernames = new UsernameBloomFilter(userRepository,
+                Mockito.mock(PlatformTransactionManager.class),
+                1000,
+                0.01,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void mightExist_whenNotBuiltYet_thenIsTrue() {
+        assertThat(usernames.mightExist("new@example.com")).isTrue();
+    }
+
+    @Test
+    void mightExist_whenBuilt_thenReportsExistingUsernames() {
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.of("test1@example.com", "test2@example.com"));
+
+        usernames.rebuild();
+
+        assertThat(usernames.mightExist("test1@example.com")).isTrue();
+        assertThat(usernames.mightExist("test2@example.com")).isTrue();
+        assertThat(usernames.mightExist("new@example.com")).isFalse();
+    }
+
+    @Test
+    void add_whenBuilt_thenReportsAddedUsername() {
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.empty());
+        usernames.rebuild();
+
+        usernames.add("new@example.com");
+
+        assertThat(usernames.mightExist("new@example.com")).isTrue();
+    }
+
+    @Test
+    void refresh_whenUserRegisteredThroughOtherInstance_thenReportsUsername() {
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.empty());
+        usernames.rebuild();
+        when(userRepository.findUsernamesRegisteredSince(any())).thenReturn(List.of("other@example.com"));
+
+        usernames.refresh();
+
+        assertThat(usernames.mightExist("other@example.com")).isTrue();
+        assertThat(usernames.mightExist("new@example.com")).isFalse();
+    }
+
+    @Test
+    void mightExist_whenNotRefreshedForTwoIntervals_thenIsTrue() throws InterruptedException {
+        usernames = new UsernameBloomFilter(userRepository,
+                Mockito.mock(PlatformTransactionManager.class),
+                1000,
+                0.01,
+                Duration.ofMillis(1));
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.empty());
+        usernames.rebuild();
+
+        Thread.sleep(10);
+
+        assertThat(usernames.mightExist("new@example.com")).isTrue();
+    }
+
+    @Test
+    void rebuild_whenScanFails_thenKeepsFallingBackToDatabase() {
+        when(userRepository.streamAllUsernames()).thenThrow(new DataAccessResourceFailureException("Database is down"));
+
+        usernames.rebuild();
+
+        assertThat(usernames.mightExist("new@example.com")).isTrue();
+    }
+}